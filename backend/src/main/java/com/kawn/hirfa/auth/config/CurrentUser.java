@@ -0,0 +1,21 @@
+package com.kawn.hirfa.auth.config;
+
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Resolves the full {@link com.kawn.hirfa.auth.domain.User} of the current request, whichever
+ * principal the authentication filter installed. Only controllers that declare it pay for
+ * loading the user.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@AuthenticationPrincipal(expression = "@currentUserResolver.resolve(#root)")
+public @interface CurrentUser {
+}
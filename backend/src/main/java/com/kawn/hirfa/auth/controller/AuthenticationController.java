@@ -3,12 +3,15 @@ package com.kawn.hirfa.auth.controller;
 import com.kawn.hirfa.auth.dto.AuthenticationRequest;
 import com.kawn.hirfa.auth.dto.AuthenticationResponse;
 import com.kawn.hirfa.auth.dto.RegisterRequest;
+import com.kawn.hirfa.auth.dto.RevokeTokenRequest;
 import com.kawn.hirfa.auth.service.AuthenticationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -30,4 +33,20 @@ public class AuthenticationController {
             @RequestBody AuthenticationRequest request) {
         return ResponseEntity.ok(service.authenticate(request));
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
+        if (authHeader.startsWith("Bearer ")) {
+            service.revoke(authHeader.substring(7));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/revoke")
+    public ResponseEntity<Void> revoke(
+            @Valid @RequestBody RevokeTokenRequest request) {
+        service.revoke(request.getToken());
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,31 @@
+package com.kawn.hirfa.auth.domain;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Lightweight principal built from verified JWT claims, used when the stateless principal mode
+ * is enabled. Carries just enough to authorize a request; the full {@link User} is loaded on
+ * demand through {@code @CurrentUser}.
+ */
+public record AuthenticatedUser(Long id, String phoneNumber, UserRole role, int tokenVersion) implements UserDetails {
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return null; // OTP based, no password
+    }
+
+    @Override
+    public String getUsername() {
+        return phoneNumber;
+    }
+}
@@ -24,7 +24,8 @@ import java.util.List;
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -41,8 +42,18 @@ public class User implements UserDetails {
     @ElementCollection(fetch = FetchType.EAGER)
     private java.util.Set<String> badges;
 
+    // Trades a provider offers, e.g. "PLUMBING"; new jobs in these categories are pushed to them
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "user_categories", joinColumns = @JoinColumn(name = "user_id"),
+            indexes = @Index(name = "idx_user_categories_category", columnList = "categories"))
+    private java.util.Set<String> categories;
+
     private boolean verified;
 
+    // Embedded in issued tokens; bump it to invalidate claims-based principals
+    @Builder.Default
+    private Integer tokenVersion = 0;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
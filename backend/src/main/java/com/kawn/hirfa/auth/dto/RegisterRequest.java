@@ -7,6 +7,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Set;
+
 @Data
 @Builder
 @AllArgsConstructor
@@ -23,4 +25,8 @@ public class RegisterRequest {
 
     @NotNull(message = "Role is required")
     private UserRole role;
+
+    // Providers only: job categories they want to be notified about
+    @Size(max = 10, message = "At most 10 categories")
+    private Set<@NotBlank @Size(max = 50) String> categories;
 }
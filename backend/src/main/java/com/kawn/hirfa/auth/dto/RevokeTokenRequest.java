@@ -0,0 +1,17 @@
+package com.kawn.hirfa.auth.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevokeTokenRequest {
+
+    @NotBlank(message = "Token is required")
+    private String token;
+}
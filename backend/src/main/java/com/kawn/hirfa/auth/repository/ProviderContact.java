@@ -0,0 +1,10 @@
+package com.kawn.hirfa.auth.repository;
+
+/**
+ * Provider id and the name its WebSocket sessions are registered under (the phone number).
+ */
+public interface ProviderContact {
+    Long getId();
+
+    String getPhoneNumber();
+}
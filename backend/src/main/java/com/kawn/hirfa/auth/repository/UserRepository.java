@@ -2,8 +2,25 @@ package com.kawn.hirfa.auth.repository;
 
 import com.kawn.hirfa.auth.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByPhoneNumber(String phoneNumber);
+
+    @Query("""
+            SELECT u.id AS id, u.phoneNumber AS phoneNumber FROM User u
+            WHERE u.id IN :ids AND u.role = com.kawn.hirfa.auth.domain.UserRole.PROVIDER
+            """)
+    List<ProviderContact> findProviderContacts(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT u.id AS id, u.phoneNumber AS phoneNumber FROM User u JOIN u.categories c
+            WHERE u.id IN :ids AND u.role = com.kawn.hirfa.auth.domain.UserRole.PROVIDER AND c = :category
+            """)
+    List<ProviderContact> findProviderContacts(@Param("ids") Collection<Long> ids, @Param("category") String category);
 }
@@ -1,24 +1,37 @@
 package com.kawn.hirfa.auth.service;
 
 import com.kawn.hirfa.auth.domain.User;
+import com.kawn.hirfa.auth.domain.UserRole;
 import com.kawn.hirfa.auth.dto.AuthenticationRequest;
 import com.kawn.hirfa.auth.dto.AuthenticationResponse;
 import com.kawn.hirfa.auth.dto.RegisterRequest;
 import com.kawn.hirfa.auth.repository.UserRepository;
+import com.kawn.hirfa.common.exception.InvalidOperationException;
+import com.kawn.hirfa.match.support.JobCategory;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
 @Service
 @RequiredArgsConstructor
 public class AuthenticationService {
     private final UserRepository repository;
     private final JwtService jwtService;
+    private final TokenRevocationService revocationService;
 
     public AuthenticationResponse register(RegisterRequest request) {
+        // Administrators are promoted in the database, never self-registered
+        if (request.getRole() == UserRole.ADMIN) {
+            throw new InvalidOperationException("Cannot register as an administrator");
+        }
         var user = User.builder()
                 .fullName(request.getFullName())
                 .phoneNumber(request.getPhoneNumber())
                 .role(request.getRole())
+                .categories(JobCategory.normalize(request.getCategories()))
                 .build();
         repository.save(user);
         var jwtToken = jwtService.generateToken(user);
@@ -36,4 +49,14 @@ public class AuthenticationService {
                 .token(jwtToken)
                 .build();
     }
+
+    /**
+     * Revokes a token until it would have expired anyway. Holding a valid token is enough
+     * to revoke it, the same way logout works.
+     */
+    public void revoke(String token) {
+        Claims claims = jwtService.verify(token);
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault());
+        revocationService.revoke(claims.getId(), expiresAt);
+    }
 }
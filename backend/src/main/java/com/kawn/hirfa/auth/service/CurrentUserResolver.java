@@ -0,0 +1,32 @@
+package com.kawn.hirfa.auth.service;
+
+import com.kawn.hirfa.auth.domain.AuthenticatedUser;
+import com.kawn.hirfa.auth.domain.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+@Component
+@RequiredArgsConstructor
+public class CurrentUserResolver {
+
+    private final UserCache userCache;
+
+    public User resolve(Object principal) {
+        if (principal instanceof User user) {
+            return user;
+        }
+        if (principal instanceof AuthenticatedUser authenticated) {
+            User user = userCache.findById(authenticated.id())
+                    .orElseThrow(() -> new BadCredentialsException("User no longer exists"));
+            // A bumped version means role or credentials changed after the token was issued
+            if (Objects.requireNonNullElse(user.getTokenVersion(), 0) != authenticated.tokenVersion()) {
+                throw new BadCredentialsException("Token is stale, please sign in again");
+            }
+            return user;
+        }
+        return null;
+    }
+}
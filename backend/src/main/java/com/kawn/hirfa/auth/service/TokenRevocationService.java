@@ -0,0 +1,148 @@
+package com.kawn.hirfa.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kawn.hirfa.auth.domain.RevokedToken;
+import com.kawn.hirfa.auth.repository.RevokedTokenRepository;
+import com.kawn.hirfa.common.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks revoked token ids (jti) without a database hit on the common "not revoked" path.
+ * <p>
+ * Every node keeps a Bloom filter of all unexpired revocations plus an exact map of the ones
+ * seen since the filter was last rebuilt. A token absent from both is accepted without I/O;
+ * a Bloom hit is confirmed against the database, and confirmed false positives are remembered
+ * for a short while. Revocations made on other nodes are picked up by a periodic sync, and the
+ * filter is rebuilt periodically so expired tokens fall out of it.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(5);
+
+    private final RevokedTokenRepository repository;
+    private final long expectedRevocations;
+    private final double falsePositiveProbability;
+
+    private final Map<String, RecentRevocation> recent = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> confirmedNotRevoked;
+    private final Counter bloomHits;
+    private final Counter databaseChecks;
+
+    private volatile BloomFilter bloom;
+    private volatile LocalDateTime lastSync;
+
+    public TokenRevocationService(
+            RevokedTokenRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.revocation.expected-revocations:100000}") long expectedRevocations,
+            @Value("${jwt.revocation.false-positive-probability:0.001}") double falsePositiveProbability) {
+        this.repository = repository;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.bloom = new BloomFilter(expectedRevocations, falsePositiveProbability);
+        this.lastSync = LocalDateTime.now();
+        this.confirmedNotRevoked = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(5))
+                .build();
+        this.bloomHits = meterRegistry.counter("auth.revocation.bloom.hits");
+        this.databaseChecks = meterRegistry.counter("auth.revocation.db.checks");
+        Gauge.builder("auth.revocation.recent.size", recent, Map::size).register(meterRegistry);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false; // Tokens issued before revocation support carry no id
+        }
+        RecentRevocation known = recent.get(jti);
+        if (known != null) {
+            return known.expiresAt().isAfter(LocalDateTime.now());
+        }
+        if (!bloom.mightContain(jti)) {
+            return false;
+        }
+        bloomHits.increment();
+        if (confirmedNotRevoked.getIfPresent(jti) != null) {
+            return false;
+        }
+        databaseChecks.increment();
+        RevokedToken revoked = repository.findById(jti).orElse(null);
+        if (revoked == null) {
+            confirmedNotRevoked.put(jti, Boolean.TRUE);
+            return false;
+        }
+        remember(revoked);
+        return revoked.getExpiresAt().isAfter(LocalDateTime.now());
+    }
+
+    public void revoke(String jti, LocalDateTime expiresAt) {
+        if (jti == null || !expiresAt.isAfter(LocalDateTime.now())) {
+            return;
+        }
+        RevokedToken revoked = RevokedToken.builder()
+                .jti(jti)
+                .expiresAt(expiresAt)
+                .revokedAt(LocalDateTime.now())
+                .build();
+        // A concurrent revoke of the same token is not an error; keep the row that won
+        if (repository.insertIfAbsent(jti, revoked.getExpiresAt(), revoked.getRevokedAt()) == 0) {
+            revoked = repository.findById(jti).orElse(revoked);
+        }
+        remember(revoked);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-interval:PT1H}",
+            initialDelayString = "${jwt.revocation.rebuild-interval:PT1H}")
+    public void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        repository.deleteExpired(now);
+        List<RevokedToken> active = repository.findActive(now);
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, active.size() * 2L), falsePositiveProbability);
+        active.forEach(token -> rebuilt.put(token.getJti()));
+        bloom = rebuilt;
+
+        // Anything revoked before the snapshot is now in the filter; only newer entries stay exact
+        LocalDateTime snapshot = now.minus(SYNC_OVERLAP);
+        recent.values().removeIf(entry -> entry.revokedAt().isBefore(snapshot) || !entry.expiresAt().isAfter(now));
+        confirmedNotRevoked.invalidateAll();
+        log.info("Rebuilt token revocation filter with {} active revocations ({} bits)", active.size(), rebuilt.bitSize());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:PT30S}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        // Overlap the window so revocations committed late by other nodes are not missed
+        List<RevokedToken> newer = repository.findActiveRevokedSince(lastSync.minus(SYNC_OVERLAP), now);
+        newer.forEach(this::remember);
+        lastSync = now;
+        recent.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+    }
+
+    private void remember(RevokedToken revoked) {
+        bloom.put(revoked.getJti());
+        recent.put(revoked.getJti(), new RecentRevocation(revoked.getRevokedAt(), revoked.getExpiresAt()));
+        confirmedNotRevoked.invalidate(revoked.getJti());
+    }
+
+    private record RecentRevocation(LocalDateTime revokedAt, LocalDateTime expiresAt) {
+    }
+}
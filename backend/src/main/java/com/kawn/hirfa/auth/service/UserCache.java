@@ -0,0 +1,84 @@
+package com.kawn.hirfa.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kawn.hirfa.auth.domain.User;
+import com.kawn.hirfa.auth.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded read-through cache in front of {@link UserRepository} lookups on hot paths
+ * (authentication, current-user resolution). Entries are detached entities and must be
+ * treated as read-only; writes to {@link User} evict them through {@code UserCacheInvalidator}.
+ */
+@Component
+public class UserCache {
+
+    public static final String CACHE_NAME = "users";
+
+    private final UserRepository userRepository;
+    private final Cache<Long, User> byId;
+    private final Cache<String, Long> idByPhone;
+
+    public UserCache(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${users.cache.max-size:50000}") long maxSize,
+            @Value("${users.cache.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        // Caffeine evicts by W-TinyLFU: recency and frequency, so a scan cannot flush hot users
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.idByPhone = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, CACHE_NAME);
+    }
+
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(byId.get(id, key -> userRepository.findById(key).orElse(null)));
+    }
+
+    public Optional<User> findByPhoneNumber(String phoneNumber) {
+        Long id = idByPhone.getIfPresent(phoneNumber);
+        if (id != null) {
+            User cached = byId.getIfPresent(id);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+        Optional<User> user = userRepository.findByPhoneNumber(phoneNumber);
+        user.ifPresent(this::put);
+        return user;
+    }
+
+    public void put(User user) {
+        if (user.getId() == null) {
+            return;
+        }
+        byId.put(user.getId(), user);
+        idByPhone.put(user.getPhoneNumber(), user.getId());
+    }
+
+    public void evict(Long id) {
+        User removed = byId.asMap().remove(id);
+        if (removed != null) {
+            idByPhone.invalidate(removed.getPhoneNumber());
+        }
+    }
+
+    public void evictAll() {
+        byId.invalidateAll();
+        idByPhone.invalidateAll();
+    }
+}
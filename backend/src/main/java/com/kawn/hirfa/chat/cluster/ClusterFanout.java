@@ -0,0 +1,185 @@
+package com.kawn.hirfa.chat.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kawn.hirfa.chat.domain.ChatMessage;
+import com.kawn.hirfa.chat.service.ChatMessagePipeline;
+import com.kawn.hirfa.chat.service.RecentMessageCache;
+import com.kawn.hirfa.geo.service.LocationStreamService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Interceptor of the broker channel that joins the nodes' brokers through the
+ * {@link ClusterRelay}. Messages published on this node to {@code /topic/...} and
+ * {@code /user/...} also go to the relay, and messages from other nodes are published here,
+ * marked with {@link #RELAYED_HEADER} so they are not relayed again. User destinations travel
+ * unresolved, so each node delivers them to whichever sessions of that user it holds.
+ * <p>
+ * Each node numbers its messages; a message from this node, or one not newer than the last
+ * received from its node, is an echo or a repeat and is dropped.
+ * <p>
+ * Chat messages from other nodes also go to this node's {@link RecentMessageCache}, so its
+ * rings keep up with messages stored elsewhere. A payload that cannot be read drops the job's
+ * ring instead.
+ * <p>
+ * Services can also exchange events through the relay with {@link #publishEvent} and
+ * {@link #onEvent}; events are numbered and deduplicated like messages, but never reach a
+ * broker. Location tiles are built on every node from relayed location events, so tile frames
+ * themselves are not relayed.
+ */
+@Slf4j
+@Component
+public class ClusterFanout implements ChannelInterceptor {
+
+    public static final String RELAYED_HEADER = "relayedFrom";
+
+    // Relay destinations of events, which no broker destination starts with
+    private static final String EVENT_PREFIX = "cluster:";
+    // Destinations every node publishes on its own
+    private static final List<String> NODE_LOCAL_PREFIXES = List.of(LocationStreamService.TOPIC_PREFIX);
+
+    private final ClusterRelay relay;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final RecentMessageCache recentMessages;
+    private final ObjectMapper objectMapper;
+    // Per start, so a restarted node is not taken for a repeat of its earlier self
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, AtomicLong> lastReceived = new ConcurrentHashMap<>();
+    private final Map<String, Consumer<byte[]>> eventHandlers = new ConcurrentHashMap<>();
+    private final Counter relayed;
+    private final Counter delivered;
+    private final Counter duplicates;
+    private final Counter events;
+    private long sequence; // Guarded by this
+
+    public ClusterFanout(
+            ClusterRelay relay,
+            // The template's channel is built after the interceptors it is configured with
+            @Lazy SimpMessagingTemplate messagingTemplate,
+            RecentMessageCache recentMessages,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.relay = relay;
+        this.messagingTemplate = messagingTemplate;
+        this.recentMessages = recentMessages;
+        this.objectMapper = objectMapper;
+        this.relayed = meterRegistry.counter("cluster.fanout.messages", "direction", "relayed");
+        this.delivered = meterRegistry.counter("cluster.fanout.messages", "direction", "delivered");
+        this.duplicates = meterRegistry.counter("cluster.fanout.messages", "direction", "duplicate");
+        this.events = meterRegistry.counter("cluster.fanout.messages", "direction", "event");
+        relay.onMessage(this::receive);
+    }
+
+    /** Whether other nodes exist, so that what this node knows is only part of the picture. */
+    public boolean isClustered() {
+        return relay != ClusterRelay.NONE;
+    }
+
+    /** Sends an event to the other nodes' handlers of {@code name}; does nothing on a single node. */
+    public void publishEvent(String name, byte[] payload) {
+        if (!isClustered()) {
+            return;
+        }
+        synchronized (this) {
+            relay.publish(new RelayMessage(nodeId, ++sequence, EVENT_PREFIX + name, null, payload));
+        }
+    }
+
+    /** Sets the handler of events named {@code name} from other nodes; it runs on a relay thread. */
+    public void onEvent(String name, Consumer<byte[]> handler) {
+        eventHandlers.put(EVENT_PREFIX + name, handler);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (relay == ClusterRelay.NONE || !relayable(message)) {
+            return message;
+        }
+        MessageHeaders headers = message.getHeaders();
+        Object contentType = headers.get(MessageHeaders.CONTENT_TYPE); // A MimeType or its text
+        // Numbered and handed over together, so the relay sees the numbers in order
+        synchronized (this) {
+            relay.publish(new RelayMessage(nodeId, ++sequence, SimpMessageHeaderAccessor.getDestination(headers),
+                    contentType == null ? null : contentType.toString(), (byte[]) message.getPayload()));
+        }
+        relayed.increment();
+        return message;
+    }
+
+    private static boolean relayable(Message<?> message) {
+        MessageHeaders headers = message.getHeaders();
+        if (headers.containsKey(RELAYED_HEADER) || !(message.getPayload() instanceof byte[])
+                || SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE) {
+            return false;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        return destination != null && (destination.startsWith("/topic/") || destination.startsWith("/user/"))
+                && NODE_LOCAL_PREFIXES.stream().noneMatch(destination::startsWith);
+    }
+
+    void receive(RelayMessage message) {
+        if (nodeId.equals(message.origin()) || lastReceived.computeIfAbsent(message.origin(), origin -> new AtomicLong())
+                .getAndAccumulate(message.sequence(), Math::max) >= message.sequence()) {
+            duplicates.increment();
+            return;
+        }
+        if (message.destination().startsWith(EVENT_PREFIX)) {
+            Consumer<byte[]> handler = eventHandlers.get(message.destination());
+            if (handler != null) {
+                handler.accept(message.payload());
+            }
+            events.increment();
+            return;
+        }
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setDestination(message.destination());
+        if (message.contentType() != null) {
+            headers.setContentType(MimeType.valueOf(message.contentType()));
+        }
+        headers.setHeader(RELAYED_HEADER, message.origin());
+        messagingTemplate.getMessageChannel().send(MessageBuilder.createMessage(message.payload(),
+                headers.getMessageHeaders()));
+        delivered.increment();
+        if (recentMessages.isEnabled() && message.destination().startsWith(ChatMessagePipeline.TOPIC_PREFIX)) {
+            cacheChatMessage(message);
+        }
+    }
+
+    private void cacheChatMessage(RelayMessage message) {
+        try {
+            ChatMessage chatMessage = objectMapper.readValue(message.payload(), ChatMessage.class);
+            if (chatMessage.getId() != null && chatMessage.getJobId() != null && chatMessage.getTimestamp() != null) {
+                recentMessages.messageRelayed(chatMessage);
+                return;
+            }
+        } catch (IOException e) {
+            log.debug("Unreadable chat message relayed to {}: {}", message.destination(), e.getMessage());
+        }
+        try {
+            recentMessages.invalidate(Long.valueOf(
+                    message.destination().substring(ChatMessagePipeline.TOPIC_PREFIX.length())));
+        } catch (NumberFormatException ignored) {
+            // Not a job topic, so there is no ring to drop
+        }
+    }
+}
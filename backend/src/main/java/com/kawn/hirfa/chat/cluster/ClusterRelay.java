@@ -0,0 +1,30 @@
+package com.kawn.hirfa.chat.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries broker messages, and events between services, between backend nodes, so a client
+ * connected to any node receives what is published on the others. {@link ClusterFanout} hands it each message published on
+ * this node and republishes what arrives from the others; implementations only move bytes.
+ * Delivery is best effort, messages from one node arrive in the order that node published them,
+ * and a relay may hand back this node's own messages or repeat some.
+ */
+public interface ClusterRelay {
+
+    /** For a single node: nothing is relayed. */
+    ClusterRelay NONE = new ClusterRelay() {
+        @Override
+        public void publish(RelayMessage message) {
+        }
+
+        @Override
+        public void onMessage(Consumer<RelayMessage> listener) {
+        }
+    };
+
+    /** Sends a message published on this node to the other nodes, without blocking. */
+    void publish(RelayMessage message);
+
+    /** Sets where messages from other nodes go; called once, before the relay starts. */
+    void onMessage(Consumer<RelayMessage> listener);
+}
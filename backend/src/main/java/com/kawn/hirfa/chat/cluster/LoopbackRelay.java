@@ -0,0 +1,52 @@
+package com.kawn.hirfa.chat.cluster;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Relay between nodes in one JVM, for tests and local experiments. Every relay on a {@link Bus}
+ * receives every message published on it, its own included, like subscribers of a shared log.
+ */
+public class LoopbackRelay implements ClusterRelay {
+
+    /** The bus of relays created from configuration, so several contexts in one JVM are connected. */
+    public static final Bus SHARED_BUS = new Bus();
+
+    public static final class Bus {
+
+        private final List<LoopbackRelay> members = new CopyOnWriteArrayList<>();
+
+        private void publish(RelayMessage message) {
+            for (LoopbackRelay member : members) {
+                Consumer<RelayMessage> listener = member.listener;
+                if (listener != null) {
+                    listener.accept(message);
+                }
+            }
+        }
+    }
+
+    private final Bus bus;
+    private volatile Consumer<RelayMessage> listener;
+
+    public LoopbackRelay(Bus bus) {
+        this.bus = bus;
+        bus.members.add(this);
+    }
+
+    @Override
+    public void publish(RelayMessage message) {
+        bus.publish(message);
+    }
+
+    @Override
+    public void onMessage(Consumer<RelayMessage> listener) {
+        this.listener = listener;
+    }
+
+    /** Leaves the bus. */
+    public void close() {
+        bus.members.remove(this);
+    }
+}
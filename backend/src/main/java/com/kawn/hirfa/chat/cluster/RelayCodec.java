@@ -0,0 +1,142 @@
+package com.kawn.hirfa.chat.cluster;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Wire format of a batch of relayed messages: a flag byte, then the messages, deflated when the
+ * batch is large enough to gain from it. The JSON of chat and location frames repeats the same
+ * field names and destinations, so a full batch shrinks several times.
+ * <p>
+ * Decoding trusts nothing it reads: a batch may hold at most {@link #MAX_BATCH_MESSAGES}
+ * messages of at most {@link #MAX_PAYLOAD_BYTES} each, and at most {@link #MAX_BATCH_BYTES}
+ * once inflated.
+ */
+final class RelayCodec {
+
+    static final int COMPRESS_FROM_BYTES = 512;
+    static final int MAX_BATCH_BYTES = 16 * 1024 * 1024;
+    static final int MAX_BATCH_MESSAGES = 10_000;
+    static final int MAX_PAYLOAD_BYTES = 1024 * 1024;
+
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATED = 1;
+
+    private RelayCodec() {
+    }
+
+    static byte[] encode(List<RelayMessage> batch) {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(plain)) {
+            out.writeInt(batch.size());
+            for (RelayMessage message : batch) {
+                out.writeUTF(message.origin());
+                out.writeLong(message.sequence());
+                out.writeUTF(message.destination());
+                out.writeUTF(message.contentType() == null ? "" : message.contentType());
+                out.writeInt(message.payload().length);
+                out.write(message.payload());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (plain.size() < COMPRESS_FROM_BYTES) {
+            return withFlag(PLAIN, plain);
+        }
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream(plain.size() / 4 + 16);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(deflated, deflater)) {
+            plain.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return withFlag(DEFLATED, deflated);
+    }
+
+    static List<RelayMessage> decode(byte[] frame) throws IOException {
+        InputStream body = new ByteArrayInputStream(frame, 1, frame.length - 1);
+        if (frame[0] == DEFLATED) {
+            body = new Bounded(new InflaterInputStream(body), MAX_BATCH_BYTES);
+        } else if (frame[0] != PLAIN) {
+            throw new IOException("Unknown relay frame type " + frame[0]);
+        }
+        try (DataInputStream in = new DataInputStream(body)) {
+            int count = in.readInt();
+            if (count < 0 || count > MAX_BATCH_MESSAGES) {
+                throw new IOException("Relay batch of " + count + " messages");
+            }
+            List<RelayMessage> batch = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String origin = in.readUTF();
+                long sequence = in.readLong();
+                String destination = in.readUTF();
+                String contentType = in.readUTF();
+                int length = in.readInt();
+                if (length < 0 || length > MAX_PAYLOAD_BYTES) {
+                    throw new IOException("Relayed payload of " + length + " bytes");
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                batch.add(new RelayMessage(origin, sequence, destination, contentType.isEmpty() ? null : contentType,
+                        payload));
+            }
+            return batch;
+        }
+    }
+
+    // Fails a read past the limit, so a small frame cannot inflate without bound
+    private static final class Bounded extends FilterInputStream {
+
+        private long remaining;
+
+        Bounded(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                consume(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, (int) Math.min(length, remaining + 1));
+            if (read > 0) {
+                consume(read);
+            }
+            return read;
+        }
+
+        private void consume(int bytes) throws IOException {
+            remaining -= bytes;
+            if (remaining < 0) {
+                throw new IOException("Relay batch inflates beyond " + MAX_BATCH_BYTES + " bytes");
+            }
+        }
+    }
+
+    private static byte[] withFlag(byte flag, ByteArrayOutputStream body) {
+        byte[] frame = new byte[body.size() + 1];
+        frame[0] = flag;
+        System.arraycopy(body.toByteArray(), 0, frame, 1, body.size());
+        return frame;
+    }
+}
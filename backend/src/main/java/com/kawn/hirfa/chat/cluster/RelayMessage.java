@@ -0,0 +1,8 @@
+package com.kawn.hirfa.chat.cluster;
+
+/**
+ * A broker message as it travels between nodes: the node that published it, that node's
+ * sequence number for it, and the serialized message itself.
+ */
+public record RelayMessage(String origin, long sequence, String destination, String contentType, byte[] payload) {
+}
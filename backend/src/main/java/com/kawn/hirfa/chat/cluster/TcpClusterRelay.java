@@ -0,0 +1,315 @@
+package com.kawn.hirfa.chat.cluster;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Relay over plain TCP between a fixed list of nodes. Each node listens on {@code port} and keeps
+ * one connection to every peer, fed from a bounded queue by its own thread: whatever is queued,
+ * up to {@code batch-size} and waiting at most {@code linger} for more, goes out as one
+ * {@link RelayCodec} frame. A peer that is down is retried every second while its queue fills;
+ * beyond {@code queue-capacity} new messages for it are dropped. The same peer list can be given
+ * to every node: the connection a node makes to itself only carries echoes, which are dropped.
+ * <p>
+ * Connections are not authenticated: the port listens on {@code bind-address} only, which
+ * should be an address of the private network, and frames are checked against the
+ * {@link RelayCodec} limits before anything is published.
+ */
+@Slf4j
+public class TcpClusterRelay implements ClusterRelay, SmartLifecycle {
+
+    private static final long RECONNECT_DELAY_MILLIS = 1_000;
+    private static final int CONNECT_TIMEOUT_MILLIS = 2_000;
+
+    private final String bindAddress;
+    private final int port;
+    private final List<Peer> peers = new ArrayList<>();
+    private final int batchSize;
+    private final long lingerNanos;
+    private final Set<Socket> inbound = ConcurrentHashMap.newKeySet();
+    private final List<Thread> threads = new CopyOnWriteArrayList<>();
+    private final Counter sent;
+    private final Counter received;
+    private final Counter dropped;
+    private final DistributionSummary frameBytes;
+
+    private volatile Consumer<RelayMessage> listener = message -> {
+    };
+    private volatile boolean running;
+    private volatile ServerSocket serverSocket;
+
+    public TcpClusterRelay(MeterRegistry meterRegistry, String bindAddress, int port, List<String> peers,
+            int queueCapacity, int batchSize, Duration linger) {
+        if (batchSize > RelayCodec.MAX_BATCH_MESSAGES) {
+            throw new IllegalArgumentException("Cluster batch size is limited to " + RelayCodec.MAX_BATCH_MESSAGES);
+        }
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.batchSize = batchSize;
+        this.lingerNanos = linger.toNanos();
+        for (String peer : peers) {
+            if (peer.isBlank()) {
+                continue;
+            }
+            int colon = peer.lastIndexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Cluster peer must be host:port, got " + peer);
+            }
+            this.peers.add(new Peer(peer.substring(0, colon).trim(), Integer.parseInt(peer.substring(colon + 1).trim()),
+                    queueCapacity));
+        }
+        this.sent = meterRegistry.counter("cluster.relay.messages", "direction", "sent");
+        this.received = meterRegistry.counter("cluster.relay.messages", "direction", "received");
+        this.dropped = meterRegistry.counter("cluster.relay.messages", "direction", "dropped");
+        this.frameBytes = DistributionSummary.builder("cluster.relay.frame")
+                .description("Size of relay frames on the wire, after compression")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("cluster.relay.queue", this.peers, TcpClusterRelay::queued).register(meterRegistry);
+    }
+
+    @Override
+    public void publish(RelayMessage message) {
+        if (message.payload().length > RelayCodec.MAX_PAYLOAD_BYTES) { // Peers would drop its whole frame
+            dropped.increment(peers.size());
+            return;
+        }
+        for (Peer peer : peers) {
+            if (!peer.queue.offer(message)) {
+                dropped.increment();
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(Consumer<RelayMessage> listener) {
+        this.listener = listener;
+    }
+
+    /** The port this node listens on, once started; differs from {@code port} when that is 0. */
+    public int localPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private static double queued(List<Peer> peers) {
+        return peers.stream().mapToInt(peer -> peer.queue.size()).sum();
+    }
+
+    private void accept() {
+        while (running) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Cluster relay stopped accepting connections", e);
+                }
+                return;
+            }
+            inbound.add(socket);
+            startThread("cluster-relay-in-" + socket.getRemoteSocketAddress(), () -> read(socket));
+        }
+    }
+
+    private void read(Socket socket) {
+        try (socket; DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (running) {
+                int length = in.readInt();
+                if (length <= 0 || length > RelayCodec.MAX_BATCH_BYTES) {
+                    throw new IOException("Relay frame of " + length + " bytes");
+                }
+                byte[] frame = new byte[length];
+                in.readFully(frame);
+                List<RelayMessage> batch = RelayCodec.decode(frame);
+                received.increment(batch.size());
+                for (RelayMessage message : batch) {
+                    try {
+                        listener.accept(message);
+                    } catch (RuntimeException e) {
+                        log.warn("Failed to publish relayed message to {}", message.destination(), e);
+                    }
+                }
+            }
+        } catch (EOFException e) {
+            // The peer closed the connection
+        } catch (IOException e) {
+            if (running) {
+                log.warn("Dropping relay connection from {}: {}", socket.getRemoteSocketAddress(), e.getMessage());
+            }
+        } finally {
+            inbound.remove(socket);
+        }
+    }
+
+    private void startThread(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        threads.add(thread);
+        thread.start();
+    }
+
+    @Override
+    public void start() {
+        try {
+            serverSocket = new ServerSocket(port, 0, InetAddress.getByName(bindAddress));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot listen for cluster peers on " + bindAddress + ":" + port, e);
+        }
+        running = true;
+        startThread("cluster-relay-accept", this::accept);
+        for (Peer peer : peers) {
+            startThread("cluster-relay-out-" + peer.host + ":" + peer.port, peer);
+        }
+        log.info("Cluster relay listening on {}:{}, relaying to {} peers", bindAddress, localPort(), peers.size());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            log.debug("Failed to close the cluster relay port", e);
+        }
+        for (Socket socket : inbound) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Failed to close a relay connection", e);
+            }
+        }
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        threads.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Connection to one peer and the messages waiting for it
+    private final class Peer implements Runnable {
+
+        private final String host;
+        private final int port;
+        private final BlockingQueue<RelayMessage> queue;
+        private Socket socket;
+        private DataOutputStream out;
+        private boolean failing;
+
+        private Peer(String host, int port, int queueCapacity) {
+            this.host = host;
+            this.port = port;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        @Override
+        public void run() {
+            List<RelayMessage> batch = new ArrayList<>(batchSize);
+            try {
+                while (running) {
+                    RelayMessage first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    collect(batch);
+                    send(RelayCodec.encode(batch));
+                    sent.increment(batch.size());
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                disconnect();
+            }
+        }
+
+        // Waits up to the linger time for a full batch, so a burst goes out as one frame
+        private void collect(List<RelayMessage> batch) throws InterruptedException {
+            long deadline = System.nanoTime() + lingerNanos;
+            while (batch.size() < batchSize) {
+                queue.drainTo(batch, batchSize - batch.size());
+                long left = deadline - System.nanoTime();
+                if (batch.size() >= batchSize || left <= 0) {
+                    return;
+                }
+                RelayMessage next = queue.poll(left, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    return;
+                }
+                batch.add(next);
+            }
+        }
+
+        // Retries the frame until it is written; receivers drop what they already got
+        private void send(byte[] frame) throws InterruptedException {
+            while (running) {
+                try {
+                    if (out == null) {
+                        socket = new Socket();
+                        socket.setTcpNoDelay(true);
+                        socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+                        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                    }
+                    out.writeInt(frame.length);
+                    out.write(frame);
+                    out.flush();
+                    frameBytes.record(frame.length);
+                    if (failing) {
+                        failing = false;
+                        log.info("Relaying to {}:{} again", host, port);
+                    }
+                    return;
+                } catch (IOException e) {
+                    if (!failing) {
+                        failing = true;
+                        log.warn("Cannot relay to {}:{}, retrying: {}", host, port, e.getMessage());
+                    }
+                    disconnect();
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                }
+            }
+        }
+
+        private void disconnect() {
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    log.debug("Failed to close the relay connection to {}:{}", host, port, e);
+                }
+            }
+            socket = null;
+            out = null;
+        }
+    }
+}
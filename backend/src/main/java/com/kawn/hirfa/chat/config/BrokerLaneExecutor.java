@@ -0,0 +1,83 @@
+package com.kawn.hirfa.chat.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor of the broker channel: each destination is pinned to one of {@code lanes}
+ * single-threaded lanes, so the broker fans out a topic's messages in publish order without
+ * any locking, and a hot topic only occupies its own lane. Fan-out only queues a copy per
+ * subscriber on the outbound channel, so lanes stay short; when one is full anyway the message
+ * is dropped rather than blocking the publisher.
+ */
+@Slf4j
+@Component
+public class BrokerLaneExecutor implements TaskExecutor, DisposableBean {
+
+    private final ThreadPoolExecutor[] lanes;
+    private final Counter dropped;
+
+    public BrokerLaneExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${websocket.broker.lanes:4}") int laneCount,
+            @Value("${websocket.broker.lane-capacity:10000}") int laneCapacity) {
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String name = "broker-lane-" + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(laneCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        this.dropped = meterRegistry.counter("websocket.broker.dropped");
+        Gauge.builder("websocket.broker.queued", this, BrokerLaneExecutor::queued).register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        String key = null;
+        if (task instanceof MessageHandlingRunnable handling) {
+            key = SimpMessageHeaderAccessor.getDestination(handling.getMessage().getHeaders());
+        }
+        int lane = key == null ? 0 : Math.floorMod(key.hashCode(), lanes.length);
+        try {
+            lanes[lane].execute(task);
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            log.debug("Broker lane {} is full, dropping a message to {}", lane, key);
+        }
+    }
+
+    int queued() {
+        int queued = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            queued += lane.getQueue().size();
+        }
+        return queued;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.kawn.hirfa.chat.config;
+
+import com.kawn.hirfa.chat.cluster.ClusterRelay;
+import com.kawn.hirfa.chat.cluster.LoopbackRelay;
+import com.kawn.hirfa.chat.cluster.TcpClusterRelay;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Picks how broker messages reach the other backend nodes: {@code none} for a single node,
+ * {@code loopback} between application contexts in one JVM, {@code tcp} between processes.
+ */
+@Configuration
+public class ClusterRelayConfig {
+
+    public enum Mode {
+        NONE, LOOPBACK, TCP
+    }
+
+    @Bean
+    public ClusterRelay clusterRelay(
+            MeterRegistry meterRegistry,
+            @Value("${websocket.cluster.relay:none}") Mode mode,
+            @Value("${websocket.cluster.bind-address:127.0.0.1}") String bindAddress,
+            @Value("${websocket.cluster.port:7400}") int port,
+            @Value("${websocket.cluster.peers:}") List<String> peers,
+            @Value("${websocket.cluster.queue-capacity:10000}") int queueCapacity,
+            @Value("${websocket.cluster.batch-size:256}") int batchSize,
+            @Value("${websocket.cluster.linger:2ms}") Duration linger) {
+        return switch (mode) {
+            case NONE -> ClusterRelay.NONE;
+            case LOOPBACK -> new LoopbackRelay(LoopbackRelay.SHARED_BUS);
+            case TCP -> new TcpClusterRelay(meterRegistry, bindAddress, port, peers, queueCapacity, batchSize, linger);
+        };
+    }
+}
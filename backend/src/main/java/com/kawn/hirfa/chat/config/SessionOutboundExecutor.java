@@ -0,0 +1,202 @@
+package com.kawn.hirfa.chat.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor of the client outbound channel with a bounded queue per session. Frames for a
+ * session are written one at a time, in order, by a shared pool of {@code threads}; a session
+ * gives its thread up after a few frames, so busy sessions take turns. When a session's queue
+ * holds {@code queue-capacity} messages, the client is not keeping up, and {@code overflow}
+ * decides: {@code drop} discards new messages for that session only, {@code disconnect} closes
+ * it. Protocol frames (connect, receipt and error) are always queued.
+ * <p>
+ * A session blocked in a socket write still holds a pool thread until the write times out;
+ * {@code disconnect} frees it sooner.
+ */
+@Slf4j
+@Component
+public class SessionOutboundExecutor implements TaskExecutor, WebSocketHandlerDecoratorFactory, DisposableBean {
+
+    public enum Overflow {
+        DROP, DISCONNECT
+    }
+
+    private static final int FRAMES_PER_TURN = 32;
+
+    private final int queueCapacity;
+    private final Overflow overflow;
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService closer; // Not the pool, whose threads the slow sessions may hold
+    private final Map<String, SessionQueue> queues = new ConcurrentHashMap<>();
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter dropped;
+    private final Counter disconnected;
+
+    public SessionOutboundExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${websocket.outbound.threads:8}") int threads,
+            @Value("${websocket.session.queue-capacity:256}") int queueCapacity,
+            @Value("${websocket.session.overflow:drop}") Overflow overflow) {
+        this.queueCapacity = queueCapacity;
+        this.overflow = overflow;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ws-outbound-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.closer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ws-closer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dropped = meterRegistry.counter("websocket.session.dropped");
+        this.disconnected = meterRegistry.counter("websocket.session.disconnected");
+        Gauge.builder("websocket.session.queued", queued, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Message<?> message = task instanceof MessageHandlingRunnable handling ? handling.getMessage() : null;
+        String sessionId = message == null ? null : SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId == null) {
+            pool.execute(task);
+            return;
+        }
+        boolean droppable = SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE;
+        boolean[] schedule = new boolean[1];
+        boolean[] overflowed = new boolean[1];
+        SessionQueue queue = queues.compute(sessionId, (id, existing) -> {
+            SessionQueue q = existing != null ? existing : new SessionQueue(id);
+            if (droppable && q.tasks.size() >= queueCapacity) {
+                overflowed[0] = true;
+                return q;
+            }
+            q.tasks.add(task);
+            queued.incrementAndGet();
+            if (!q.scheduled) {
+                q.scheduled = true;
+                schedule[0] = true;
+            }
+            return q;
+        });
+        if (overflowed[0]) {
+            overflow(sessionId);
+        }
+        if (schedule[0]) {
+            pool.execute(queue);
+        }
+    }
+
+    private void overflow(String sessionId) {
+        if (overflow == Overflow.DROP) {
+            dropped.increment();
+            return;
+        }
+        WebSocketSession session = sessions.remove(sessionId);
+        if (session == null) { // Already closing, or not a WebSocket session we track
+            dropped.increment();
+            return;
+        }
+        disconnected.increment();
+        log.info("Closing WebSocket session {}: {} messages behind", sessionId, queueCapacity);
+        closer.execute(() -> {
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException e) {
+                log.debug("Failed to close WebSocket session {}", sessionId, e);
+            }
+        });
+    }
+
+    int sessionCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        // Keeps track of sessions so that the disconnect policy can close them
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), session);
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        closer.shutdown();
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    // Pending frames of one session; it is in the map only while it has frames or runs
+    private final class SessionQueue implements Runnable {
+
+        private final String sessionId;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private boolean scheduled;
+
+        private SessionQueue(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < FRAMES_PER_TURN; i++) {
+                Runnable[] next = new Runnable[1];
+                queues.computeIfPresent(sessionId, (id, q) -> {
+                    next[0] = q.tasks.poll();
+                    return next[0] == null ? null : q;
+                });
+                if (next[0] == null) {
+                    return;
+                }
+                queued.decrementAndGet();
+                try {
+                    next[0].run();
+                } catch (RuntimeException e) {
+                    log.warn("Failed to send a frame to session {}", sessionId, e);
+                }
+            }
+            pool.execute(this); // Let other sessions have the thread
+        }
+    }
+}
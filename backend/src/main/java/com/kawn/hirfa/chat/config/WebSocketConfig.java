@@ -1,23 +1,84 @@
 package com.kawn.hirfa.chat.config;
 
+import com.kawn.hirfa.auth.config.StompAuthenticationInterceptor;
+import com.kawn.hirfa.chat.cluster.ClusterFanout;
+import com.kawn.hirfa.geo.config.GeoStreamThrottle;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final StompAuthenticationInterceptor stompAuthenticationInterceptor;
+    private final GeoStreamThrottle geoStreamThrottle;
+    private final BrokerLaneExecutor brokerLaneExecutor;
+    private final SessionOutboundExecutor sessionOutboundExecutor;
+    private final ClusterFanout clusterFanout;
+
+    @Value("${websocket.broker.sharded:true}")
+    private boolean sharded;
+
+    @Value("${websocket.inbound.threads:8}")
+    private int inboundThreads;
+
+    @Value("${websocket.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${websocket.outbound.threads:8}")
+    private int outboundThreads;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic");
+        config.enableSimpleBroker("/topic", "/queue");
         config.setApplicationDestinationPrefixes("/app");
+        if (sharded) {
+            // Fan-out of each destination runs on its own lane, in publish order
+            config.configureBrokerChannel().executor(brokerLaneExecutor);
+        } else {
+            config.setPreservePublishOrder(true);
+        }
+        // Also publishes to and from the other nodes, see ClusterRelayConfig
+        config.configureBrokerChannel().interceptors(clusterFanout);
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws-hirfa").setAllowedOriginPatterns("*").withSockJS();
     }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(sessionOutboundExecutor);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(inboundThreads)
+                .maxPoolSize(inboundThreads)
+                .queueCapacity(inboundQueueCapacity);
+        // Sets the session user from the CONNECT frame's bearer token, for /user/queue/... destinations
+        registration.interceptors(stompAuthenticationInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (sharded) {
+            // Bounded queue per session, see SessionOutboundExecutor
+            registration.executor(sessionOutboundExecutor);
+        } else {
+            registration.taskExecutor().corePoolSize(outboundThreads).maxPoolSize(outboundThreads);
+        }
+        // Per-session budget for /topic/geo.{tile} location frames
+        registration.interceptors(geoStreamThrottle);
+    }
 }
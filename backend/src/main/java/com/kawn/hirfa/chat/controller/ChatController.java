@@ -1,9 +1,15 @@
 package com.kawn.hirfa.chat.controller;
 
 import com.kawn.hirfa.chat.domain.ChatMessage;
+import com.kawn.hirfa.chat.dto.ChatAck;
+import com.kawn.hirfa.chat.dto.ChatMessageView;
 import com.kawn.hirfa.chat.dto.SendMessageRequest;
-import com.kawn.hirfa.chat.repository.ChatMessageRepository;
+import com.kawn.hirfa.chat.service.ChatMessagePipeline;
+import com.kawn.hirfa.chat.service.ChatService;
 import com.kawn.hirfa.common.api.ApiResponse;
+import com.kawn.hirfa.common.api.CursorPage;
+import com.kawn.hirfa.common.exception.InvalidOperationException;
+import com.kawn.hirfa.common.exception.ServiceOverloadedException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.MessageMapping;
@@ -11,50 +17,58 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.security.Principal;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/chat")
 @RequiredArgsConstructor
 public class ChatController {
 
-    private final ChatMessageRepository chatMessageRepository;
+    public static final String ACK_DESTINATION = "/queue/chat.acks";
+
+    private final ChatService chatService;
+    private final ChatMessagePipeline chatMessagePipeline;
     private final SimpMessagingTemplate messagingTemplate;
 
     @GetMapping("/history/{jobId}")
-    public ApiResponse<List<ChatMessage>> getChatHistory(@PathVariable Long jobId) {
-        List<ChatMessage> messages = chatMessageRepository.findByJobIdOrderByTimestampAsc(jobId);
+    public ApiResponse<CursorPage<ChatMessageView>> getChatHistory(
+            @PathVariable Long jobId,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor) {
+        CursorPage<ChatMessageView> messages = chatService.getHistory(jobId, limit, cursor);
         return ApiResponse.success(messages, "Chat history retrieved");
     }
 
+    /**
+     * Completes once the message is stored; subscribers of the job topic get it before that.
+     */
     @PostMapping("/send")
-    public ApiResponse<ChatMessage> sendMessage(@Valid @RequestBody SendMessageRequest request) {
-        ChatMessage message = ChatMessage.builder()
-                .senderId(request.senderId())
-                .receiverId(request.receiverId())
-                .jobId(request.jobId())
-                .content(request.content())
-                .build();
-
-        ChatMessage saved = chatMessageRepository.save(message);
-
-        // Broadcast to WebSocket subscribers
-        messagingTemplate.convertAndSend("/topic/job." + request.jobId(), saved);
-
-        return ApiResponse.success(saved, "Message sent");
+    public CompletableFuture<ApiResponse<ChatMessage>> sendMessage(@Valid @RequestBody SendMessageRequest request) {
+        return chatMessagePipeline.submit(request)
+                .thenApply(message -> ApiResponse.success(message, "Message sent"));
     }
 
-    // WebSocket handler for real-time messaging
+    // WebSocket handler for real-time messaging; the sender is acknowledged on /user/queue/chat.acks
     @MessageMapping("/chat.send")
-    public void handleWebSocketMessage(@Payload SendMessageRequest request) {
-        ChatMessage message = ChatMessage.builder()
-                .senderId(request.senderId())
-                .receiverId(request.receiverId())
-                .jobId(request.jobId())
-                .content(request.content())
-                .build();
-
-        chatMessageRepository.save(message);
-        messagingTemplate.convertAndSend("/topic/job." + request.jobId(), message);
+    public void handleWebSocketMessage(@Payload SendMessageRequest request, Principal principal) {
+        CompletableFuture<ChatMessage> stored;
+        try {
+            stored = chatMessagePipeline.submit(request);
+        } catch (InvalidOperationException | ServiceOverloadedException e) {
+            acknowledge(principal, new ChatAck(request.clientMessageId(), null, request.jobId(), null,
+                    ChatAck.Status.REJECTED));
+            return;
+        }
+        stored.whenComplete((message, error) -> acknowledge(principal, error == null
+                ? new ChatAck(request.clientMessageId(), message.getId(), message.getJobId(), message.getTimestamp(),
+                        ChatAck.Status.PERSISTED)
+                : new ChatAck(request.clientMessageId(), null, request.jobId(), null, ChatAck.Status.FAILED)));
+    }
+
+    private void acknowledge(Principal principal, ChatAck ack) {
+        if (principal != null) { // Anonymous sessions have no user queue
+            messagingTemplate.convertAndSendToUser(principal.getName(), ACK_DESTINATION, ack);
+        }
     }
 }
@@ -14,16 +14,21 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = {
+        // History of a job, newest first, keyset-paged on (timestamp, id)
+        @Index(name = "idx_chat_messages_job_time", columnList = "jobId, timestamp, id")
+})
 public class ChatMessage {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_messages_seq")
+    @SequenceGenerator(name = "chat_messages_seq", sequenceName = "chat_messages_seq", allocationSize = 50)
     private Long id;
 
     private Long senderId;
     private Long receiverId;
     private Long jobId; // Context
 
+    @Column(length = 1000) // SendMessageRequest allows up to 1000 characters
     private String content;
 
     @CreationTimestamp
@@ -0,0 +1,16 @@
+package com.kawn.hirfa.chat.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a message sent over WebSocket, delivered to the sender on
+ * {@code /user/queue/chat.acks}. {@code clientMessageId} echoes the request's.
+ */
+public record ChatAck(String clientMessageId, Long messageId, Long jobId, LocalDateTime timestamp, Status status) {
+
+    public enum Status {
+        PERSISTED, // Stored; it shows up in the history
+        REJECTED, // Not accepted, the message is invalid or the server is overloaded; nothing was broadcast
+        FAILED // Broadcast but could not be stored
+    }
+}
@@ -0,0 +1,12 @@
+package com.kawn.hirfa.chat.dto;
+
+import java.time.LocalDateTime;
+
+// A message as listed in a job's history; the job is implied by the request
+public record ChatMessageView(
+        Long id,
+        Long senderId,
+        Long receiverId,
+        String content,
+        LocalDateTime timestamp) {
+}
@@ -9,5 +9,8 @@ public record SendMessageRequest(
 
         @NotNull(message = "Job ID is required") Long jobId,
 
-        @NotBlank(message = "Message content is required") @Size(max = 1000, message = "Message must be less than 1000 characters") String content) {
+        @NotBlank(message = "Message content is required") @Size(max = 1000, message = "Message must be less than 1000 characters") String content,
+
+        // Optional, echoed in the acknowledgement of a WebSocket send
+        @Size(max = 64, message = "Client message ID must be at most 64 characters") String clientMessageId) {
 }
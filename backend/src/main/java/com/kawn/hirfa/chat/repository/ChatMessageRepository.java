@@ -1,10 +1,33 @@
 package com.kawn.hirfa.chat.repository;
 
 import com.kawn.hirfa.chat.domain.ChatMessage;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
-    List<ChatMessage> findByJobIdOrderByTimestampAsc(Long jobId);
+
+    String HISTORY_COLUMNS = "SELECT m.id AS id, m.senderId AS senderId, m.receiverId AS receiverId, "
+            + "m.content AS content, m.timestamp AS timestamp FROM ChatMessage m ";
+
+    // Both history queries walk idx_chat_messages_job_time backwards from their start position
+    @Query(HISTORY_COLUMNS + "WHERE m.jobId = :jobId ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatMessageRow> findLatest(@Param("jobId") Long jobId, Limit limit);
+
+    /**
+     * Messages older than the keyset position (beforeTimestamp, beforeId), newest first. The
+     * redundant {@code <=} bound lets the database start the index scan at the position.
+     */
+    @Query(HISTORY_COLUMNS + """
+            WHERE m.jobId = :jobId AND m.timestamp <= :beforeTimestamp
+              AND (m.timestamp < :beforeTimestamp OR m.id < :beforeId)
+            ORDER BY m.timestamp DESC, m.id DESC""")
+    List<ChatMessageRow> findBefore(@Param("jobId") Long jobId,
+                                    @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                    @Param("beforeId") long beforeId,
+                                    Limit limit);
 }
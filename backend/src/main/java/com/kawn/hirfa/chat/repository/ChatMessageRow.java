@@ -0,0 +1,15 @@
+package com.kawn.hirfa.chat.repository;
+
+import java.time.LocalDateTime;
+
+public interface ChatMessageRow {
+    Long getId();
+
+    Long getSenderId();
+
+    Long getReceiverId();
+
+    String getContent();
+
+    LocalDateTime getTimestamp();
+}
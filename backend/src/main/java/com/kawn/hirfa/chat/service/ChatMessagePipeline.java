@@ -0,0 +1,277 @@
+package com.kawn.hirfa.chat.service;
+
+import com.kawn.hirfa.chat.domain.ChatMessage;
+import com.kawn.hirfa.chat.dto.SendMessageRequest;
+import com.kawn.hirfa.chat.repository.ChatMessageIds;
+import com.kawn.hirfa.common.exception.InvalidOperationException;
+import com.kawn.hirfa.common.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Accepts chat messages without waiting for the database. A message gets its id and timestamp
+ * on arrival, is broadcast on {@code /topic/job.{jobId}} right away and queued for a single
+ * writer, which stores everything queued while its previous commit ran as one batched insert
+ * and one commit.
+ * <p>
+ * Messages of a job are numbered, broadcast and stored in arrival order. Invalid messages are
+ * rejected before they are numbered or broadcast, whichever way they arrived. The queue is
+ * bounded: when it is full a message is rejected before it is broadcast. The returned future completes
+ * once the message is committed; a batch that fails is retried row by row, and rows that still
+ * fail are dropped after they were broadcast. On shutdown the queue is drained.
+ */
+@Slf4j
+@Component
+public class ChatMessagePipeline implements SmartLifecycle {
+
+    public static final String TOPIC_PREFIX = "/topic/job.";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO chat_messages (id, sender_id, receiver_id, job_id, content, timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final int ORDER_STRIPES = 64;
+
+    private record Pending(ChatMessage message, long acceptedAtNanos, CompletableFuture<ChatMessage> stored) {
+    }
+
+    private final ChatMessageIds ids;
+    private final Validator validator;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final RecentMessageCache recentMessages;
+    private final int batchSize;
+    private final Duration drainTimeout;
+    private final BlockingQueue<Pending> queue;
+    private final Object[] orderLocks = new Object[ORDER_STRIPES];
+    private final Timer lag;
+    private final Timer commitTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter persisted;
+    private final Counter rejected;
+    private final Counter failed;
+
+    private volatile boolean stopping;
+    private volatile Thread writer;
+
+    public ChatMessagePipeline(
+            ChatMessageIds ids,
+            Validator validator,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            SimpMessagingTemplate messagingTemplate,
+            RecentMessageCache recentMessages,
+            MeterRegistry meterRegistry,
+            @Value("${chat.pipeline.queue-capacity:10000}") int queueCapacity,
+            @Value("${chat.pipeline.batch-size:500}") int batchSize,
+            @Value("${chat.pipeline.drain-timeout:PT10S}") Duration drainTimeout) {
+        this.ids = ids;
+        this.validator = validator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.messagingTemplate = messagingTemplate;
+        this.recentMessages = recentMessages;
+        this.batchSize = batchSize;
+        this.drainTimeout = drainTimeout;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        for (int i = 0; i < ORDER_STRIPES; i++) {
+            orderLocks[i] = new Object();
+        }
+        this.lag = Timer.builder("chat.pipeline.lag")
+                .description("Time from accepting a message to its commit")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.commitTimer = meterRegistry.timer("chat.pipeline.commit");
+        this.batchSizes = meterRegistry.summary("chat.pipeline.batch.size");
+        this.persisted = meterRegistry.counter("chat.pipeline.messages", "outcome", "persisted");
+        this.rejected = meterRegistry.counter("chat.pipeline.messages", "outcome", "rejected");
+        this.failed = meterRegistry.counter("chat.pipeline.messages", "outcome", "failed");
+        Gauge.builder("chat.pipeline.queue", queue, BlockingQueue::size).register(meterRegistry);
+        // Age of the oldest queued message, so a stalled writer shows before anything commits
+        Gauge.builder("chat.pipeline.oldest", queue, ChatMessagePipeline::oldestAgeSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Numbers, broadcasts and queues a message. Throws {@link InvalidOperationException} for an
+     * invalid message, and {@link ServiceOverloadedException} when the queue is full or the
+     * pipeline has stopped; nothing is broadcast then.
+     */
+    public CompletableFuture<ChatMessage> submit(SendMessageRequest request) {
+        Set<ConstraintViolation<SendMessageRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            rejected.increment();
+            throw new InvalidOperationException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        if (stopping) {
+            rejected.increment();
+            throw new ServiceOverloadedException("Chat is shutting down, please retry");
+        }
+        Pending pending;
+        synchronized (orderLocks[Math.floorMod(request.jobId().hashCode(), ORDER_STRIPES)]) {
+            ChatMessage message = ChatMessage.builder()
+                    .id(ids.next())
+                    .senderId(request.senderId())
+                    .receiverId(request.receiverId())
+                    .jobId(request.jobId())
+                    .content(request.content())
+                    // Database precision, so the broadcast and the stored row agree
+                    .timestamp(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))
+                    .build();
+            pending = new Pending(message, System.nanoTime(), new CompletableFuture<>());
+            if (!queue.offer(pending)) {
+                rejected.increment();
+                throw new ServiceOverloadedException("Too many messages in flight, please retry");
+            }
+            messagingTemplate.convertAndSend(TOPIC_PREFIX + message.getJobId(), message);
+        }
+        return pending.stored();
+    }
+
+    public int queuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * Stores everything queued right now, in batches of {@code batch-size}.
+     */
+    void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (!stopping || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Never let an exception end the writer; the batch's futures are already settled
+                log.error("Chat message write failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        batchSizes.record(batch.size());
+        try {
+            commitTimer.record(() -> transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch.stream().map(p -> params(p.message())).toList())));
+            batch.forEach(this::stored);
+            return;
+        } catch (DataAccessException e) {
+            log.warn("Batched insert of {} chat messages failed, retrying row by row", batch.size(), e);
+        }
+        for (Pending pending : batch) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, params(pending.message()));
+                stored(pending);
+            } catch (DataAccessException e) {
+                failed.increment();
+                log.warn("Dropping chat message {} of job {}: {}", pending.message().getId(),
+                        pending.message().getJobId(), e.getMessage());
+                pending.stored().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void stored(Pending pending) {
+        persisted.increment();
+        lag.record(System.nanoTime() - pending.acceptedAtNanos(), TimeUnit.NANOSECONDS);
+        recentMessages.messageStored(pending.message());
+        pending.stored().complete(pending.message());
+    }
+
+    private static Object[] params(ChatMessage message) {
+        return new Object[]{message.getId(), message.getSenderId(), message.getReceiverId(), message.getJobId(),
+                message.getContent(), Timestamp.valueOf(message.getTimestamp())};
+    }
+
+    private static double oldestAgeSeconds(BlockingQueue<Pending> queue) {
+        Pending oldest = queue.peek();
+        return oldest == null ? 0 : (System.nanoTime() - oldest.acceptedAtNanos()) / 1e9;
+    }
+
+    @Override
+    public void start() {
+        stopping = false;
+        Thread thread = new Thread(this::runWriter, "chat-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        stopping = true;
+        Thread thread = writer;
+        writer = null;
+        if (thread != null) {
+            try {
+                thread.join(drainTimeout.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                thread.interrupt();
+            }
+        }
+        // Whatever the writer left, including messages accepted while it exited
+        drain();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the WebSocket and broker handlers, so no message arrives during the drain
+        return SmartLifecycle.DEFAULT_PHASE - 1024;
+    }
+}
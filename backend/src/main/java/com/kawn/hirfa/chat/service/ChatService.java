@@ -0,0 +1,55 @@
+package com.kawn.hirfa.chat.service;
+
+import com.kawn.hirfa.chat.dto.ChatMessageView;
+import com.kawn.hirfa.chat.repository.ChatMessageRepository;
+import com.kawn.hirfa.chat.repository.ChatMessageRow;
+import com.kawn.hirfa.common.api.CursorPage;
+import com.kawn.hirfa.common.api.KeysetCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class ChatService {
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final RecentMessageCache recentMessages;
+
+    /**
+     * One page of a job's history, newest first: the latest messages without a cursor, then
+     * older pages from each page's cursor. First pages usually come from
+     * {@link RecentMessageCache}; no transaction is opened, so a cache hit needs no connection.
+     */
+    public CursorPage<ChatMessageView> getHistory(Long jobId, int limit, String cursor) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        KeysetCursor before = KeysetCursor.decode(cursor);
+        if (before.isStart()) {
+            CursorPage<ChatMessageView> cached = recentMessages.latestPage(jobId, pageSize, this::latest);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        List<ChatMessageView> messages = before.isStart()
+                ? latest(jobId, pageSize + 1)
+                : views(chatMessageRepository.findBefore(jobId, before.timestamp(), before.id(),
+                        Limit.of(pageSize + 1)));
+        return CursorPage.fromOverfetch(messages, pageSize,
+                message -> new KeysetCursor(message.timestamp(), message.id()).encode());
+    }
+
+    private List<ChatMessageView> latest(Long jobId, int limit) {
+        return views(chatMessageRepository.findLatest(jobId, Limit.of(limit)));
+    }
+
+    private static List<ChatMessageView> views(List<ChatMessageRow> rows) {
+        return rows.stream()
+                .map(row -> new ChatMessageView(row.getId(), row.getSenderId(), row.getReceiverId(), row.getContent(),
+                        row.getTimestamp()))
+                .toList();
+    }
+}
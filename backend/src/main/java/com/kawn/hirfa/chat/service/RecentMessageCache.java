@@ -0,0 +1,213 @@
+package com.kawn.hirfa.chat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kawn.hirfa.chat.domain.ChatMessage;
+import com.kawn.hirfa.chat.dto.ChatMessageView;
+import com.kawn.hirfa.common.api.CursorPage;
+import com.kawn.hirfa.common.api.KeysetCursor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The latest messages of active jobs, so opening a chat needs no query. Each job keeps a ring
+ * of its newest {@code messages-per-job} messages, loaded from the database on first access
+ * and then extended by {@link ChatMessagePipeline} as messages commit, in commit order. Only
+ * stored messages enter a ring, so it always matches the persisted history; a message that
+ * arrives out of order drops the ring instead, and the next read reloads it.
+ * <p>
+ * Rings are weighed by an estimate of their heap size. Once all of them together exceed
+ * {@code max-bytes}, the cache evicts rings of jobs that are rarely or not recently read; a ring
+ * also goes after {@code idle-timeout} without a read or write.
+ * <p>
+ * Messages sent through other nodes enter as the cluster relay delivers their broadcast, which
+ * is before they commit; one that then fails to store stays in the ring until it is evicted.
+ */
+@Component
+public class RecentMessageCache {
+
+    public static final String CACHE_NAME = "chat.recent";
+
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * Up to {@code limit} latest messages of the job, newest first.
+         */
+        List<ChatMessageView> latest(Long jobId, int limit);
+    }
+
+    private final boolean enabled;
+    private final int messagesPerJob;
+    private final Cache<Long, Ring> cache;
+
+    public RecentMessageCache(
+            MeterRegistry meterRegistry,
+            @Value("${chat.recent.enabled:true}") boolean enabled,
+            @Value("${chat.recent.messages-per-job:100}") int messagesPerJob,
+            @Value("${chat.recent.max-bytes:64MB}") DataSize maxBytes,
+            @Value("${chat.recent.idle-timeout:PT30M}") Duration idleTimeout) {
+        this.enabled = enabled;
+        this.messagesPerJob = messagesPerJob;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes.toBytes())
+                .weigher((Long jobId, Ring ring) -> ring.bytes())
+                .expireAfterAccess(idleTimeout)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The first history page of a job, newest first, or null when its ring holds too few
+     * messages to tell; callers then query the database.
+     */
+    public CursorPage<ChatMessageView> latestPage(Long jobId, int pageSize, Loader loader) {
+        if (!enabled) {
+            return null;
+        }
+        Ring ring = cache.get(jobId, id -> Ring.of(loader.latest(id, messagesPerJob + 1), messagesPerJob));
+        return ring.page(pageSize);
+    }
+
+    /**
+     * Adds a committed message to its job's ring, if the job is cached.
+     */
+    public void messageStored(ChatMessage message) {
+        add(message);
+    }
+
+    /**
+     * Adds a message broadcast by another node to its job's ring, if the job is cached.
+     */
+    public void messageRelayed(ChatMessage message) {
+        add(message);
+    }
+
+    /**
+     * Drops a job's ring, so the next read reloads it.
+     */
+    public void invalidate(Long jobId) {
+        cache.invalidate(jobId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private void add(ChatMessage message) {
+        if (!enabled) {
+            return;
+        }
+        ChatMessageView view = new ChatMessageView(message.getId(), message.getSenderId(), message.getReceiverId(),
+                message.getContent(), message.getTimestamp());
+        // Returning the ring again has it reweighed; returning null drops it
+        cache.asMap().computeIfPresent(message.getJobId(), (jobId, ring) -> ring.add(view) ? ring : null);
+    }
+
+    /**
+     * Newest messages of one job in a circular array. {@code complete} holds while the ring
+     * has every message of the job, so a short history needs no query either.
+     */
+    static final class Ring {
+
+        // Rough heap cost of a ring and of a message besides its text
+        private static final int RING_BYTES = 128;
+        private static final int MESSAGE_BYTES = 160;
+
+        private final ChatMessageView[] slots;
+        private int newest = -1;
+        private int size;
+        private boolean complete;
+        private int bytes = RING_BYTES;
+
+        private Ring(int capacity) {
+            this.slots = new ChatMessageView[capacity];
+        }
+
+        static Ring of(List<ChatMessageView> latest, int capacity) {
+            Ring ring = new Ring(capacity);
+            ring.complete = latest.size() <= capacity;
+            for (int i = Math.min(latest.size(), capacity) - 1; i >= 0; i--) {
+                ring.push(latest.get(i));
+            }
+            return ring;
+        }
+
+        /**
+         * Returns false when the message is older than the newest one held and not already in
+         * the ring, since it could not be placed without a gap.
+         */
+        synchronized boolean add(ChatMessageView message) {
+            if (size > 0 && !isAfter(message, slots[newest])) {
+                for (int i = 0; i < size; i++) {
+                    if (slots[index(i)].id().equals(message.id())) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            push(message);
+            return true;
+        }
+
+        synchronized CursorPage<ChatMessageView> page(int pageSize) {
+            if (size <= pageSize && !complete) {
+                return null;
+            }
+            int count = Math.min(size, pageSize + 1);
+            List<ChatMessageView> rows = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                rows.add(slots[index(i)]);
+            }
+            return CursorPage.fromOverfetch(rows, pageSize,
+                    message -> new KeysetCursor(message.timestamp(), message.id()).encode());
+        }
+
+        synchronized int bytes() {
+            return bytes;
+        }
+
+        private void push(ChatMessageView message) {
+            newest = (newest + 1) % slots.length;
+            ChatMessageView evicted = slots[newest];
+            if (evicted != null) {
+                bytes -= weight(evicted);
+                complete = false;
+            } else {
+                size++;
+            }
+            slots[newest] = message;
+            bytes += weight(message);
+        }
+
+        // The i-th newest message
+        private int index(int i) {
+            return Math.floorMod(newest - i, slots.length);
+        }
+
+        private static boolean isAfter(ChatMessageView message, ChatMessageView than) {
+            int byTime = message.timestamp().compareTo(than.timestamp());
+            return byTime > 0 || byTime == 0 && message.id() > than.id();
+        }
+
+        private static int weight(ChatMessageView message) {
+            return MESSAGE_BYTES + 2 * message.content().length();
+        }
+    }
+}
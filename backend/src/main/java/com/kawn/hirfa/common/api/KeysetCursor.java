@@ -0,0 +1,40 @@
+package com.kawn.hirfa.common.api;
+
+import com.kawn.hirfa.common.exception.InvalidOperationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a listing ordered by (timestamp, id), newest first, such as a job feed or
+ * a chat history. {@code START} has no timestamp.
+ */
+public record KeysetCursor(LocalDateTime timestamp, long id) {
+
+    public static final KeysetCursor START = new KeysetCursor(null, Long.MAX_VALUE);
+
+    public boolean isStart() {
+        return timestamp == null;
+    }
+
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = raw.indexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidOperationException("Invalid cursor");
+        }
+    }
+}
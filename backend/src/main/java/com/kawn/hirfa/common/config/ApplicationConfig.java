@@ -1,6 +1,6 @@
 package com.kawn.hirfa.common.config;
 
-import com.kawn.hirfa.auth.repository.UserRepository;
+import com.kawn.hirfa.auth.service.UserCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,11 +17,11 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
-    private final UserRepository userRepository;
+    private final UserCache userCache;
 
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByPhoneNumber(username)
+        return username -> userCache.findByPhoneNumber(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
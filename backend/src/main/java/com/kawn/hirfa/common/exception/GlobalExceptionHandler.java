@@ -1,8 +1,10 @@
 package com.kawn.hirfa.common.exception;
 
 import com.kawn.hirfa.common.api.ApiResponse;
+import io.jsonwebtoken.JwtException;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -33,6 +35,15 @@ public class GlobalExceptionHandler {
                                 .body(ApiResponse.error(ex.getMessage()));
         }
 
+        @ExceptionHandler(ServiceOverloadedException.class)
+        public ResponseEntity<ApiResponse<Void>> handleServiceOverloaded(ServiceOverloadedException ex) {
+                log.warn("Service overloaded: {}", ex.getMessage());
+                return ResponseEntity
+                                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .body(ApiResponse.error(ex.getMessage()));
+        }
+
         @ExceptionHandler(EntityNotFoundException.class)
         public ResponseEntity<ApiResponse<Void>> handleEntityNotFound(EntityNotFoundException ex) {
                 log.warn("Entity not found: {}", ex.getMessage());
@@ -49,6 +60,14 @@ public class GlobalExceptionHandler {
                                 .body(ApiResponse.error("Invalid phone number or credentials"));
         }
 
+        @ExceptionHandler(JwtException.class)
+        public ResponseEntity<ApiResponse<Void>> handleInvalidToken(JwtException ex) {
+                log.warn("Invalid token: {}", ex.getMessage());
+                return ResponseEntity
+                                .status(HttpStatus.UNAUTHORIZED)
+                                .body(ApiResponse.error("Invalid or expired token"));
+        }
+
         @ExceptionHandler(MethodArgumentNotValidException.class)
         public ResponseEntity<ApiResponse<Map<String, String>>> handleValidationExceptions(
                         MethodArgumentNotValidException ex) {
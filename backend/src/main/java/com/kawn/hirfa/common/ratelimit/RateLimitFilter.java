@@ -0,0 +1,114 @@
+package com.kawn.hirfa.common.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kawn.hirfa.common.api.ApiResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for auth and write endpoints. Each client (authenticated principal, else
+ * remote address) gets one token bucket per {@link RouteGroup}; requests beyond the bucket are
+ * shed with 429 before they reach a controller or the connection pool. Idle buckets are evicted
+ * and the total number of buckets is bounded.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final Map<RouteGroup, Limit> limits = new EnumMap<>(RouteGroup.class);
+    private final Map<RouteGroup, Counter> rejected = new EnumMap<>(RouteGroup.class);
+    private final Cache<String, TokenBucket> buckets;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.max-buckets:100000}") long maxBuckets,
+            @Value("${rate-limit.idle-timeout:PT10M}") Duration idleTimeout,
+            @Value("${rate-limit.auth.capacity:10}") int authCapacity,
+            @Value("${rate-limit.auth.permits-per-second:0.2}") double authRate,
+            @Value("${rate-limit.geo-update.capacity:5}") int geoCapacity,
+            @Value("${rate-limit.geo-update.permits-per-second:1}") double geoRate,
+            @Value("${rate-limit.write.capacity:30}") int writeCapacity,
+            @Value("${rate-limit.write.permits-per-second:5}") double writeRate) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.limits.put(RouteGroup.AUTH, new Limit(authCapacity, authRate));
+        this.limits.put(RouteGroup.GEO_UPDATE, new Limit(geoCapacity, geoRate));
+        this.limits.put(RouteGroup.WRITE, new Limit(writeCapacity, writeRate));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleTimeout)
+                .build();
+        for (RouteGroup group : RouteGroup.values()) {
+            rejected.put(group, Counter.builder("http.ratelimit.rejected")
+                    .tag("group", group.name())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("http.ratelimit.buckets", buckets, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        RouteGroup group = enabled ? RouteGroup.of(request) : null;
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Limit limit = limits.get(group);
+        TokenBucket bucket = buckets.get(group.name() + '|' + clientKey(request),
+                key -> new TokenBucket(limit.capacity(), limit.permitsPerSecond()));
+        long now = System.nanoTime();
+        if (bucket.tryAcquire(now)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        rejected.get(group).increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(bucket.nanosUntilNextPermit(now) + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error("Too many requests, please slow down"));
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "u:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private record Limit(int capacity, double permitsPerSecond) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.kawn.hirfa.common.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Groups of endpoints that share a rate limit per client.
+ */
+public enum RouteGroup {
+    AUTH,
+    GEO_UPDATE,
+    WRITE;
+
+    /**
+     * Returns the group of the request, or null for requests that are not throttled.
+     */
+    public static RouteGroup of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/v1/auth/")) {
+            return AUTH;
+        }
+        if ("GET".equals(request.getMethod()) || "OPTIONS".equals(request.getMethod())
+                || "HEAD".equals(request.getMethod()) || !path.startsWith("/api/v1/")) {
+            return null;
+        }
+        if (path.equals("/api/v1/geo/update")) {
+            return GEO_UPDATE;
+        }
+        return WRITE;
+    }
+}
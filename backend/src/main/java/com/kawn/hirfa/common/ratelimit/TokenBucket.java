@@ -0,0 +1,52 @@
+package com.kawn.hirfa.common.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as a generic cell rate algorithm: the whole bucket state
+ * is a single "theoretical arrival time" updated with one CAS, so contended callers never block.
+ * A bucket allows {@code capacity} back-to-back permits and refills at {@code permitsPerSecond}.
+ */
+public final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(int capacity, double permitsPerSecond) {
+        if (capacity < 1 || permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity and rate must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+    }
+
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    public boolean tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long tat = current == Long.MIN_VALUE || current - nowNanos < 0 ? nowNanos : current;
+            if (tat - nowNanos > burstToleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(current, tat + emissionIntervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Nanoseconds until the next permit becomes available, zero if one is available now.
+     */
+    public long nanosUntilNextPermit(long nowNanos) {
+        long current = theoreticalArrival.get();
+        if (current == Long.MIN_VALUE) {
+            return 0;
+        }
+        return Math.max(0, current - burstToleranceNanos - nowNanos);
+    }
+}
@@ -1,11 +1,11 @@
 package com.kawn.hirfa.community.controller;
 
+import com.kawn.hirfa.auth.config.CurrentUser;
 import com.kawn.hirfa.auth.domain.User;
 import com.kawn.hirfa.common.api.ApiResponse;
 import com.kawn.hirfa.community.domain.Story;
 import com.kawn.hirfa.community.repository.StoryRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -20,7 +20,7 @@ public class CommunityController {
 
     @PostMapping("/stories")
     public ApiResponse<Story> postStory(
-            @AuthenticationPrincipal User user,
+            @CurrentUser User user,
             @RequestBody StoryRequest request) {
         Story story = Story.builder()
                 .user(user)
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 @Table(name = "stories")
 public class Story {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stories_seq")
+    @SequenceGenerator(name = "stories_seq", sequenceName = "stories_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
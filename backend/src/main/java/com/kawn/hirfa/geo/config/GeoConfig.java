@@ -0,0 +1,21 @@
+package com.kawn.hirfa.geo.config;
+
+import com.kawn.hirfa.geo.index.ProviderSpatialIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class GeoConfig {
+
+    @Bean
+    public ProviderSpatialIndex providerSpatialIndex(
+            MeterRegistry meterRegistry,
+            @Value("${geo.index.cell-degrees:0.01}") double cellDegrees) {
+        ProviderSpatialIndex index = new ProviderSpatialIndex(cellDegrees);
+        Gauge.builder("geo.index.size", index, ProviderSpatialIndex::size).register(meterRegistry);
+        return index;
+    }
+}
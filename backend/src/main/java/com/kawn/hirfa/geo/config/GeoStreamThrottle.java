@@ -0,0 +1,63 @@
+package com.kawn.hirfa.geo.config;
+
+import com.kawn.hirfa.common.ratelimit.TokenBucket;
+import com.kawn.hirfa.geo.service.LocationStreamService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caps how many location frames each WebSocket session receives, whatever the number of tiles
+ * it watches. Frames over the budget are dropped for that session only; the gap in the tile's
+ * sequence numbers tells the client to reload.
+ */
+@Component
+public class GeoStreamThrottle implements ChannelInterceptor {
+
+    private final int capacity;
+    private final double framesPerSecond;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Counter dropped;
+
+    public GeoStreamThrottle(
+            MeterRegistry meterRegistry,
+            @Value("${geo.stream.subscriber.capacity:40}") int capacity,
+            @Value("${geo.stream.subscriber.frames-per-second:20}") double framesPerSecond) {
+        this.capacity = capacity;
+        this.framesPerSecond = framesPerSecond;
+        this.dropped = meterRegistry.counter("geo.stream.dropped");
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(message);
+        String destination = headers.getDestination();
+        if (headers.getMessageType() != SimpMessageType.MESSAGE || headers.getSessionId() == null
+                || destination == null || !destination.startsWith(LocationStreamService.TOPIC_PREFIX)) {
+            return message;
+        }
+        TokenBucket bucket = buckets.computeIfAbsent(headers.getSessionId(),
+                session -> new TokenBucket(capacity, framesPerSecond));
+        if (bucket.tryAcquire()) {
+            return message;
+        }
+        dropped.increment();
+        return null;
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        buckets.remove(event.getSessionId());
+    }
+}
@@ -1,38 +1,49 @@
 package com.kawn.hirfa.geo.controller;
 
+import com.kawn.hirfa.auth.config.CurrentUser;
 import com.kawn.hirfa.auth.domain.User;
-import com.kawn.hirfa.geo.domain.ProviderLocation;
+import com.kawn.hirfa.common.api.CursorPage;
+import com.kawn.hirfa.geo.dto.NearbyProviderResponse;
+import com.kawn.hirfa.geo.dto.StreamTilesResponse;
 import com.kawn.hirfa.geo.service.GeoService;
+import com.kawn.hirfa.geo.service.LocationStreamService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/v1/geo")
 @RequiredArgsConstructor
 public class GeoController {
 
     private final GeoService geoService;
+    private final LocationStreamService locationStream;
 
     @PostMapping("/update")
     public ResponseEntity<Void> updateLocation(
-            @AuthenticationPrincipal User user,
+            @CurrentUser User user,
             @RequestParam double lat,
             @RequestParam double lon) {
-        geoService.updateLocation(user, lat, lon);
+        geoService.updateLocation(user.getId(), lat, lon);
         return ResponseEntity.ok().build();
     }
 
     @GetMapping("/nearby")
-    public ResponseEntity<List<ProviderLocation>> getNearby(
+    public ResponseEntity<CursorPage<NearbyProviderResponse>> getNearby(
             @RequestParam double lat,
             @RequestParam double lon,
-            @RequestParam(defaultValue = "5000") double radius // meters
-    ) {
-        // In real app, convert ProviderLocation to a DTO to hide internal structure
-        return ResponseEntity.ok(geoService.findNearbyProviders(lat, lon, radius));
+            @RequestParam(defaultValue = "5000") double radius, // meters
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(geoService.findNearbyProviders(lat, lon, radius, limit, cursor));
+    }
+
+    @GetMapping("/stream/tiles")
+    public ResponseEntity<StreamTilesResponse> getStreamTiles(
+            @RequestParam double south,
+            @RequestParam double west,
+            @RequestParam double north,
+            @RequestParam double east) {
+        return ResponseEntity.ok(locationStream.viewportTopics(south, west, north, east));
     }
 }
@@ -1,6 +1,7 @@
 package com.kawn.hirfa.geo.domain;
 
 import com.kawn.hirfa.auth.domain.User;
+import com.kawn.hirfa.geo.support.GeoCell;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,7 +14,9 @@ import org.locationtech.jts.geom.Point;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "provider_locations")
+@Table(name = "provider_locations", indexes = {
+        @Index(name = "idx_provider_locations_geocell", columnList = "geocell")
+})
 public class ProviderLocation {
 
     @Id
@@ -28,6 +31,15 @@ public class ProviderLocation {
     @Column(columnDefinition = "geometry(Point, 4326)")
     private Point location;
 
+    // Morton key of the location, for range-scan search on databases without PostGIS
+    private Long geocell;
+
     // Optional: Last updated timestamp
     private java.time.LocalDateTime lastUpdated;
+
+    @PrePersist
+    @PreUpdate
+    void updateGeocell() {
+        geocell = location == null ? null : GeoCell.encode(location.getY(), location.getX());
+    }
 }
@@ -0,0 +1,38 @@
+package com.kawn.hirfa.geo.dto;
+
+/**
+ * A change of one provider within a streamed tile. Coordinates are null for LEAVE.
+ */
+public record LocationDelta(Long providerId, Type type, Double latitude, Double longitude) {
+
+    public enum Type {
+        ENTER,
+        MOVE,
+        LEAVE
+    }
+
+    public static LocationDelta leave(Long providerId) {
+        return new LocationDelta(providerId, Type.LEAVE, null, null);
+    }
+
+    /**
+     * Folds a newer delta for the same provider and tile into this one, or returns null when
+     * the two cancel out (entered and left within the same tick).
+     */
+    public LocationDelta then(LocationDelta next) {
+        return switch (type) {
+            case ENTER -> switch (next.type) {
+                case LEAVE -> null;
+                default -> new LocationDelta(providerId, Type.ENTER, next.latitude, next.longitude);
+            };
+            case LEAVE -> switch (next.type) {
+                // Subscribers still show it at the old position, so coming back is a move
+                case ENTER, MOVE -> new LocationDelta(providerId, Type.MOVE, next.latitude, next.longitude);
+                case LEAVE -> this;
+            };
+            case MOVE -> next.type == Type.ENTER
+                    ? new LocationDelta(providerId, Type.MOVE, next.latitude, next.longitude)
+                    : next;
+        };
+    }
+}
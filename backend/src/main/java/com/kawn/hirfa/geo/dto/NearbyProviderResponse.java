@@ -0,0 +1,10 @@
+package com.kawn.hirfa.geo.dto;
+
+public record NearbyProviderResponse(
+        Long providerId,
+        String name,
+        double distanceMeters,
+        Double rating, // Average review score, null until the provider has been reviewed
+        double latitude,
+        double longitude) {
+}
@@ -0,0 +1,9 @@
+package com.kawn.hirfa.geo.dto;
+
+import java.util.List;
+
+/**
+ * STOMP topics covering a map viewport.
+ */
+public record StreamTilesResponse(double tileDegrees, List<String> topics) {
+}
@@ -0,0 +1,10 @@
+package com.kawn.hirfa.geo.dto;
+
+import java.util.List;
+
+/**
+ * One tick's worth of changes for a tile. {@code sequence} increases by one per frame sent to
+ * the tile; a subscriber that sees a gap missed frames and should reload from /geo/nearby.
+ */
+public record TileUpdate(String tile, long sequence, List<LocationDelta> deltas) {
+}
@@ -0,0 +1,304 @@
+package com.kawn.hirfa.geo.index;
+
+import com.kawn.hirfa.geo.support.GeoMath;
+import com.kawn.hirfa.geo.support.TileGrid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Node-local uniform-grid index of provider positions. Each grid cell stores its providers in
+ * parallel primitive arrays (id, lat, lon), so radius and k-nearest queries only touch the
+ * cells overlapping the query and never allocate per stored point. Each node holds every
+ * provider; {@code GeoService} feeds it the pings taken by the other nodes too.
+ * <p>
+ * Reads share a read lock and position updates take the write lock briefly; both are O(cell
+ * size). Longitude wrap-around at the antimeridian is not handled.
+ */
+public class ProviderSpatialIndex {
+
+    public record Hit(long providerId, double lat, double lon, double distanceMeters) {
+    }
+
+    // Slack for the flat-earth pre-filter; its error stays well below 1% at city scales
+    private static final double APPROX_MARGIN = 1.01;
+
+    // Ties broken by id so that pages of equally distant providers are stable
+    private static final Comparator<Hit> BY_DISTANCE = Comparator.comparingDouble(Hit::distanceMeters)
+            .thenComparingLong(Hit::providerId);
+
+    private final TileGrid grid;
+    private final double cellDegrees;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final Map<Long, Long> cellOfProvider = new HashMap<>();
+
+    public ProviderSpatialIndex(double cellDegrees) {
+        this.grid = new TileGrid(cellDegrees);
+        this.cellDegrees = cellDegrees;
+    }
+
+    /**
+     * Inserts or moves a provider and returns its previous position, or null if it was new.
+     */
+    public Hit update(long providerId, double lat, double lon) {
+        long key = grid.tileOf(lat, lon);
+        lock.writeLock().lock();
+        try {
+            Long previousKey = cellOfProvider.put(providerId, key);
+            if (previousKey == null) {
+                cells.computeIfAbsent(key, k -> new Cell()).add(providerId, lat, lon);
+                return null;
+            }
+            Cell previousCell = cells.get(previousKey);
+            int i = previousCell.indexOf(providerId);
+            Hit previous = new Hit(providerId, previousCell.lats[i], previousCell.lons[i], 0);
+            if (previousKey == key) {
+                previousCell.lats[i] = lat;
+                previousCell.lons[i] = lon;
+            } else {
+                removeFromCell(previousKey, providerId);
+                cells.computeIfAbsent(key, k -> new Cell()).add(providerId, lat, lon);
+            }
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long providerId) {
+        lock.writeLock().lock();
+        try {
+            Long key = cellOfProvider.remove(providerId);
+            if (key == null) {
+                return false;
+            }
+            removeFromCell(key, providerId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return cellOfProvider.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the indexed position of a provider, with a distance of zero, or null if unknown.
+     */
+    public Hit position(long providerId) {
+        lock.readLock().lock();
+        try {
+            Long key = cellOfProvider.get(providerId);
+            if (key == null) {
+                return null;
+            }
+            Cell cell = cells.get(key);
+            int i = cell.indexOf(providerId);
+            return new Hit(providerId, cell.lats[i], cell.lons[i], 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * All providers within {@code radiusMeters} of the point, nearest first (then by id).
+     */
+    public List<Hit> withinRadius(double lat, double lon, double radiusMeters) {
+        double dLat = GeoMath.metersToLatDegrees(radiusMeters);
+        double dLon = GeoMath.metersToLonDegrees(radiusMeters, Math.min(89.0, Math.abs(lat) + dLat));
+        int minLat = grid.row(lat - dLat);
+        int maxLat = grid.row(lat + dLat);
+        int minLon = grid.column(lon - dLon);
+        int maxLon = grid.column(lon + dLon);
+
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int i = minLat; i <= maxLat; i++) {
+                for (int j = minLon; j <= maxLon; j++) {
+                    Cell cell = cells.get(TileGrid.key(i, j));
+                    if (cell != null) {
+                        cell.collectWithin(lat, lon, radiusMeters, dLat, dLon, hits);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.sort(BY_DISTANCE);
+        return hits;
+    }
+
+    /**
+     * The {@code k} providers nearest to the point within {@code maxRadiusMeters}, nearest first.
+     * Searches outward ring by ring and stops once no unvisited cell can hold a closer provider.
+     */
+    public List<Hit> nearest(double lat, double lon, int k, double maxRadiusMeters) {
+        return nearestAfter(lat, lon, k, maxRadiusMeters, -1, Long.MIN_VALUE);
+    }
+
+    /**
+     * Like {@link #nearest}, but only considers providers ordered after (afterDistanceMeters,
+     * afterProviderId). This serves keyset pages of a distance-ordered listing without
+     * materializing everything within the radius.
+     */
+    public List<Hit> nearestAfter(double lat, double lon, int k, double maxRadiusMeters,
+            double afterDistanceMeters, long afterProviderId) {
+        if (k <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Hit> best = new PriorityQueue<>(k, BY_DISTANCE.reversed());
+        int centerLat = grid.row(lat);
+        int centerLon = grid.column(lon);
+        double maxDLat = GeoMath.metersToLatDegrees(maxRadiusMeters);
+        int maxRing = (int) Math.ceil(GeoMath.metersToLonDegrees(maxRadiusMeters, Math.min(89.0, Math.abs(lat) + maxDLat))
+                / cellDegrees) + 1;
+
+        lock.readLock().lock();
+        try {
+            for (int ring = 0; ring <= maxRing; ring++) {
+                // Every cell of this ring is at least (ring - 1) cell sides away from the point
+                double ringLowerBound = Math.max(0, ring - 1) * minCellSideMeters(lat, ring);
+                if (ringLowerBound > maxRadiusMeters
+                        || (best.size() == k && ringLowerBound > best.peek().distanceMeters())) {
+                    break;
+                }
+                for (int i = centerLat - ring; i <= centerLat + ring; i++) {
+                    boolean edgeRow = i == centerLat - ring || i == centerLat + ring;
+                    int step = edgeRow ? 1 : 2 * ring;
+                    for (int j = centerLon - ring; j <= centerLon + ring; j += Math.max(1, step)) {
+                        Cell cell = cells.get(TileGrid.key(i, j));
+                        if (cell != null) {
+                            cell.collectNearest(lat, lon, maxRadiusMeters, afterDistanceMeters, afterProviderId, k, best);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Hit[] ordered = best.toArray(new Hit[0]);
+        Arrays.sort(ordered, BY_DISTANCE);
+        return Arrays.asList(ordered);
+    }
+
+    private double minCellSideMeters(double lat, int ring) {
+        double farthestLat = Math.min(89.0, Math.abs(lat) + (ring + 1) * cellDegrees);
+        return cellDegrees * GeoMath.METERS_PER_DEGREE_LAT * Math.max(0.01, Math.cos(Math.toRadians(farthestLat)));
+    }
+
+    private void removeFromCell(long key, long providerId) {
+        Cell cell = cells.get(key);
+        if (cell != null && cell.remove(providerId) && cell.size == 0) {
+            cells.remove(key);
+        }
+    }
+
+    private static final class Cell {
+        long[] ids = new long[4];
+        double[] lats = new double[4];
+        double[] lons = new double[4];
+        int size;
+
+        void add(long id, double lat, double lon) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                lats = Arrays.copyOf(lats, capacity);
+                lons = Arrays.copyOf(lons, capacity);
+            }
+            ids[size] = id;
+            lats[size] = lat;
+            lons[size] = lon;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int i = indexOf(id);
+            if (i < 0) {
+                return false;
+            }
+            int last = --size;
+            ids[i] = ids[last];
+            lats[i] = lats[last];
+            lons[i] = lons[last];
+            return true;
+        }
+
+        int indexOf(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void collectWithin(double lat, double lon, double radius, double dLat, double dLon, List<Hit> out) {
+            double lonScale = Math.cos(Math.toRadians(lat));
+            double approxLimit = squared(radius * APPROX_MARGIN + 1);
+            for (int i = 0; i < size; i++) {
+                // Cheap bounding-box and flat-earth rejects before the trigonometry
+                if (Math.abs(lats[i] - lat) > dLat || Math.abs(lons[i] - lon) > dLon
+                        || approxSquaredMeters(lat, lon, lonScale, i) > approxLimit) {
+                    continue;
+                }
+                double distance = GeoMath.haversineMeters(lat, lon, lats[i], lons[i]);
+                if (distance <= radius) {
+                    out.add(new Hit(ids[i], lats[i], lons[i], distance));
+                }
+            }
+        }
+
+        void collectNearest(double lat, double lon, double maxRadius, double afterDistance, long afterId,
+                int k, PriorityQueue<Hit> best) {
+            double lonScale = Math.cos(Math.toRadians(lat));
+            for (int i = 0; i < size; i++) {
+                double limit = best.size() < k ? maxRadius : Math.min(maxRadius, best.peek().distanceMeters());
+                if (approxSquaredMeters(lat, lon, lonScale, i) > squared(limit * APPROX_MARGIN + 1)) {
+                    continue;
+                }
+                double distance = GeoMath.haversineMeters(lat, lon, lats[i], lons[i]);
+                if (distance > maxRadius || !isAfter(distance, ids[i], afterDistance, afterId)) {
+                    continue;
+                }
+                if (best.size() < k) {
+                    best.add(new Hit(ids[i], lats[i], lons[i], distance));
+                } else if (isAfter(best.peek().distanceMeters(), best.peek().providerId(), distance, ids[i])) {
+                    best.poll();
+                    best.add(new Hit(ids[i], lats[i], lons[i], distance));
+                }
+            }
+        }
+
+        private static boolean isAfter(double distance, long id, double thanDistance, long thanId) {
+            int byDistance = Double.compare(distance, thanDistance);
+            return byDistance > 0 || (byDistance == 0 && id > thanId);
+        }
+
+        // Equirectangular approximation, only used as a conservative pre-filter
+        private double approxSquaredMeters(double lat, double lon, double lonScale, int i) {
+            double dy = (lats[i] - lat) * GeoMath.METERS_PER_DEGREE_LAT;
+            double dx = (lons[i] - lon) * GeoMath.METERS_PER_DEGREE_LAT * lonScale;
+            return dx * dx + dy * dy;
+        }
+
+        private static double squared(double value) {
+            return value * value;
+        }
+    }
+}
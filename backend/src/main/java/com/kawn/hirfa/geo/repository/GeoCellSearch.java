@@ -0,0 +1,53 @@
+package com.kawn.hirfa.geo.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Portable range scans over geocell keys. Each covering range becomes a BETWEEN on the indexed
+ * column, so any relational database can serve them from a plain B-tree.
+ */
+@Repository
+@RequiredArgsConstructor
+public class GeoCellSearch {
+
+    public record CellRow(Long id, Long geocell) {
+    }
+
+    private final EntityManager entityManager;
+
+    public List<CellRow> findProviderCells(List<long[]> ranges) {
+        if (ranges.isEmpty()) {
+            return List.of();
+        }
+        TypedQuery<Object[]> query = entityManager.createQuery(
+                "SELECT p.userId, p.geocell FROM ProviderLocation p WHERE " + rangePredicate("p.geocell", ranges.size()),
+                Object[].class);
+        bindRanges(query, ranges);
+        return query.getResultList().stream()
+                .map(row -> new CellRow((Long) row[0], (Long) row[1]))
+                .toList();
+    }
+
+    public static String rangePredicate(String column, int ranges) {
+        StringBuilder predicate = new StringBuilder("(");
+        for (int i = 0; i < ranges; i++) {
+            if (i > 0) {
+                predicate.append(" OR ");
+            }
+            predicate.append(column).append(" BETWEEN :from").append(i).append(" AND :to").append(i);
+        }
+        return predicate.append(')').toString();
+    }
+
+    public static void bindRanges(TypedQuery<?> query, List<long[]> ranges) {
+        for (int i = 0; i < ranges.size(); i++) {
+            query.setParameter("from" + i, ranges.get(i)[0]);
+            query.setParameter("to" + i, ranges.get(i)[1]);
+        }
+    }
+}
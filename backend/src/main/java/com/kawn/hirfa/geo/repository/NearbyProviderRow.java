@@ -0,0 +1,13 @@
+package com.kawn.hirfa.geo.repository;
+
+/**
+ * A nearby provider as computed by PostGIS, already ordered and paged.
+ */
+public interface NearbyProviderRow extends ProviderSummary {
+
+    Double getDistanceMeters();
+
+    Double getLat();
+
+    Double getLon();
+}
@@ -1,15 +1,63 @@
 package com.kawn.hirfa.geo.repository;
 
 import com.kawn.hirfa.geo.domain.ProviderLocation;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface ProviderLocationRepository extends JpaRepository<ProviderLocation, Long> {
 
-    @Query(value = "SELECT * FROM provider_locations p WHERE ST_DWithin(p.location, ST_SetSRID(ST_MakePoint(:lon, :lat), 4326), :radiusInMeters)", nativeQuery = true)
-    List<ProviderLocation> findNearby(@Param("lat") double lat, @Param("lon") double lon,
-            @Param("radiusInMeters") double radiusInMeters);
+    // Fallback while the in-memory index is not ready. Cast to geography so distances are in
+    // meters rather than degrees of the 4326 geometry; keyset-paged on (distance, id).
+    @Query(value = """
+            SELECT p.user_id AS "providerId", u.full_name AS "name",
+                   ST_Distance(p.location::geography, c.center) AS "distanceMeters",
+                   ST_Y(p.location) AS "lat", ST_X(p.location) AS "lon",
+                   (SELECT CAST(r.rating_sum AS double precision) / NULLIF(r.review_count, 0)
+                     FROM provider_ratings r WHERE r.provider_id = p.user_id) AS "rating"
+            FROM provider_locations p
+            JOIN users u ON u.id = p.user_id
+            CROSS JOIN (SELECT ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography AS center) c
+            WHERE ST_DWithin(p.location::geography, c.center, :radiusInMeters)
+              AND (ST_Distance(p.location::geography, c.center), p.user_id) > (:afterDistance, :afterId)
+            ORDER BY 3, 1
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<NearbyProviderRow> findNearby(@Param("lat") double lat, @Param("lon") double lon,
+            @Param("radiusInMeters") double radiusInMeters,
+            @Param("afterDistance") double afterDistance, @Param("afterId") long afterId,
+            @Param("limit") int limit);
+
+    // Rating is the provider's average review, read from its rating aggregates
+    @Query("""
+            SELECT u.id AS providerId, u.fullName AS name,
+                   CAST(r.ratingSum AS Double) / NULLIF(r.reviewCount, 0) AS rating
+            FROM User u LEFT JOIN ProviderRating r ON r.providerId = u.id
+            WHERE u.id IN :ids
+            """)
+    List<ProviderSummary> findSummaries(@Param("ids") Collection<Long> ids);
+
+    // Used to warm the in-memory index; stream it so a large table is not materialized at once
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.userId AS providerId, p.location AS location FROM ProviderLocation p WHERE p.location IS NOT NULL")
+    Stream<ProviderPosition> streamAllPositions();
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.userId AS providerId, p.location AS location FROM ProviderLocation p WHERE p.location IS NOT NULL AND p.geocell IS NULL")
+    Stream<ProviderPosition> streamPositionsWithoutGeocell();
 }
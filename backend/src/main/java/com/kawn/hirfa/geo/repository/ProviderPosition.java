@@ -0,0 +1,9 @@
+package com.kawn.hirfa.geo.repository;
+
+import org.locationtech.jts.geom.Point;
+
+public interface ProviderPosition {
+    Long getProviderId();
+
+    Point getLocation();
+}
@@ -0,0 +1,13 @@
+package com.kawn.hirfa.geo.repository;
+
+/**
+ * Display fields of a provider in nearby listings.
+ */
+public interface ProviderSummary {
+
+    Long getProviderId();
+
+    String getName();
+
+    Double getRating();
+}
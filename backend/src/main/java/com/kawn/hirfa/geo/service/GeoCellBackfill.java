@@ -0,0 +1,58 @@
+package com.kawn.hirfa.geo.service;
+
+import com.kawn.hirfa.geo.repository.ProviderLocationRepository;
+import com.kawn.hirfa.geo.repository.ProviderPosition;
+import com.kawn.hirfa.geo.support.GeoCell;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Fills in geocell keys for provider locations and jobs written before the column existed.
+ * New rows get theirs on every write, so this finds nothing after the first run.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GeoCellBackfill {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ProviderLocationRepository locationRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        List<Object[]> providerCells = new ArrayList<>();
+        try (Stream<ProviderPosition> positions = locationRepository.streamPositionsWithoutGeocell()) {
+            positions.forEach(p -> providerCells.add(new Object[]{
+                    GeoCell.encode(p.getLocation().getY(), p.getLocation().getX()), p.getProviderId()}));
+        }
+        List<Object[]> jobCells = jdbcTemplate.query(
+                "SELECT id, latitude, longitude FROM jobs WHERE geocell IS NULL",
+                (rs, rowNum) -> new Object[]{GeoCell.encode(rs.getDouble(2), rs.getDouble(3)), rs.getLong(1)});
+
+        jdbcTemplate.batchUpdate("UPDATE provider_locations SET geocell = ? WHERE user_id = ?", providerCells, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setLong(1, (Long) row[0]);
+                    ps.setLong(2, (Long) row[1]);
+                });
+        jdbcTemplate.batchUpdate("UPDATE jobs SET geocell = ? WHERE id = ?", jobCells, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setLong(1, (Long) row[0]);
+                    ps.setLong(2, (Long) row[1]);
+                });
+        if (!providerCells.isEmpty() || !jobCells.isEmpty()) {
+            log.info("Backfilled geocells for {} provider locations and {} jobs", providerCells.size(), jobCells.size());
+        }
+    }
+}
@@ -1,36 +1,152 @@
 package com.kawn.hirfa.geo.service;
 
-import com.kawn.hirfa.auth.domain.User;
-import com.kawn.hirfa.geo.domain.ProviderLocation;
+import com.kawn.hirfa.chat.cluster.ClusterFanout;
+import com.kawn.hirfa.common.api.CursorPage;
+import com.kawn.hirfa.geo.dto.NearbyProviderResponse;
+import com.kawn.hirfa.geo.index.ProviderSpatialIndex;
 import com.kawn.hirfa.geo.repository.ProviderLocationRepository;
+import com.kawn.hirfa.geo.repository.ProviderPosition;
+import com.kawn.hirfa.geo.support.NearbyCursor;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
-import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.jts.geom.GeometryFactory;
-import org.locationtech.jts.geom.Point;
-import org.locationtech.jts.geom.PrecisionModel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
+/**
+ * Provider positions: pings, nearby search and fan-out candidates. Every node keeps all positions
+ * in its spatial index; pings taken by other nodes arrive as relayed location events and update
+ * the index, the nearby cache and the location stream here, while the node that took the ping
+ * writes it to the database.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class GeoService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String LOCATION_EVENT = "geo.location";
+
     private final ProviderLocationRepository repository;
-    private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
+    private final ProviderSpatialIndex index;
+    private final LocationWriteBuffer writeBuffer;
+    private final NearbyResultCache resultCache;
+    private final NearbyProviderQueries queries;
+    private final LocationStreamService locationStream;
+    private final ClusterFanout clusterFanout;
+
+    @Value("${geo.index.enabled:true}")
+    private boolean indexEnabled;
+
+    // Until the index is warm, queries go to the database (PostGIS or geocell scan)
+    private volatile boolean indexReady;
+
+    @PostConstruct
+    void listenToOtherNodes() {
+        clusterFanout.onEvent(LOCATION_EVENT, this::locationRelayed);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadIndex() {
+        if (!indexEnabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        try (Stream<ProviderPosition> positions = repository.streamAllPositions()) {
+            positions.forEach(p -> index.update(p.getProviderId(), p.getLocation().getY(), p.getLocation().getX()));
+        }
+        indexReady = true;
+        log.info("Loaded {} provider locations into the spatial index in {} ms",
+                index.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Records a ping. The index sees it immediately; the database row is written behind.
+     */
+    public void updateLocation(Long providerId, double lat, double lon) {
+        writeBuffer.submit(providerId, lat, lon);
+        if (indexEnabled) {
+            providerMoved(providerId, lat, lon);
+            clusterFanout.publishEvent(LOCATION_EVENT, ByteBuffer.allocate(24)
+                    .putLong(providerId).putDouble(lat).putDouble(lon).array());
+        }
+    }
 
-    public void updateLocation(User user, double lat, double lon) {
-        Point point = geometryFactory.createPoint(new Coordinate(lon, lat));
-        ProviderLocation location = repository.findById(user.getId())
-                .orElse(ProviderLocation.builder().user(user).build());
+    private void locationRelayed(byte[] payload) {
+        if (indexEnabled) {
+            ByteBuffer ping = ByteBuffer.wrap(payload);
+            providerMoved(ping.getLong(), ping.getDouble(), ping.getDouble());
+        }
+    }
+
+    private void providerMoved(Long providerId, double lat, double lon) {
+        ProviderSpatialIndex.Hit previous = index.update(providerId, lat, lon);
+        resultCache.providerMoved(previous, lat, lon);
+        locationStream.providerMoved(providerId, previous, lat, lon);
+    }
+
+    /**
+     * Providers within the radius ordered by distance, then id, one page at a time. Served from
+     * the spatial index, which already holds positions that are still being written behind.
+     */
+    public CursorPage<NearbyProviderResponse> findNearbyProviders(
+            double lat, double lon, double radiusInMeters, int limit, String cursor) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        NearbyCursor after = NearbyCursor.decode(cursor);
+        if (!indexReady) {
+            List<NearbyProviderResponse> rows = queries.search(lat, lon, radiusInMeters, after, pageSize + 1);
+            return CursorPage.fromOverfetch(rows, pageSize, GeoService::cursorOf);
+        }
+
+        if (resultCache.isEnabled()) {
+            return resultCache.get(lat, lon, radiusInMeters, pageSize, cursor,
+                    (centerLat, centerLon, radius) -> queryIndex(centerLat, centerLon, radius, pageSize, after));
+        }
+        return queryIndex(lat, lon, radiusInMeters, pageSize, after);
+    }
+
+    /**
+     * Ids of every provider within the radius, in no particular order, for fan-out rather than
+     * listing.
+     */
+    public List<Long> findProviderIdsWithin(double lat, double lon, double radiusInMeters) {
+        if (indexReady) {
+            return index.withinRadius(lat, lon, radiusInMeters).stream()
+                    .map(ProviderSpatialIndex.Hit::providerId)
+                    .toList();
+        }
+        List<Long> ids = new ArrayList<>();
+        NearbyCursor after = NearbyCursor.START;
+        List<NearbyProviderResponse> rows;
+        do {
+            rows = queries.search(lat, lon, radiusInMeters, after, MAX_PAGE_SIZE);
+            rows.forEach(row -> ids.add(row.providerId()));
+            if (!rows.isEmpty()) {
+                NearbyProviderResponse last = rows.get(rows.size() - 1);
+                after = new NearbyCursor(last.distanceMeters(), last.providerId());
+            }
+        } while (rows.size() == MAX_PAGE_SIZE);
+        return ids;
+    }
 
-        location.setLocation(point);
-        location.setLastUpdated(LocalDateTime.now());
-        repository.save(location);
+    private CursorPage<NearbyProviderResponse> queryIndex(
+            double lat, double lon, double radiusInMeters, int pageSize, NearbyCursor after) {
+        List<ProviderSpatialIndex.Hit> hits = index.nearestAfter(lat, lon, pageSize + 1, radiusInMeters,
+                after.distanceMeters(), after.providerId());
+        List<NearbyProviderResponse> rows = queries.describe(hits);
+        return CursorPage.fromOverfetch(rows, pageSize, GeoService::cursorOf);
     }
 
-    public List<ProviderLocation> findNearbyProviders(double lat, double lon, double radiusInMeters) {
-        return repository.findNearby(lat, lon, radiusInMeters);
+    private static String cursorOf(NearbyProviderResponse row) {
+        return new NearbyCursor(row.distanceMeters(), row.providerId()).encode();
     }
 }
@@ -0,0 +1,184 @@
+package com.kawn.hirfa.geo.service;
+
+import com.kawn.hirfa.common.exception.InvalidOperationException;
+import com.kawn.hirfa.geo.dto.LocationDelta;
+import com.kawn.hirfa.geo.dto.StreamTilesResponse;
+import com.kawn.hirfa.geo.dto.TileUpdate;
+import com.kawn.hirfa.geo.index.ProviderSpatialIndex;
+import com.kawn.hirfa.geo.support.TileGrid;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams provider movements to STOMP subscribers of {@code /topic/geo.{tile}}.
+ * <p>
+ * Location pings only record deltas for tiles somebody is subscribed to. Deltas are coalesced
+ * per provider and tile until the next tick, so a provider pinging many times per tick still
+ * costs subscribers at most one delta, and each tile with changes gets one frame per tick.
+ */
+@Slf4j
+@Service
+public class LocationStreamService {
+
+    public static final String TOPIC_PREFIX = "/topic/geo.";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TileGrid tiles;
+    private final int maxViewportTiles;
+
+    // Subscriber count per tile, and each session's subscriptions (subscription id -> tile)
+    private final Map<Long, Integer> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Long>> sessions = new ConcurrentHashMap<>();
+
+    private final Map<Long, Map<Long, LocationDelta>> pending = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> sequences = new ConcurrentHashMap<>();
+    private final Counter frames;
+
+    public LocationStreamService(
+            SimpMessagingTemplate messagingTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${geo.stream.tile-degrees:0.01}") double tileDegrees,
+            @Value("${geo.stream.max-viewport-tiles:64}") int maxViewportTiles) {
+        this.messagingTemplate = messagingTemplate;
+        this.tiles = new TileGrid(tileDegrees);
+        this.maxViewportTiles = maxViewportTiles;
+        this.frames = meterRegistry.counter("geo.stream.frames");
+        Gauge.builder("geo.stream.tiles", subscribers, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Topics a client should subscribe to for the given viewport.
+     */
+    public StreamTilesResponse viewportTopics(double south, double west, double north, double east) {
+        int minRow = tiles.row(Math.min(south, north));
+        int maxRow = tiles.row(Math.max(south, north));
+        int minColumn = tiles.column(Math.min(west, east));
+        int maxColumn = tiles.column(Math.max(west, east));
+        if ((long) (maxRow - minRow + 1) * (maxColumn - minColumn + 1) > maxViewportTiles) {
+            throw new InvalidOperationException("Viewport too large, zoom in to stream locations");
+        }
+        List<String> topics = new ArrayList<>();
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                topics.add(TOPIC_PREFIX + TileGrid.id(TileGrid.key(row, column)));
+            }
+        }
+        return new StreamTilesResponse(tiles.tileDegrees(), topics);
+    }
+
+    /**
+     * Records a move; {@code previous} is null for a provider that had no position yet.
+     */
+    public void providerMoved(Long providerId, ProviderSpatialIndex.Hit previous, double lat, double lon) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        long to = tiles.tileOf(lat, lon);
+        Long from = previous == null ? null : tiles.tileOf(previous.lat(), previous.lon());
+        if (from != null && from == to) {
+            record(to, new LocationDelta(providerId, LocationDelta.Type.MOVE, lat, lon));
+            return;
+        }
+        if (from != null) {
+            record(from, LocationDelta.leave(providerId));
+        }
+        record(to, new LocationDelta(providerId, LocationDelta.Type.ENTER, lat, lon));
+    }
+
+    @Scheduled(fixedDelayString = "${geo.stream.tick:PT0.5S}")
+    public void publish() {
+        for (Long tile : pending.keySet()) {
+            Map<Long, LocationDelta> deltas = pending.remove(tile);
+            if (deltas == null || deltas.isEmpty() || !subscribers.containsKey(tile)) {
+                continue;
+            }
+            long sequence = sequences.computeIfAbsent(tile, t -> new AtomicLong()).incrementAndGet();
+            String id = TileGrid.id(tile);
+            messagingTemplate.convertAndSend(TOPIC_PREFIX + id, new TileUpdate(id, sequence, List.copyOf(deltas.values())));
+            frames.increment();
+        }
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        String destination = headers.getDestination();
+        if (destination == null || !destination.startsWith(TOPIC_PREFIX)) {
+            return;
+        }
+        long tile;
+        try {
+            tile = TileGrid.parseId(destination.substring(TOPIC_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring subscription to {}", destination);
+            return;
+        }
+        Map<String, Long> subscriptions = sessions.computeIfAbsent(headers.getSessionId(), s -> new ConcurrentHashMap<>());
+        if (subscriptions.put(headers.getSubscriptionId(), tile) == null) {
+            subscribers.merge(tile, 1, Integer::sum);
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Map<String, Long> subscriptions = sessions.get(headers.getSessionId());
+        if (subscriptions != null) {
+            Long tile = subscriptions.remove(headers.getSubscriptionId());
+            if (tile != null) {
+                release(tile);
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, Long> subscriptions = sessions.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::release);
+        }
+    }
+
+    private void record(long tile, LocationDelta delta) {
+        if (!subscribers.containsKey(tile)) {
+            return;
+        }
+        pending.compute(tile, (t, deltas) -> {
+            Map<Long, LocationDelta> merged = deltas != null ? deltas : new LinkedHashMap<>();
+            LocationDelta previous = merged.get(delta.providerId());
+            LocationDelta next = previous == null ? delta : previous.then(delta);
+            if (next == null) {
+                merged.remove(delta.providerId());
+            } else {
+                merged.put(delta.providerId(), next);
+            }
+            return merged;
+        });
+    }
+
+    private void release(long tile) {
+        subscribers.computeIfPresent(tile, (t, count) -> count > 1 ? count - 1 : null);
+        if (!subscribers.containsKey(tile)) {
+            sequences.remove(tile);
+            pending.remove(tile);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.kawn.hirfa.geo.service;
+
+import com.kawn.hirfa.geo.support.GeoCell;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind stage for provider location pings. Only the latest position per provider is
+ * kept, so pings that arrive between two flushes collapse into a single row write. Pending
+ * positions are flushed with batched JDBC updates every {@code flush-interval}, as soon as
+ * {@code max-pending} providers are waiting, and once more on shutdown.
+ * <p>
+ * Positions stay visible through {@link #latest(Long)} until their flush has completed.
+ */
+@Slf4j
+@Component
+public class LocationWriteBuffer implements SmartLifecycle {
+
+    public record PendingLocation(double lat, double lon, LocalDateTime at) {
+    }
+
+    private static final String UPDATE_SQL =
+            "UPDATE provider_locations SET location = CAST(? AS geometry), geocell = ?, last_updated = ? WHERE user_id = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO provider_locations (user_id, location, geocell, last_updated) VALUES (?, CAST(? AS geometry), ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration flushInterval;
+    private final int maxPending;
+    private final int batchSize;
+
+    private final Map<Long, PendingLocation> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean earlyFlushRequested = new AtomicBoolean();
+    private final Timer flushTimer;
+    private final Counter received;
+    private final Counter written;
+    private final Counter dropped;
+
+    // Positions taken out of pending by the running flush, still readable until it completes
+    private volatile Map<Long, PendingLocation> inFlight = Collections.emptyMap();
+    private volatile ScheduledExecutorService flusher;
+
+    public LocationWriteBuffer(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${geo.write-behind.flush-interval:PT1S}") Duration flushInterval,
+            @Value("${geo.write-behind.max-pending:5000}") int maxPending,
+            @Value("${geo.write-behind.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushInterval = flushInterval;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.flushTimer = Timer.builder("geo.location.flush")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.received = meterRegistry.counter("geo.location.pings");
+        this.written = meterRegistry.counter("geo.location.rows.written");
+        this.dropped = meterRegistry.counter("geo.location.rows.dropped");
+        Gauge.builder("geo.location.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    public void submit(Long providerId, double lat, double lon) {
+        pending.put(providerId, new PendingLocation(lat, lon, LocalDateTime.now()));
+        received.increment();
+        ScheduledExecutorService executor = flusher;
+        if (pending.size() >= maxPending && executor != null && earlyFlushRequested.compareAndSet(false, true)) {
+            executor.execute(this::flush);
+        }
+    }
+
+    /**
+     * The newest position of a provider that may not have reached the database yet, or null.
+     */
+    public PendingLocation latest(Long providerId) {
+        PendingLocation location = pending.get(providerId);
+        return location != null ? location : inFlight.get(providerId);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Writes all pending positions. Rows missing from the table are inserted; if the database
+     * is unreachable the positions go back to the buffer unless a newer one arrived meanwhile.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            earlyFlushRequested.set(false);
+            if (pending.isEmpty()) {
+                return;
+            }
+            Map<Long, PendingLocation> batch = new HashMap<>();
+            for (Long providerId : pending.keySet()) {
+                PendingLocation location = pending.remove(providerId);
+                if (location != null) {
+                    batch.put(providerId, location);
+                }
+            }
+            inFlight = batch;
+            flushTimer.record(() -> write(batch));
+        } finally {
+            inFlight = Collections.emptyMap();
+            flushLock.unlock();
+        }
+    }
+
+    private void write(Map<Long, PendingLocation> batch) {
+        List<Map.Entry<Long, PendingLocation>> rows = new ArrayList<>(batch.entrySet());
+        try {
+            List<Map.Entry<Long, PendingLocation>> missing = new ArrayList<>();
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                List<Map.Entry<Long, PendingLocation>> chunk = rows.subList(from, Math.min(rows.size(), from + batchSize));
+                int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, chunk.stream()
+                        .map(LocationWriteBuffer::updateParams)
+                        .toList());
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        missing.add(chunk.get(i));
+                    }
+                }
+            }
+            insert(missing);
+            written.increment(rows.size() - missing.size());
+        } catch (DataAccessException e) {
+            log.warn("Location flush of {} rows failed, keeping them for the next attempt", rows.size(), e);
+            rows.forEach(row -> pending.putIfAbsent(row.getKey(), row.getValue()));
+        }
+    }
+
+    private void insert(List<Map.Entry<Long, PendingLocation>> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows.stream()
+                    .map(LocationWriteBuffer::insertParams)
+                    .toList());
+            written.increment(rows.size());
+            return;
+        } catch (DataAccessException e) {
+            log.debug("Batched location insert failed, retrying row by row", e);
+        }
+        // A provider may have been deleted or inserted concurrently; isolate the bad rows
+        for (Map.Entry<Long, PendingLocation> row : rows) {
+            try {
+                if (jdbcTemplate.update(UPDATE_SQL, updateParams(row)) == 0) {
+                    jdbcTemplate.update(INSERT_SQL, insertParams(row));
+                }
+                written.increment();
+            } catch (DataAccessException e) {
+                dropped.increment();
+                log.warn("Dropping location of provider {}: {}", row.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private static Object[] updateParams(Map.Entry<Long, PendingLocation> row) {
+        PendingLocation location = row.getValue();
+        return new Object[]{ewkt(location), GeoCell.encode(location.lat(), location.lon()),
+                Timestamp.valueOf(location.at()), row.getKey()};
+    }
+
+    private static Object[] insertParams(Map.Entry<Long, PendingLocation> row) {
+        PendingLocation location = row.getValue();
+        return new Object[]{row.getKey(), ewkt(location), GeoCell.encode(location.lat(), location.lon()),
+                Timestamp.valueOf(location.at())};
+    }
+
+    private static String ewkt(PendingLocation location) {
+        return "SRID=4326;POINT(" + location.lon() + " " + location.lat() + ")";
+    }
+
+    @Override
+    public void start() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "location-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = flushInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        flusher = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = flusher;
+        flusher = null;
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        if (!pending.isEmpty()) {
+            log.warn("{} provider locations were not written before shutdown", pending.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return flusher != null;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the periodic flush
+            log.error("Location flush failed", e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.kawn.hirfa.geo.service;
+
+import com.kawn.hirfa.geo.dto.NearbyProviderResponse;
+import com.kawn.hirfa.geo.index.ProviderSpatialIndex;
+import com.kawn.hirfa.geo.repository.GeoCellSearch;
+import com.kawn.hirfa.geo.repository.ProviderLocationRepository;
+import com.kawn.hirfa.geo.repository.ProviderSummary;
+import com.kawn.hirfa.geo.support.GeoCell;
+import com.kawn.hirfa.geo.support.GeoMath;
+import com.kawn.hirfa.geo.support.NearbyCursor;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Database side of nearby-provider search. On PostgreSQL the PostGIS query does the work;
+ * elsewhere a geocell range scan over a plain index finds candidates that are then filtered
+ * by exact distance. {@code geo.db-search} forces either strategy.
+ */
+@Slf4j
+@Component
+public class NearbyProviderQueries {
+
+    enum Strategy {
+        POSTGIS,
+        GEOCELL
+    }
+
+    private static final Comparator<ProviderSpatialIndex.Hit> BY_DISTANCE =
+            Comparator.comparingDouble(ProviderSpatialIndex.Hit::distanceMeters)
+                    .thenComparingLong(ProviderSpatialIndex.Hit::providerId);
+
+    private final ProviderLocationRepository repository;
+    private final GeoCellSearch geoCellSearch;
+    private final Strategy strategy;
+
+    public NearbyProviderQueries(
+            ProviderLocationRepository repository,
+            GeoCellSearch geoCellSearch,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${geo.db-search:auto}") String configured) {
+        this.repository = repository;
+        this.geoCellSearch = geoCellSearch;
+        this.strategy = "auto".equalsIgnoreCase(configured)
+                ? detect(entityManagerFactory)
+                : Strategy.valueOf(configured.toUpperCase(Locale.ROOT));
+        log.info("Nearby database search uses the {} strategy", strategy);
+    }
+
+    Strategy strategy() {
+        return strategy;
+    }
+
+    /**
+     * Up to {@code limit} providers within the radius after the cursor, nearest first.
+     */
+    public List<NearbyProviderResponse> search(double lat, double lon, double radiusInMeters,
+            NearbyCursor after, int limit) {
+        if (strategy == Strategy.POSTGIS) {
+            return repository.findNearby(lat, lon, radiusInMeters, after.distanceMeters(), after.providerId(), limit)
+                    .stream()
+                    .map(row -> new NearbyProviderResponse(row.getProviderId(), row.getName(),
+                            row.getDistanceMeters(), row.getRating(), row.getLat(), row.getLon()))
+                    .toList();
+        }
+
+        List<ProviderSpatialIndex.Hit> hits = new ArrayList<>();
+        for (GeoCellSearch.CellRow row : geoCellSearch.findProviderCells(GeoCell.coveringRanges(lat, lon, radiusInMeters))) {
+            double rowLat = GeoCell.decodeLat(row.geocell());
+            double rowLon = GeoCell.decodeLon(row.geocell());
+            double distance = GeoMath.haversineMeters(lat, lon, rowLat, rowLon);
+            if (distance <= radiusInMeters && isAfter(distance, row.id(), after)) {
+                hits.add(new ProviderSpatialIndex.Hit(row.id(), rowLat, rowLon, distance));
+            }
+        }
+        hits.sort(BY_DISTANCE);
+        return describe(hits.subList(0, Math.min(limit, hits.size())));
+    }
+
+    /**
+     * Adds names and ratings to positions, in one query. Providers deleted since they were
+     * indexed are skipped.
+     */
+    public List<NearbyProviderResponse> describe(List<ProviderSpatialIndex.Hit> hits) {
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProviderSummary> summaries = new HashMap<>(hits.size() * 2);
+        repository.findSummaries(hits.stream().map(ProviderSpatialIndex.Hit::providerId).toList())
+                .forEach(summary -> summaries.put(summary.getProviderId(), summary));
+        List<NearbyProviderResponse> rows = new ArrayList<>(hits.size());
+        for (ProviderSpatialIndex.Hit hit : hits) {
+            ProviderSummary summary = summaries.get(hit.providerId());
+            if (summary != null) {
+                rows.add(new NearbyProviderResponse(hit.providerId(), summary.getName(),
+                        hit.distanceMeters(), summary.getRating(), hit.lat(), hit.lon()));
+            }
+        }
+        return rows;
+    }
+
+    private static boolean isAfter(double distance, long id, NearbyCursor after) {
+        int byDistance = Double.compare(distance, after.distanceMeters());
+        return byDistance > 0 || (byDistance == 0 && id > after.providerId());
+    }
+
+    private static Strategy detect(EntityManagerFactory entityManagerFactory) {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        return dialect instanceof PostgreSQLDialect ? Strategy.POSTGIS : Strategy.GEOCELL;
+    }
+}
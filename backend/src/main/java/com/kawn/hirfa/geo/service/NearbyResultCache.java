@@ -0,0 +1,217 @@
+package com.kawn.hirfa.geo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.kawn.hirfa.common.api.CursorPage;
+import com.kawn.hirfa.geo.dto.NearbyProviderResponse;
+import com.kawn.hirfa.geo.index.ProviderSpatialIndex;
+import com.kawn.hirfa.geo.support.GeoMath;
+import com.kawn.hirfa.geo.support.TileGrid;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Short-lived cache of nearby-provider pages shared by callers in the same neighbourhood.
+ * <p>
+ * Queries are quantized: the point snaps to the center of a small tile and the radius rounds
+ * up to a bucket, so nearby callers share one entry. Concurrent misses on an entry run a
+ * single load. Each caller gets the cached rows with distances recomputed from its own point,
+ * re-sorted, and without rows beyond the radius it asked for. Entries are loaded from the tile
+ * center over the bucket radius plus half the tile diagonal, so they hold everything within
+ * the radius of any point in the tile. Which providers land on which page is decided from the
+ * tile center, so page boundaries are off by at most half a tile diagonal; cursors of cached
+ * pages are relative to the tile center as well.
+ * <p>
+ * When a provider crosses a tile boundary, only entries whose query disk overlaps the tile
+ * it left or entered are invalidated. Moves within a tile, and the rare invalidation that
+ * races a reload, are bounded by the TTL.
+ */
+@Component
+public class NearbyResultCache {
+
+    public static final String CACHE_NAME = "geo.nearby";
+
+    @FunctionalInterface
+    public interface Loader {
+        CursorPage<NearbyProviderResponse> load(double lat, double lon, double radiusMeters);
+    }
+
+    record Key(long tile, int radiusMeters, int limit, String cursor) {
+    }
+
+    private record Entry(CursorPage<NearbyProviderResponse> page, long loadedAtNanos) {
+    }
+
+    private final boolean enabled;
+    private final TileGrid tiles;
+    private final int radiusBucketMeters;
+    private final Cache<Key, Entry> cache;
+    private final Map<Long, Set<Key>> keysByTile = new ConcurrentHashMap<>();
+    private final AtomicInteger largestRadius = new AtomicInteger();
+    private final Timer staleness;
+    private final Counter invalidations;
+
+    public NearbyResultCache(
+            MeterRegistry meterRegistry,
+            @Value("${geo.nearby-cache.enabled:true}") boolean enabled,
+            @Value("${geo.nearby-cache.tile-degrees:0.001}") double tileDegrees,
+            @Value("${geo.nearby-cache.radius-bucket-meters:500}") int radiusBucketMeters,
+            @Value("${geo.nearby-cache.ttl:PT10S}") Duration ttl,
+            @Value("${geo.nearby-cache.max-size:10000}") long maxSize) {
+        this.enabled = enabled;
+        this.tiles = new TileGrid(tileDegrees);
+        this.radiusBucketMeters = radiusBucketMeters;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .removalListener((Key key, Entry entry, RemovalCause cause) -> untrack(key))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.staleness = Timer.builder("geo.nearby.cache.staleness")
+                .description("Age of cached nearby pages when served")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.invalidations = meterRegistry.counter("geo.nearby.cache.invalidations");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CursorPage<NearbyProviderResponse> get(double lat, double lon, double radiusMeters, int limit,
+            String cursor, Loader loader) {
+        int bucketRadius = (int) Math.max(radiusBucketMeters,
+                Math.ceil(radiusMeters / radiusBucketMeters) * radiusBucketMeters);
+        Key key = new Key(tiles.tileOf(lat, lon), bucketRadius, limit, cursor);
+        boolean[] loaded = new boolean[1];
+        Entry entry = cache.get(key, k -> {
+            loaded[0] = true;
+            track(k);
+            return new Entry(loader.load(tiles.centerLat(k.tile()), tiles.centerLon(k.tile()),
+                    k.radiusMeters() + tiles.halfDiagonalMeters(k.tile())), System.nanoTime());
+        });
+        if (!loaded[0]) {
+            staleness.record(System.nanoTime() - entry.loadedAtNanos(), TimeUnit.NANOSECONDS);
+        }
+        return relativeTo(entry.page(), lat, lon, radiusMeters);
+    }
+
+    /**
+     * Invalidates the entries a provider move can affect. {@code previous} is null for a
+     * provider that had no position yet.
+     */
+    public void providerMoved(ProviderSpatialIndex.Hit previous, double lat, double lon) {
+        if (!enabled) {
+            return;
+        }
+        long to = tiles.tileOf(lat, lon);
+        if (previous == null) {
+            invalidateAround(to);
+            return;
+        }
+        long from = tiles.tileOf(previous.lat(), previous.lon());
+        if (from != to) {
+            invalidateAround(from);
+            invalidateAround(to);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private void invalidateAround(long changedTile) {
+        if (keysByTile.isEmpty()) {
+            return;
+        }
+        double changedLat = tiles.centerLat(changedTile);
+        double changedLon = tiles.centerLon(changedTile);
+        double slack = tiles.halfDiagonalMeters(changedTile);
+        // Entries reach half a diagonal past their radius, plus half of the changed tile
+        double reach = largestRadius.get() + 2 * slack;
+        int rows = (int) Math.ceil(GeoMath.metersToLatDegrees(reach) / tiles.tileDegrees());
+        int columns = (int) Math.ceil(GeoMath.metersToLonDegrees(reach, Math.min(89.0, Math.abs(changedLat)
+                + GeoMath.metersToLatDegrees(reach))) / tiles.tileDegrees());
+
+        // Walk whichever is smaller: the tiles in reach, or the tiles that hold entries
+        List<Long> candidates = new ArrayList<>();
+        if ((2L * rows + 1) * (2L * columns + 1) < keysByTile.size()) {
+            int row = TileGrid.rowOf(changedTile);
+            int column = TileGrid.columnOf(changedTile);
+            for (int i = row - rows; i <= row + rows; i++) {
+                for (int j = column - columns; j <= column + columns; j++) {
+                    long tile = TileGrid.key(i, j);
+                    if (keysByTile.containsKey(tile)) {
+                        candidates.add(tile);
+                    }
+                }
+            }
+        } else {
+            candidates.addAll(keysByTile.keySet());
+        }
+
+        for (long tile : candidates) {
+            Set<Key> keys = keysByTile.get(tile);
+            if (keys == null) {
+                continue;
+            }
+            double distance = GeoMath.haversineMeters(tiles.centerLat(tile), tiles.centerLon(tile), changedLat, changedLon);
+            for (Key key : keys) {
+                if (distance <= key.radiusMeters() + tiles.halfDiagonalMeters(tile) + slack) {
+                    cache.invalidate(key);
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    private void track(Key key) {
+        largestRadius.accumulateAndGet(key.radiusMeters(), Math::max);
+        keysByTile.computeIfAbsent(key.tile(), tile -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+
+    private void untrack(Key key) {
+        keysByTile.computeIfPresent(key.tile(), (tile, keys) -> {
+            if (!cache.asMap().containsKey(key)) { // Reloaded meanwhile: keep tracking it
+                keys.remove(key);
+            }
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private static CursorPage<NearbyProviderResponse> relativeTo(CursorPage<NearbyProviderResponse> page,
+            double lat, double lon, double radiusMeters) {
+        List<NearbyProviderResponse> items = new ArrayList<>(page.items().size());
+        for (NearbyProviderResponse row : page.items()) {
+            double distance = GeoMath.haversineMeters(lat, lon, row.latitude(), row.longitude());
+            if (distance <= radiusMeters) {
+                items.add(new NearbyProviderResponse(row.providerId(), row.name(), distance, row.rating(),
+                        row.latitude(), row.longitude()));
+            }
+        }
+        items.sort(Comparator.comparingDouble(NearbyProviderResponse::distanceMeters)
+                .thenComparing(NearbyProviderResponse::providerId));
+        return new CursorPage<>(items, page.nextCursor());
+    }
+}
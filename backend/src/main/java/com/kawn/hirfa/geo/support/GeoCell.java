@@ -0,0 +1,105 @@
+package com.kawn.hirfa.geo.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Z-order (Morton) geocell keys. Latitude and longitude are each quantized to 31 bits
+ * (under 2 cm) and their bits interleaved into one non-negative long. Points that are close
+ * share long key prefixes, so a plain B-tree index on the key answers "near this point" as a
+ * handful of range scans, and the position can be decoded back from the key.
+ */
+public final class GeoCell {
+
+    public static final int BITS_PER_AXIS = 31;
+
+    private static final long AXIS_CELLS = 1L << BITS_PER_AXIS;
+    private static final int DEFAULT_MAX_CELLS = 16;
+
+    private GeoCell() {
+    }
+
+    public static long encode(double lat, double lon) {
+        return spread(quantize(lat, -90.0, 180.0)) << 1 | spread(quantize(lon, -180.0, 360.0));
+    }
+
+    public static double decodeLat(long cell) {
+        return (compact(cell >>> 1) + 0.5) * 180.0 / AXIS_CELLS - 90.0;
+    }
+
+    public static double decodeLon(long cell) {
+        return (compact(cell) + 0.5) * 360.0 / AXIS_CELLS - 180.0;
+    }
+
+    /**
+     * Key ranges, as {from, to} pairs sorted and merged, whose union covers every point within
+     * {@code radiusMeters} of the point. Coverage is coarse on purpose: at most 16 cells, so the
+     * scan may return extra rows that an exact distance check has to drop.
+     */
+    public static List<long[]> coveringRanges(double lat, double lon, double radiusMeters) {
+        return coveringRanges(lat, lon, radiusMeters, DEFAULT_MAX_CELLS);
+    }
+
+    static List<long[]> coveringRanges(double lat, double lon, double radiusMeters, int maxCells) {
+        double dLat = GeoMath.metersToLatDegrees(radiusMeters);
+        double dLon = GeoMath.metersToLonDegrees(radiusMeters, Math.min(89.0, Math.abs(lat) + dLat));
+        long minLat = quantize(lat - dLat, -90.0, 180.0);
+        long maxLat = quantize(lat + dLat, -90.0, 180.0);
+        long minLon = quantize(lon - dLon, -180.0, 360.0);
+        long maxLon = quantize(lon + dLon, -180.0, 360.0);
+
+        // Finest level at which the box still spans at most maxCells cells
+        int shift = 0;
+        while (shift < BITS_PER_AXIS
+                && ((maxLat >> shift) - (minLat >> shift) + 1) * ((maxLon >> shift) - (minLon >> shift) + 1) > maxCells) {
+            shift++;
+        }
+
+        List<long[]> ranges = new ArrayList<>();
+        for (long row = minLat >> shift; row <= maxLat >> shift; row++) {
+            for (long column = minLon >> shift; column <= maxLon >> shift; column++) {
+                long from = (spread(row) << 1 | spread(column)) << (2 * shift);
+                ranges.add(new long[]{from, from + (1L << (2 * shift)) - 1});
+            }
+        }
+        ranges.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        List<long[]> merged = new ArrayList<>(ranges.size());
+        for (long[] range : ranges) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && range[0] == last[1] + 1) {
+                last[1] = range[1];
+            } else {
+                merged.add(Arrays.copyOf(range, 2));
+            }
+        }
+        return merged;
+    }
+
+    private static long quantize(double value, double min, double span) {
+        long q = (long) Math.floor((value - min) / span * AXIS_CELLS);
+        return Math.max(0, Math.min(AXIS_CELLS - 1, q));
+    }
+
+    // Spreads the low 32 bits of x over the even bit positions of a long
+    private static long spread(long x) {
+        x &= 0xffffffffL;
+        x = (x | (x << 16)) & 0x0000ffff0000ffffL;
+        x = (x | (x << 8)) & 0x00ff00ff00ff00ffL;
+        x = (x | (x << 4)) & 0x0f0f0f0f0f0f0f0fL;
+        x = (x | (x << 2)) & 0x3333333333333333L;
+        x = (x | (x << 1)) & 0x5555555555555555L;
+        return x;
+    }
+
+    private static long compact(long x) {
+        x &= 0x5555555555555555L;
+        x = (x | (x >>> 1)) & 0x3333333333333333L;
+        x = (x | (x >>> 2)) & 0x0f0f0f0f0f0f0f0fL;
+        x = (x | (x >>> 4)) & 0x00ff00ff00ff00ffL;
+        x = (x | (x >>> 8)) & 0x0000ffff0000ffffL;
+        x = (x | (x >>> 16)) & 0x00000000ffffffffL;
+        return x;
+    }
+}
@@ -0,0 +1,35 @@
+package com.kawn.hirfa.geo.support;
+
+/**
+ * Spherical-earth helpers shared by the in-memory geo paths.
+ */
+public final class GeoMath {
+
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+    public static final double METERS_PER_DEGREE_LAT = Math.PI * EARTH_RADIUS_METERS / 180.0;
+
+    private GeoMath() {
+    }
+
+    public static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+        double a = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    public static double metersToLatDegrees(double meters) {
+        return meters / METERS_PER_DEGREE_LAT;
+    }
+
+    /**
+     * Longitude span of {@code meters} at the given latitude, clamped near the poles.
+     */
+    public static double metersToLonDegrees(double meters, double atLat) {
+        double cos = Math.max(0.01, Math.cos(Math.toRadians(atLat)));
+        return Math.min(360.0, meters / (METERS_PER_DEGREE_LAT * cos));
+    }
+}
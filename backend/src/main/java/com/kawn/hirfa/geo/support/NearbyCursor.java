@@ -0,0 +1,35 @@
+package com.kawn.hirfa.geo.support;
+
+import com.kawn.hirfa.common.exception.InvalidOperationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in a nearby listing ordered by (distance, provider id). The distance is
+ * encoded bit-exact so the next page resumes precisely after the last row.
+ */
+public record NearbyCursor(double distanceMeters, long providerId) {
+
+    public static final NearbyCursor START = new NearbyCursor(-1, Long.MIN_VALUE);
+
+    public String encode() {
+        String raw = Long.toHexString(Double.doubleToLongBits(distanceMeters)) + ":" + providerId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static NearbyCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = raw.indexOf(':');
+            return new NearbyCursor(
+                    Double.longBitsToDouble(Long.parseUnsignedLong(raw.substring(0, separator), 16)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidOperationException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.kawn.hirfa.geo.support;
+
+/**
+ * Square lat/lon tiles of a fixed size in degrees. A tile is identified by a long packing its
+ * row and column, which makes it cheap to use as a map key.
+ */
+public final class TileGrid {
+
+    private final double tileDegrees;
+
+    public TileGrid(double tileDegrees) {
+        if (tileDegrees <= 0 || tileDegrees > 10) {
+            throw new IllegalArgumentException("tileDegrees must be in (0, 10]");
+        }
+        this.tileDegrees = tileDegrees;
+    }
+
+    public double tileDegrees() {
+        return tileDegrees;
+    }
+
+    public long tileOf(double lat, double lon) {
+        return key(row(lat), column(lon));
+    }
+
+    public int row(double lat) {
+        return (int) Math.floor((lat + 90.0) / tileDegrees);
+    }
+
+    public int column(double lon) {
+        return (int) Math.floor((lon + 180.0) / tileDegrees);
+    }
+
+    public static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    public static int rowOf(long tile) {
+        return (int) (tile >> 32);
+    }
+
+    public static int columnOf(long tile) {
+        return (int) tile;
+    }
+
+    /**
+     * External form of a tile, "{row}_{column}", as used in topic names.
+     */
+    public static String id(long tile) {
+        return rowOf(tile) + "_" + columnOf(tile);
+    }
+
+    /**
+     * Parses {@link #id(long)}; throws IllegalArgumentException on anything else.
+     */
+    public static long parseId(String id) {
+        int separator = id.indexOf('_');
+        if (separator < 1) {
+            throw new IllegalArgumentException("Not a tile id: " + id);
+        }
+        return key(Integer.parseInt(id.substring(0, separator)), Integer.parseInt(id.substring(separator + 1)));
+    }
+
+    public double centerLat(long tile) {
+        return (rowOf(tile) + 0.5) * tileDegrees - 90.0;
+    }
+
+    public double centerLon(long tile) {
+        return (columnOf(tile) + 0.5) * tileDegrees - 180.0;
+    }
+
+    /**
+     * Upper bound of the distance from a tile's center to any point in it.
+     */
+    public double halfDiagonalMeters(long tile) {
+        double halfHeight = tileDegrees / 2 * GeoMath.METERS_PER_DEGREE_LAT;
+        double nearEquatorLat = Math.max(0, Math.abs(centerLat(tile)) - tileDegrees / 2);
+        double halfWidth = halfHeight * Math.cos(Math.toRadians(nearEquatorLat));
+        return Math.sqrt(halfHeight * halfHeight + halfWidth * halfWidth);
+    }
+}
@@ -1,19 +1,21 @@
 package com.kawn.hirfa.match.controller;
 
+import com.kawn.hirfa.auth.config.CurrentUser;
 import com.kawn.hirfa.auth.domain.User;
 import com.kawn.hirfa.common.api.ApiResponse;
-import com.kawn.hirfa.match.domain.Bid;
+import com.kawn.hirfa.common.api.CursorPage;
 import com.kawn.hirfa.match.domain.Job;
+import com.kawn.hirfa.match.dto.BidResponse;
 import com.kawn.hirfa.match.dto.CreateJobRequest;
+import com.kawn.hirfa.match.dto.CustomerJobResponse;
+import com.kawn.hirfa.match.dto.JobFeedItem;
 import com.kawn.hirfa.match.dto.PlaceBidRequest;
+import com.kawn.hirfa.match.dto.PlacedBidResponse;
 import com.kawn.hirfa.match.service.MatchService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/v1/jobs")
 @RequiredArgsConstructor
@@ -23,7 +25,7 @@ public class MatchController {
 
     @PostMapping
     public ApiResponse<Job> createJob(
-            @AuthenticationPrincipal User user,
+            @CurrentUser User user,
             @Valid @RequestBody CreateJobRequest request) {
         Job job = matchService.createJob(
                 user,
@@ -31,22 +33,55 @@ public class MatchController {
                 request.description(),
                 request.budget(),
                 request.latitude(),
-                request.longitude());
+                request.longitude(),
+                request.category());
         return ApiResponse.success(job, "Job created successfully");
     }
 
+    @GetMapping("/mine")
+    public ApiResponse<CursorPage<CustomerJobResponse>> getMyJobs(
+            @CurrentUser User user,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor) {
+        CursorPage<CustomerJobResponse> jobs = matchService.getCustomerJobs(user, limit, cursor);
+        return ApiResponse.success(jobs, "Your jobs retrieved");
+    }
+
+    @GetMapping("/feed")
+    public ApiResponse<CursorPage<JobFeedItem>> getOpenJobsNear(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "10000") double radius,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor) {
+        CursorPage<JobFeedItem> jobs = matchService.findOpenJobsNear(lat, lon, radius, category, limit, cursor);
+        return ApiResponse.success(jobs, "Open jobs retrieved");
+    }
+
     @PostMapping("/{jobId}/bids")
-    public ApiResponse<Bid> placeBid(
-            @AuthenticationPrincipal User user,
+    public ApiResponse<PlacedBidResponse> placeBid(
+            @CurrentUser User user,
             @PathVariable Long jobId,
             @Valid @RequestBody PlaceBidRequest request) {
-        Bid bid = matchService.placeBid(user, jobId, request.amount(), request.message());
+        PlacedBidResponse bid = matchService.placeBid(user, jobId, request.amount(), request.message());
         return ApiResponse.success(bid, "Bid placed successfully");
     }
 
+    @PostMapping("/bids/{bidId}/accept")
+    public ApiResponse<Void> acceptBid(
+            @CurrentUser User user,
+            @PathVariable Long bidId) {
+        matchService.acceptBid(bidId, user);
+        return ApiResponse.success(null, "Bid accepted, job is now in progress");
+    }
+
     @GetMapping("/{jobId}/bids")
-    public ApiResponse<List<Bid>> getBids(@PathVariable Long jobId) {
-        List<Bid> bids = matchService.getJobBidsSortedByFairness(jobId);
+    public ApiResponse<CursorPage<BidResponse>> getBids(
+            @PathVariable Long jobId,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor) {
+        CursorPage<BidResponse> bids = matchService.getJobBidsSortedByFairness(jobId, limit, cursor);
         return ApiResponse.success(bids, "Bids retrieved (Fair-Play sorted)");
     }
 }
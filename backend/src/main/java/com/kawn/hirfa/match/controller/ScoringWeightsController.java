@@ -0,0 +1,31 @@
+package com.kawn.hirfa.match.controller;
+
+import com.kawn.hirfa.common.api.ApiResponse;
+import com.kawn.hirfa.match.dto.ScoringWeightsRequest;
+import com.kawn.hirfa.match.scoring.BidScoringEngine;
+import com.kawn.hirfa.match.scoring.ScoringWeights;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/scoring/weights")
+@RequiredArgsConstructor
+public class ScoringWeightsController {
+
+    private final BidScoringEngine scoringEngine;
+
+    @GetMapping
+    public ApiResponse<ScoringWeights> getWeights() {
+        return ApiResponse.success(scoringEngine.weights(), "Fair-Play scoring weights");
+    }
+
+    // Applies to this node until restart; set match.scoring.weights.* to make it permanent
+    @PutMapping
+    public ApiResponse<ScoringWeights> updateWeights(@Valid @RequestBody ScoringWeightsRequest request) {
+        ScoringWeights weights = new ScoringWeights(request.fairness(), request.newness(), request.price(),
+                request.distance(), request.rating());
+        scoringEngine.updateWeights(weights);
+        return ApiResponse.success(weights, "Fair-Play scoring weights updated");
+    }
+}
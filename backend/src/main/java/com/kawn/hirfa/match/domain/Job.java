@@ -1,11 +1,13 @@
 package com.kawn.hirfa.match.domain;
 
 import com.kawn.hirfa.auth.domain.User;
+import com.kawn.hirfa.geo.support.GeoCell;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -17,10 +19,18 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "jobs")
+@Table(name = "jobs", indexes = {
+        @Index(name = "idx_jobs_geocell", columnList = "geocell"),
+        // Open-jobs feed: newest first, with or without a category
+        @Index(name = "idx_jobs_status_category_created", columnList = "status, category, createdAt, id"),
+        @Index(name = "idx_jobs_status_created", columnList = "status, createdAt, id"),
+        // A customer's own jobs, newest first
+        @Index(name = "idx_jobs_customer_created", columnList = "customer_id, createdAt, id")
+})
 public class Job {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "jobs_seq")
+    @SequenceGenerator(name = "jobs_seq", sequenceName = "jobs_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -43,9 +53,23 @@ public class Job {
     private double latitude;
     private double longitude;
 
+    // Morton key of (latitude, longitude), kept in sync on every write
+    private Long geocell;
+
+    // Bumped by every write, including the conditional state transitions in the repositories
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
     @UpdateTimestamp
     private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void updateGeocell() {
+        geocell = GeoCell.encode(latitude, longitude);
+    }
 }
@@ -0,0 +1,43 @@
+package com.kawn.hirfa.match.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Bid aggregates of one job, created with the job and updated in place by the transactions that
+ * place and accept its bids, so listings never have to scan bids.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "job_bid_stats")
+public class JobBidStats {
+    @Id
+    private Long jobId;
+
+    @ColumnDefault("0")
+    private long bidCount;
+
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+
+    // Sum of all bid amounts; the average is derived from it and bidCount
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    private LocalDateTime lastBidAt;
+
+    private Long acceptedBidId;
+    private BigDecimal acceptedAmount;
+}
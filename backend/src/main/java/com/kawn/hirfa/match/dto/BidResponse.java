@@ -0,0 +1,15 @@
+package com.kawn.hirfa.match.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record BidResponse(
+        Long bidId,
+        Long providerId,
+        String providerName,
+        BigDecimal amount,
+        String message,
+        boolean accepted,
+        LocalDateTime createdAt,
+        double fairPlayScore) {
+}
@@ -12,5 +12,7 @@ public record CreateJobRequest(
 
         @NotNull(message = "Latitude is required") @DecimalMin(value = "-90.0") @DecimalMax(value = "90.0") Double latitude,
 
-        @NotNull(message = "Longitude is required") @DecimalMin(value = "-180.0") @DecimalMax(value = "180.0") Double longitude) {
+        @NotNull(message = "Longitude is required") @DecimalMin(value = "-180.0") @DecimalMax(value = "180.0") Double longitude,
+
+        @Size(max = 50, message = "Category must be less than 50 characters") String category) {
 }
@@ -0,0 +1,21 @@
+package com.kawn.hirfa.match.dto;
+
+import com.kawn.hirfa.match.domain.JobStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record CustomerJobResponse(
+        Long jobId,
+        String title,
+        String category,
+        JobStatus status,
+        BigDecimal budget,
+        LocalDateTime createdAt,
+        long bidCount,
+        BigDecimal minBid,
+        BigDecimal maxBid,
+        BigDecimal averageBid,
+        LocalDateTime lastBidAt,
+        Long acceptedBidId) {
+}
@@ -0,0 +1,15 @@
+package com.kawn.hirfa.match.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record JobFeedItem(
+        Long jobId,
+        String title,
+        String category,
+        BigDecimal budget,
+        double latitude,
+        double longitude,
+        double distanceMeters,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,12 @@
+package com.kawn.hirfa.match.dto;
+
+import java.math.BigDecimal;
+
+public record JobNotification(
+        Long jobId,
+        String title,
+        String category,
+        BigDecimal budget,
+        double latitude,
+        double longitude) {
+}
@@ -0,0 +1,12 @@
+package com.kawn.hirfa.match.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record PlacedBidResponse(
+        Long bidId,
+        Long jobId,
+        BigDecimal amount,
+        String message,
+        LocalDateTime createdAt) {
+}
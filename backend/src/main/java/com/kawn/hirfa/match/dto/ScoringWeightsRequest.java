@@ -0,0 +1,11 @@
+package com.kawn.hirfa.match.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public record ScoringWeightsRequest(
+        @NotNull(message = "Fairness weight is required") Double fairness,
+        @NotNull(message = "Newness weight is required") Double newness,
+        @NotNull(message = "Price weight is required") Double price,
+        @NotNull(message = "Distance weight is required") Double distance,
+        @NotNull(message = "Rating weight is required") Double rating) {
+}
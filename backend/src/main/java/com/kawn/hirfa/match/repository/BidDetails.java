@@ -0,0 +1,23 @@
+package com.kawn.hirfa.match.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Bid row as shown in a job's bid listing, with the provider columns it needs.
+ */
+public interface BidDetails {
+    Long getBidId();
+
+    Long getProviderId();
+
+    String getProviderName();
+
+    BigDecimal getAmount();
+
+    String getMessage();
+
+    boolean isAccepted();
+
+    LocalDateTime getCreatedAt();
+}
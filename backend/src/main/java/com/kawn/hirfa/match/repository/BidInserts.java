@@ -0,0 +1,52 @@
+package com.kawn.hirfa.match.repository;
+
+import com.kawn.hirfa.match.domain.Bid;
+import com.kawn.hirfa.match.domain.JobStatus;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Inserts a bid only while its job is open, in one statement. The id comes from the same
+ * pooled sequence Hibernate uses for {@link Bid}, so most inserts need no other round trip.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BidInserts {
+
+    private static final String INSERT_IF_OPEN_SQL = """
+            INSERT INTO bids (id, job_id, provider_id, amount, message, accepted, version, created_at)
+            SELECT :id, j.id, :providerId, :amount, :message, FALSE, 0, :now
+            FROM jobs j WHERE j.id = :jobId AND j.status = :status""";
+
+    private final EntityManager entityManager;
+
+    /**
+     * Returns the new bid's id, or null when the job is missing or not open.
+     */
+    public Long insertIfJobOpen(Long jobId, Long providerId, BigDecimal amount, String message, LocalDateTime now) {
+        Long id = nextId();
+        int inserted = entityManager.createNativeQuery(INSERT_IF_OPEN_SQL)
+                .setParameter("id", id)
+                .setParameter("providerId", providerId)
+                .setParameter("amount", amount)
+                .setParameter("message", message)
+                .setParameter("now", now)
+                .setParameter("jobId", jobId)
+                .setParameter("status", JobStatus.OPEN.name())
+                .executeUpdate();
+        return inserted == 1 ? id : null;
+    }
+
+    private Long nextId() {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Bid.class).getGenerator();
+        return (Long) generator.generate(session, null);
+    }
+}
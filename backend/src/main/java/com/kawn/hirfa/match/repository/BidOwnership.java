@@ -0,0 +1,11 @@
+package com.kawn.hirfa.match.repository;
+
+import java.math.BigDecimal;
+
+public interface BidOwnership {
+    Long getJobId();
+
+    Long getCustomerId();
+
+    BigDecimal getAmount();
+}
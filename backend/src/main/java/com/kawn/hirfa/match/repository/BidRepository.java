@@ -1,9 +1,73 @@
 package com.kawn.hirfa.match.repository;
 
 import com.kawn.hirfa.match.domain.Bid;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BidRepository extends JpaRepository<Bid, Long> {
-    List<Bid> findByJobId(Long jobId);
+
+    // Fair-Play score from provider factors only: weighted fairness score, plus the newness weight
+    // for providers who joined after :boostSince
+    String FAIR_PLAY_SCORE = "(CAST(:fairnessWeight AS Double) * COALESCE(p.fairnessScore, 0) "
+            + "+ CASE WHEN p.createdAt > :boostSince THEN CAST(:newnessWeight AS Double) ELSE 0.0 END)";
+
+    @Query("SELECT b.job.id AS jobId, b.job.customer.id AS customerId, b.amount AS amount FROM Bid b WHERE b.id = :bidId")
+    Optional<BidOwnership> findOwnership(@Param("bidId") Long bidId);
+
+    @Modifying
+    @Query("UPDATE VERSIONED Bid b SET b.accepted = true WHERE b.id = :bidId")
+    int markAccepted(@Param("bidId") Long bidId);
+
+    /**
+     * One page of a job's bids ranked by Fair-Play score, highest first, then oldest bid first,
+     * starting after the keyset position (afterScore, afterId).
+     */
+    @Query("SELECT b.id AS bidId, p.id AS providerId, p.fullName AS providerName, b.amount AS amount, "
+            + "b.message AS message, b.accepted AS accepted, b.createdAt AS createdAt, "
+            + FAIR_PLAY_SCORE + " AS score "
+            + "FROM Bid b JOIN b.provider p "
+            + "WHERE b.job.id = :jobId "
+            + "AND (" + FAIR_PLAY_SCORE + " < :afterScore "
+            + "OR (" + FAIR_PLAY_SCORE + " = :afterScore AND b.id > :afterId)) "
+            + "ORDER BY score DESC, b.id ASC")
+    List<RankedBid> findRankedPage(@Param("jobId") Long jobId,
+                                   @Param("fairnessWeight") double fairnessWeight,
+                                   @Param("newnessWeight") double newnessWeight,
+                                   @Param("boostSince") LocalDateTime boostSince,
+                                   @Param("afterScore") double afterScore,
+                                   @Param("afterId") long afterId,
+                                   Limit limit);
+
+    @Query("""
+            SELECT b.id AS bidId, p.id AS providerId, b.amount AS amount, p.fairnessScore AS fairnessScore,
+                   p.createdAt AS providerCreatedAt, pl.geocell AS geocell
+            FROM Bid b JOIN b.provider p LEFT JOIN ProviderLocation pl ON pl.userId = p.id
+            WHERE b.job.id = :jobId
+            """)
+    List<BidScoringRow> findScoringRows(@Param("jobId") Long jobId);
+
+    // Average review rating of every provider who bid on the job, from their rating aggregates
+    @Query("""
+            SELECT r.providerId AS providerId, CAST(r.ratingSum AS Double) / r.reviewCount AS rating
+            FROM ProviderRating r
+            WHERE r.reviewCount > 0
+              AND r.providerId IN (SELECT b.provider.id FROM Bid b WHERE b.job.id = :jobId)
+            """)
+    List<ProviderAverageRating> findBidderRatings(@Param("jobId") Long jobId);
+
+    @Query("""
+            SELECT b.id AS bidId, p.id AS providerId, p.fullName AS providerName, b.amount AS amount,
+                   b.message AS message, b.accepted AS accepted, b.createdAt AS createdAt
+            FROM Bid b JOIN b.provider p
+            WHERE b.id IN :ids
+            """)
+    List<BidDetails> findDetails(@Param("ids") Collection<Long> ids);
 }
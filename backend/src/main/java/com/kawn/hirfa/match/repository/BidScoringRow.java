@@ -0,0 +1,21 @@
+package com.kawn.hirfa.match.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Raw scoring inputs of one bid; {@code geocell} is null for providers without a position.
+ */
+public interface BidScoringRow {
+    Long getBidId();
+
+    Long getProviderId();
+
+    BigDecimal getAmount();
+
+    Integer getFairnessScore();
+
+    LocalDateTime getProviderCreatedAt();
+
+    Long getGeocell();
+}
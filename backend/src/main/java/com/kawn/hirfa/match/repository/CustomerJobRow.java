@@ -0,0 +1,32 @@
+package com.kawn.hirfa.match.repository;
+
+import com.kawn.hirfa.match.domain.JobStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public interface CustomerJobRow {
+    Long getJobId();
+
+    String getTitle();
+
+    String getCategory();
+
+    JobStatus getStatus();
+
+    BigDecimal getBudget();
+
+    LocalDateTime getCreatedAt();
+
+    Long getBidCount();
+
+    BigDecimal getMinAmount();
+
+    BigDecimal getMaxAmount();
+
+    BigDecimal getTotalAmount();
+
+    LocalDateTime getLastBidAt();
+
+    Long getAcceptedBidId();
+}
@@ -0,0 +1,42 @@
+package com.kawn.hirfa.match.repository;
+
+import com.kawn.hirfa.match.domain.JobBidStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public interface JobBidStatsRepository extends JpaRepository<JobBidStats, Long> {
+
+    /**
+     * Creates the job's empty aggregates unless they exist, for jobs created before aggregates
+     * were kept. Concurrent first bids wait for each other here instead of failing on the
+     * primary key.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO job_bid_stats (job_id, bid_count, total_amount)
+            VALUES (:jobId, 0, 0) ON CONFLICT DO NOTHING""", nativeQuery = true)
+    int createIfAbsent(@Param("jobId") Long jobId);
+
+    /**
+     * Folds one new bid into its job's aggregates. The update is relative to the stored row, so
+     * concurrent bids on the same job each count once.
+     */
+    @Modifying
+    @Query("""
+            UPDATE JobBidStats s SET s.bidCount = s.bidCount + 1,
+                s.totalAmount = s.totalAmount + :amount,
+                s.minAmount = LEAST(COALESCE(s.minAmount, :amount), :amount),
+                s.maxAmount = GREATEST(COALESCE(s.maxAmount, :amount), :amount),
+                s.lastBidAt = GREATEST(COALESCE(s.lastBidAt, :at), :at)
+            WHERE s.jobId = :jobId""")
+    int recordBid(@Param("jobId") Long jobId, @Param("amount") BigDecimal amount, @Param("at") LocalDateTime at);
+
+    @Modifying
+    @Query("UPDATE JobBidStats s SET s.acceptedBidId = :bidId, s.acceptedAmount = :amount WHERE s.jobId = :jobId")
+    int recordAccepted(@Param("jobId") Long jobId, @Param("bidId") Long bidId, @Param("amount") BigDecimal amount);
+}
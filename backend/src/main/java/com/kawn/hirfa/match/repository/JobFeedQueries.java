@@ -0,0 +1,60 @@
+package com.kawn.hirfa.match.repository;
+
+import com.kawn.hirfa.common.api.KeysetCursor;
+import com.kawn.hirfa.geo.repository.GeoCellSearch;
+import com.kawn.hirfa.match.domain.JobStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Open jobs inside a set of geocell ranges, newest first, one keyset batch at a time. The ranges
+ * cover more than the search disk; callers drop rows beyond their radius.
+ */
+@Repository
+@RequiredArgsConstructor
+public class JobFeedQueries {
+
+    public record JobRow(Long id, String title, String category, BigDecimal budget, double latitude,
+            double longitude, LocalDateTime createdAt) {
+    }
+
+    private final EntityManager entityManager;
+
+    public List<JobRow> findOpenJobs(List<long[]> ranges, String category, KeysetCursor after, int limit) {
+        if (ranges.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder jpql = new StringBuilder("""
+                SELECT j.id, j.title, j.category, j.budget, j.latitude, j.longitude, j.createdAt
+                FROM Job j WHERE j.status = :status AND\s""")
+                .append(GeoCellSearch.rangePredicate("j.geocell", ranges.size()));
+        if (category != null) {
+            jpql.append(" AND j.category = :category");
+        }
+        if (!after.isStart()) {
+            jpql.append(" AND (j.createdAt < :afterCreatedAt OR (j.createdAt = :afterCreatedAt AND j.id < :afterId))");
+        }
+        jpql.append(" ORDER BY j.createdAt DESC, j.id DESC");
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class)
+                .setParameter("status", JobStatus.OPEN)
+                .setMaxResults(limit);
+        GeoCellSearch.bindRanges(query, ranges);
+        if (category != null) {
+            query.setParameter("category", category);
+        }
+        if (!after.isStart()) {
+            query.setParameter("afterCreatedAt", after.timestamp()).setParameter("afterId", after.id());
+        }
+        return query.getResultList().stream()
+                .map(row -> new JobRow((Long) row[0], (String) row[1], (String) row[2], (BigDecimal) row[3],
+                        (Double) row[4], (Double) row[5], (LocalDateTime) row[6]))
+                .toList();
+    }
+}
@@ -1,9 +1,57 @@
 package com.kawn.hirfa.match.repository;
 
 import com.kawn.hirfa.match.domain.Job;
+import com.kawn.hirfa.match.domain.JobStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface JobRepository extends JpaRepository<Job, Long> {
-    List<Job> findByStatus(String status);
+    List<Job> findByStatus(JobStatus status);
+
+    String CUSTOMER_JOB_COLUMNS = """
+            SELECT j.id AS jobId, j.title AS title, j.category AS category, j.status AS status,
+                   j.budget AS budget, j.createdAt AS createdAt, s.bidCount AS bidCount,
+                   s.minAmount AS minAmount, s.maxAmount AS maxAmount, s.totalAmount AS totalAmount,
+                   s.lastBidAt AS lastBidAt, s.acceptedBidId AS acceptedBidId
+            FROM Job j LEFT JOIN JobBidStats s ON s.jobId = j.id
+            """;
+
+    /**
+     * The first page of a customer's jobs with their bid aggregates, newest first. Separate from
+     * {@link #findCustomerJobsBefore}: PostgreSQL cannot type a null keyset parameter.
+     */
+    @Query(CUSTOMER_JOB_COLUMNS + """
+            WHERE j.customer.id = :customerId
+            ORDER BY j.createdAt DESC, j.id DESC""")
+    List<CustomerJobRow> findCustomerJobsLatest(@Param("customerId") Long customerId, Limit limit);
+
+    /**
+     * A customer's jobs older than the keyset position (beforeCreatedAt, beforeId), newest first.
+     * The redundant {@code <=} bound lets the database start the index scan at the position.
+     */
+    @Query(CUSTOMER_JOB_COLUMNS + """
+            WHERE j.customer.id = :customerId AND j.createdAt <= :beforeCreatedAt
+              AND (j.createdAt < :beforeCreatedAt OR j.id < :beforeId)
+            ORDER BY j.createdAt DESC, j.id DESC""")
+    List<CustomerJobRow> findCustomerJobsBefore(@Param("customerId") Long customerId,
+                                                @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                                @Param("beforeId") long beforeId,
+                                                Limit limit);
+
+    /**
+     * Moves a job to {@code to} only if it is still in {@code from}, in one statement. Returns 0
+     * when the job is missing or another transaction moved it first.
+     */
+    @Modifying
+    @Query("UPDATE VERSIONED Job j SET j.status = :to, j.updatedAt = :now WHERE j.id = :jobId AND j.status = :from")
+    int transition(@Param("jobId") Long jobId,
+                   @Param("from") JobStatus from,
+                   @Param("to") JobStatus to,
+                   @Param("now") LocalDateTime now);
 }
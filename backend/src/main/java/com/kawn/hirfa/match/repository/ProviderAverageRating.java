@@ -0,0 +1,7 @@
+package com.kawn.hirfa.match.repository;
+
+public interface ProviderAverageRating {
+    Long getProviderId();
+
+    Double getRating();
+}
@@ -0,0 +1,8 @@
+package com.kawn.hirfa.match.repository;
+
+/**
+ * Bid row of a Fair-Play ranking computed by the database, with its score.
+ */
+public interface RankedBid extends BidDetails {
+    Double getScore();
+}
@@ -0,0 +1,67 @@
+package com.kawn.hirfa.match.scoring;
+
+import java.util.Arrays;
+
+/**
+ * Scoring factors of a job's bids, one primitive array per factor, so scoring is a single pass
+ * over contiguous memory. See {@link ScoringWeights} for what each factor holds.
+ */
+public final class BidFeatures {
+
+    private long[] bidIds;
+    private double[] fairness;
+    private double[] newness;
+    private double[] price;
+    private double[] proximity;
+    private double[] rating;
+    private int size;
+
+    public BidFeatures(int expectedSize) {
+        int capacity = Math.max(1, expectedSize);
+        bidIds = new long[capacity];
+        fairness = new double[capacity];
+        newness = new double[capacity];
+        price = new double[capacity];
+        proximity = new double[capacity];
+        rating = new double[capacity];
+    }
+
+    public void add(long bidId, double fairness, double newness, double price, double proximity, double rating) {
+        if (size == bidIds.length) {
+            grow();
+        }
+        this.bidIds[size] = bidId;
+        this.fairness[size] = fairness;
+        this.newness[size] = newness;
+        this.price[size] = price;
+        this.proximity[size] = proximity;
+        this.rating[size] = rating;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long bidId(int i) {
+        return bidIds[i];
+    }
+
+    double score(int i, ScoringWeights weights) {
+        return weights.fairness() * fairness[i]
+                + weights.newness() * newness[i]
+                + weights.price() * price[i]
+                + weights.distance() * proximity[i]
+                + weights.rating() * rating[i];
+    }
+
+    private void grow() {
+        int capacity = bidIds.length * 2;
+        bidIds = Arrays.copyOf(bidIds, capacity);
+        fairness = Arrays.copyOf(fairness, capacity);
+        newness = Arrays.copyOf(newness, capacity);
+        price = Arrays.copyOf(price, capacity);
+        proximity = Arrays.copyOf(proximity, capacity);
+        rating = Arrays.copyOf(rating, capacity);
+    }
+}
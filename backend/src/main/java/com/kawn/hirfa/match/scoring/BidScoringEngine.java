@@ -0,0 +1,139 @@
+package com.kawn.hirfa.match.scoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Weighted multi-factor Fair-Play scoring. A ranking scores every bid once and keeps the best
+ * {@code k} in a bounded min-heap, so a page costs O(n log k) instead of a full sort. Bids are
+ * ordered by score descending, then bid id, which is also the keyset order of the cursor.
+ * <p>
+ * Weights start from {@code match.scoring.weights.*} and can be replaced at runtime; a ranking
+ * uses the weights it read when it started.
+ */
+@Slf4j
+@Component
+public class BidScoringEngine {
+
+    public record Ranking(long[] bidIds, double[] scores) {
+        public int size() {
+            return bidIds.length;
+        }
+    }
+
+    private final AtomicReference<ScoringWeights> weights;
+    private final int newProviderDays;
+
+    public BidScoringEngine(
+            @Value("${match.scoring.new-provider-days:30}") int newProviderDays,
+            @Value("${match.scoring.weights.fairness:1.0}") double fairness,
+            @Value("${match.scoring.weights.newness:20.0}") double newness,
+            @Value("${match.scoring.weights.price:0.0}") double price,
+            @Value("${match.scoring.weights.distance:0.0}") double distance,
+            @Value("${match.scoring.weights.rating:0.0}") double rating) {
+        this.newProviderDays = newProviderDays;
+        this.weights = new AtomicReference<>(new ScoringWeights(fairness, newness, price, distance, rating));
+    }
+
+    public ScoringWeights weights() {
+        return weights.get();
+    }
+
+    /**
+     * Providers who joined after this instant count as new.
+     */
+    public LocalDateTime newProviderCutoff() {
+        return LocalDateTime.now().minusDays(newProviderDays);
+    }
+
+    public void updateWeights(ScoringWeights updated) {
+        ScoringWeights previous = weights.getAndSet(updated);
+        log.info("Fair-Play scoring weights changed from {} to {}", previous, updated);
+    }
+
+    /**
+     * The best {@code k} bids ranked strictly after (afterScore, afterId), best first.
+     */
+    public Ranking topK(BidFeatures features, ScoringWeights weights, int k, double afterScore, long afterId) {
+        // Min-heap on (score, -id): the root is the worst bid kept so far
+        int[] heap = new int[Math.max(1, Math.min(k, features.size()))];
+        double[] heapScores = new double[heap.length];
+        int heapSize = 0;
+
+        for (int i = 0; i < features.size(); i++) {
+            double score = features.score(i, weights);
+            long id = features.bidId(i);
+            if (!ranksBefore(afterScore, afterId, score, id)) {
+                continue;
+            }
+            if (heapSize < heap.length) {
+                heap[heapSize] = i;
+                heapScores[heapSize] = score;
+                siftUp(heap, heapScores, heapSize++, features);
+            } else if (ranksBefore(score, id, heapScores[0], features.bidId(heap[0]))) {
+                heap[0] = i;
+                heapScores[0] = score;
+                siftDown(heap, heapScores, heapSize, features);
+            }
+        }
+
+        // Drain worst-first into the tail so the result is best-first
+        long[] bidIds = new long[heapSize];
+        double[] scores = new double[heapSize];
+        for (int n = heapSize - 1; n >= 0; n--) {
+            bidIds[n] = features.bidId(heap[0]);
+            scores[n] = heapScores[0];
+            heap[0] = heap[n];
+            heapScores[0] = heapScores[n];
+            siftDown(heap, heapScores, n, features);
+        }
+        return new Ranking(bidIds, scores);
+    }
+
+    // Whether (score, id) comes before (otherScore, otherId) in the ranking
+    static boolean ranksBefore(double score, long id, double otherScore, long otherId) {
+        int byScore = Double.compare(score, otherScore);
+        return byScore > 0 || byScore == 0 && id < otherId;
+    }
+
+    private static void siftUp(int[] heap, double[] scores, int i, BidFeatures features) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!ranksBefore(scores[parent], features.bidId(heap[parent]), scores[i], features.bidId(heap[i]))) {
+                return;
+            }
+            swap(heap, scores, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, double[] scores, int size, BidFeatures features) {
+        int i = 0;
+        while (true) {
+            int worst = i;
+            for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                if (ranksBefore(scores[worst], features.bidId(heap[worst]), scores[child], features.bidId(heap[child]))) {
+                    worst = child;
+                }
+            }
+            if (worst == i) {
+                return;
+            }
+            swap(heap, scores, i, worst);
+            i = worst;
+        }
+    }
+
+    private static void swap(int[] heap, double[] scores, int i, int j) {
+        int index = heap[i];
+        heap[i] = heap[j];
+        heap[j] = index;
+        double score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+}
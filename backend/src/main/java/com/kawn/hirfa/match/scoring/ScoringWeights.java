@@ -0,0 +1,33 @@
+package com.kawn.hirfa.match.scoring;
+
+import com.kawn.hirfa.common.exception.InvalidOperationException;
+
+/**
+ * Weight of each Fair-Play factor. Every factor is "higher is better":
+ * <ul>
+ *   <li>fairness: the provider's fairness score, in points</li>
+ *   <li>newness: 1 for providers who joined recently, else 0</li>
+ *   <li>price: saving relative to the job budget, {@code (budget - amount) / budget}</li>
+ *   <li>distance: proximity to the job, {@code 1 / (1 + km)}, 0 when the provider has no position</li>
+ *   <li>rating: average review rating / 5, 0.5 for providers without reviews</li>
+ * </ul>
+ * The defaults (1, 20, 0, 0, 0) are the original ranking: fairness score plus a 20 point boost.
+ */
+public record ScoringWeights(double fairness, double newness, double price, double distance, double rating) {
+
+    public ScoringWeights {
+        for (double weight : new double[]{fairness, newness, price, distance, rating}) {
+            if (!Double.isFinite(weight)) {
+                throw new InvalidOperationException("Scoring weights must be finite numbers");
+            }
+        }
+    }
+
+    /**
+     * Whether the ranking needs more than the provider's fairness score and join date, which
+     * the database can score on its own.
+     */
+    public boolean usesBidFactors() {
+        return price != 0 || distance != 0 || rating != 0;
+    }
+}
@@ -0,0 +1,13 @@
+package com.kawn.hirfa.match.service;
+
+import java.math.BigDecimal;
+
+public record JobCreatedEvent(
+        Long jobId,
+        Long customerId,
+        String title,
+        String category,
+        BigDecimal budget,
+        double latitude,
+        double longitude) {
+}
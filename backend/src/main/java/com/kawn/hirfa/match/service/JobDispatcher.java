@@ -0,0 +1,165 @@
+package com.kawn.hirfa.match.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kawn.hirfa.auth.repository.ProviderContact;
+import com.kawn.hirfa.auth.repository.UserRepository;
+import com.kawn.hirfa.chat.cluster.ClusterFanout;
+import com.kawn.hirfa.common.ratelimit.TokenBucket;
+import com.kawn.hirfa.geo.service.GeoService;
+import com.kawn.hirfa.match.dto.JobNotification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes new jobs to nearby providers of the job's category, on their {@code /user/queue/jobs}
+ * destination.
+ * <p>
+ * Dispatch runs after the job's transaction commits, on a small pool with a bounded queue: when
+ * the queue is full the job is not pushed (providers still find it by browsing) rather than
+ * blocking the request that created it. Candidates are matched against the category one batch
+ * of ids per query. Each provider has a token bucket, so a burst of jobs in one area sends a
+ * provider a few notifications, not all of them. Providers without a connected session are
+ * skipped before they spend a token; when nodes are clustered a provider's session may be on
+ * another node, so every provider is sent the job and the relay delivers it wherever they are.
+ */
+@Slf4j
+@Component
+public class JobDispatcher {
+
+    public static final String DESTINATION = "/queue/jobs";
+
+    private final GeoService geoService;
+    private final UserRepository userRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry userRegistry;
+    private final ClusterFanout clusterFanout;
+    private final boolean enabled;
+    private final double radiusMeters;
+    private final int batchSize;
+    private final int providerCapacity;
+    private final double providerRate;
+    private final ThreadPoolExecutor executor;
+    private final Cache<Long, TokenBucket> providerBuckets;
+    private final Timer dispatchTimer;
+    private final Counter rejected;
+    private final Counter sent;
+    private final Counter throttled;
+    private final Counter offline;
+
+    public JobDispatcher(
+            GeoService geoService,
+            UserRepository userRepository,
+            SimpMessagingTemplate messagingTemplate,
+            SimpUserRegistry userRegistry,
+            ClusterFanout clusterFanout,
+            MeterRegistry meterRegistry,
+            @Value("${match.dispatch.enabled:true}") boolean enabled,
+            @Value("${match.dispatch.radius-meters:10000}") double radiusMeters,
+            @Value("${match.dispatch.threads:2}") int threads,
+            @Value("${match.dispatch.queue-capacity:1000}") int queueCapacity,
+            @Value("${match.dispatch.batch-size:500}") int batchSize,
+            @Value("${match.dispatch.provider.capacity:5}") int providerCapacity,
+            @Value("${match.dispatch.provider.permits-per-second:0.1}") double providerRate,
+            @Value("${match.dispatch.provider.idle-timeout:PT10M}") Duration providerIdleTimeout) {
+        this.geoService = geoService;
+        this.userRepository = userRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.userRegistry = userRegistry;
+        this.clusterFanout = clusterFanout;
+        this.enabled = enabled;
+        this.radiusMeters = radiusMeters;
+        this.batchSize = batchSize;
+        this.providerCapacity = providerCapacity;
+        this.providerRate = providerRate;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "job-dispatch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.providerBuckets = Caffeine.newBuilder()
+                .expireAfterAccess(providerIdleTimeout)
+                .build();
+        this.dispatchTimer = meterRegistry.timer("match.dispatch.duration");
+        this.rejected = meterRegistry.counter("match.dispatch.rejected");
+        this.sent = meterRegistry.counter("match.dispatch.notifications", "outcome", "sent");
+        this.throttled = meterRegistry.counter("match.dispatch.notifications", "outcome", "throttled");
+        this.offline = meterRegistry.counter("match.dispatch.notifications", "outcome", "offline");
+        Gauge.builder("match.dispatch.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobCreated(JobCreatedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            executor.execute(() -> dispatchTimer.record(() -> dispatch(event)));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Dispatch queue full, job {} will not be pushed to providers", event.jobId());
+        }
+    }
+
+    void dispatch(JobCreatedEvent event) {
+        try {
+            List<Long> candidates = new ArrayList<>(
+                    geoService.findProviderIdsWithin(event.latitude(), event.longitude(), radiusMeters));
+            candidates.remove(event.customerId());
+            JobNotification notification = new JobNotification(event.jobId(), event.title(), event.category(),
+                    event.budget(), event.latitude(), event.longitude());
+            for (int from = 0; from < candidates.size(); from += batchSize) {
+                List<Long> batch = candidates.subList(from, Math.min(from + batchSize, candidates.size()));
+                List<ProviderContact> providers = event.category() == null
+                        ? userRepository.findProviderContacts(batch)
+                        : userRepository.findProviderContacts(batch, event.category());
+                providers.forEach(provider -> notify(provider, notification));
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to dispatch job {}", event.jobId(), e);
+        }
+    }
+
+    private void notify(ProviderContact provider, JobNotification notification) {
+        // The registry only knows this node's sessions
+        if (!clusterFanout.isClustered() && userRegistry.getUser(provider.getPhoneNumber()) == null) {
+            offline.increment();
+            return;
+        }
+        TokenBucket bucket = providerBuckets.get(provider.getId(), id -> new TokenBucket(providerCapacity, providerRate));
+        if (!bucket.tryAcquire()) {
+            throttled.increment();
+            return;
+        }
+        messagingTemplate.convertAndSendToUser(provider.getPhoneNumber(), DESTINATION, notification);
+        sent.increment();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("Dropped {} queued job dispatches on shutdown", executor.shutdownNow().size());
+        }
+    }
+}
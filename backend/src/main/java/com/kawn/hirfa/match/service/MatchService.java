@@ -1,31 +1,68 @@
 package com.kawn.hirfa.match.service;
 
 import com.kawn.hirfa.auth.domain.User;
+import com.kawn.hirfa.common.api.CursorPage;
+import com.kawn.hirfa.common.api.KeysetCursor;
 import com.kawn.hirfa.common.exception.InvalidOperationException;
 import com.kawn.hirfa.common.exception.ResourceNotFoundException;
-import com.kawn.hirfa.match.domain.Bid;
+import com.kawn.hirfa.geo.support.GeoCell;
+import com.kawn.hirfa.geo.support.GeoMath;
 import com.kawn.hirfa.match.domain.Job;
+import com.kawn.hirfa.match.domain.JobBidStats;
 import com.kawn.hirfa.match.domain.JobStatus;
+import com.kawn.hirfa.match.dto.BidResponse;
+import com.kawn.hirfa.match.dto.CustomerJobResponse;
+import com.kawn.hirfa.match.dto.JobFeedItem;
+import com.kawn.hirfa.match.dto.PlacedBidResponse;
+import com.kawn.hirfa.match.repository.BidDetails;
+import com.kawn.hirfa.match.repository.BidInserts;
+import com.kawn.hirfa.match.repository.BidOwnership;
 import com.kawn.hirfa.match.repository.BidRepository;
+import com.kawn.hirfa.match.repository.BidScoringRow;
+import com.kawn.hirfa.match.repository.CustomerJobRow;
+import com.kawn.hirfa.match.repository.JobBidStatsRepository;
+import com.kawn.hirfa.match.repository.JobFeedQueries;
 import com.kawn.hirfa.match.repository.JobRepository;
+import com.kawn.hirfa.match.repository.ProviderAverageRating;
+import com.kawn.hirfa.match.scoring.BidFeatures;
+import com.kawn.hirfa.match.scoring.BidScoringEngine;
+import com.kawn.hirfa.match.scoring.ScoringWeights;
+import com.kawn.hirfa.match.support.BidCursor;
+import com.kawn.hirfa.match.support.JobCategory;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.Comparator;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class MatchService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int FEED_SCAN_BATCH = 200;
+
     private final JobRepository jobRepository;
     private final BidRepository bidRepository;
+    private final BidInserts bidInserts;
+    private final JobBidStatsRepository jobBidStatsRepository;
+    private final BidScoringEngine scoringEngine;
+    private final JobFeedQueries jobFeedQueries;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
-    public Job createJob(User customer, String title, String description, BigDecimal budget, double lat, double lon) {
+    public Job createJob(User customer, String title, String description, BigDecimal budget, double lat, double lon,
+            String category) {
         Job job = Job.builder()
                 .customer(customer)
                 .title(title)
@@ -33,70 +70,196 @@ public class MatchService {
                 .budget(budget)
                 .latitude(lat)
                 .longitude(lon)
+                .category(JobCategory.normalize(category))
                 .status(JobStatus.OPEN)
                 .build();
-        return jobRepository.save(job);
+        Job saved = jobRepository.save(job);
+        jobBidStatsRepository.save(JobBidStats.builder().jobId(saved.getId()).build());
+        // Pushed to nearby providers once the transaction commits, off the request thread
+        eventPublisher.publishEvent(new JobCreatedEvent(saved.getId(), customer.getId(), saved.getTitle(),
+                saved.getCategory(), saved.getBudget(), lat, lon));
+        return saved;
     }
 
+    /**
+     * Places a bid with a single conditional insert. Only when nothing was inserted does a second
+     * query tell a missing job from one that is no longer open.
+     */
     @Transactional
-    public Bid placeBid(User provider, Long jobId, BigDecimal amount, String message) {
-        Job job = jobRepository.findById(jobId)
-                .orElseThrow(() -> new ResourceNotFoundException("Job not found with id: " + jobId));
-
-        if (!JobStatus.OPEN.equals(job.getStatus())) {
+    public PlacedBidResponse placeBid(User provider, Long jobId, BigDecimal amount, String message) {
+        LocalDateTime now = LocalDateTime.now();
+        Long bidId = bidInserts.insertIfJobOpen(jobId, provider.getId(), amount, message, now);
+        if (bidId == null) {
+            if (!jobRepository.existsById(jobId)) {
+                throw new ResourceNotFoundException("Job not found with id: " + jobId);
+            }
             throw new InvalidOperationException("Job is not open for bidding");
         }
-
-        Bid bid = Bid.builder()
-                .job(job)
-                .provider(provider)
-                .amount(amount)
-                .message(message)
-                .accepted(false)
-                .build();
-
-        return bidRepository.save(bid);
+        jobBidStatsRepository.createIfAbsent(jobId);
+        jobBidStatsRepository.recordBid(jobId, amount, now);
+        return new PlacedBidResponse(bidId, jobId, amount, message, now);
     }
 
+    /**
+     * Accepts a bid and starts its job. The job leaves OPEN through one conditional UPDATE, so
+     * when accepts race exactly one wins and the others fail, without reading the job under a
+     * lock first.
+     */
     @Transactional
     public void acceptBid(Long bidId, User customer) {
-        Bid bid = bidRepository.findById(bidId)
+        BidOwnership bid = bidRepository.findOwnership(bidId)
                 .orElseThrow(() -> new ResourceNotFoundException("Bid not found with id: " + bidId));
 
-        Job job = bid.getJob();
-        if (!job.getCustomer().getId().equals(customer.getId())) {
+        if (!bid.getCustomerId().equals(customer.getId())) {
             throw new InvalidOperationException("Only the job owner can accept bids");
         }
 
-        bid.setAccepted(true);
-        job.setStatus(JobStatus.IN_PROGRESS);
+        if (jobRepository.transition(bid.getJobId(), JobStatus.OPEN, JobStatus.IN_PROGRESS, LocalDateTime.now()) == 0) {
+            throw new InvalidOperationException("Job is not open, a bid has already been accepted");
+        }
+        bidRepository.markAccepted(bidId);
+        jobBidStatsRepository.createIfAbsent(bid.getJobId());
+        jobBidStatsRepository.recordAccepted(bid.getJobId(), bidId, bid.getAmount());
+    }
+
+    /**
+     * The customer's jobs, newest first, with bid count, range, average and latest bid time read
+     * from the per-job aggregates in the same query.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CustomerJobResponse> getCustomerJobs(User customer, int limit, String cursor) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<CustomerJobRow> page = after.isStart()
+                ? jobRepository.findCustomerJobsLatest(customer.getId(), Limit.of(pageSize + 1))
+                : jobRepository.findCustomerJobsBefore(customer.getId(), after.timestamp(), after.id(),
+                        Limit.of(pageSize + 1));
+        List<CustomerJobResponse> rows = page.stream()
+                .map(MatchService::toResponse)
+                .toList();
+        return CursorPage.fromOverfetch(rows, pageSize,
+                row -> new KeysetCursor(row.createdAt(), row.jobId()).encode());
+    }
+
+    /**
+     * Open jobs within the radius, optionally of one category, newest first. Jobs are scanned in
+     * keyset batches over the geocells covering the radius, keeping those within the exact
+     * distance, until the page is full.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<JobFeedItem> findOpenJobsNear(double lat, double lon, double radiusInMeters, String category,
+            int limit, String cursor) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<long[]> ranges = GeoCell.coveringRanges(lat, lon, radiusInMeters);
+        String normalizedCategory = JobCategory.normalize(category);
 
-        bidRepository.save(bid);
-        jobRepository.save(job);
+        List<JobFeedItem> rows = new ArrayList<>(pageSize + 1);
+        KeysetCursor scan = KeysetCursor.decode(cursor);
+        List<JobFeedQueries.JobRow> batch;
+        do {
+            batch = jobFeedQueries.findOpenJobs(ranges, normalizedCategory, scan, FEED_SCAN_BATCH);
+            for (JobFeedQueries.JobRow job : batch) {
+                double distance = GeoMath.haversineMeters(lat, lon, job.latitude(), job.longitude());
+                if (distance <= radiusInMeters && rows.size() <= pageSize) {
+                    rows.add(new JobFeedItem(job.id(), job.title(), job.category(), job.budget(), job.latitude(),
+                            job.longitude(), distance, job.createdAt()));
+                }
+            }
+            if (!batch.isEmpty()) {
+                JobFeedQueries.JobRow last = batch.get(batch.size() - 1);
+                scan = new KeysetCursor(last.createdAt(), last.id());
+            }
+        } while (rows.size() <= pageSize && batch.size() == FEED_SCAN_BATCH);
+        return CursorPage.fromOverfetch(rows, pageSize,
+                row -> new KeysetCursor(row.createdAt(), row.jobId()).encode());
     }
 
     // The "Fair-Play Algorithm" implementation
-    public List<Bid> getJobBidsSortedByFairness(Long jobId) {
-        List<Bid> bids = bidRepository.findByJobId(jobId);
+    // Sorting Logic:
+    // 1. New Workers (Created < 30 days) get a boost
+    // 2. High Fairness Score
+    // 3. Optionally price, distance to the job and review rating, see ScoringWeights
+    // Ties go to the earliest bid. Provider-only weights are scored by the database, one page at a
+    // time; the other factors need every bid's inputs and go through the scoring engine.
+    @Transactional(readOnly = true)
+    public CursorPage<BidResponse> getJobBidsSortedByFairness(Long jobId, int limit, String cursor) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        BidCursor after = BidCursor.decode(cursor);
+        LocalDateTime boostSince = scoringEngine.newProviderCutoff();
+        ScoringWeights weights = scoringEngine.weights();
 
-        // Sorting Logic:
-        // 1. New Workers (Created < 30 days) get a boost
-        // 2. High Fairness Score
-        // 3. Price (Lower is better, but not strictly dominant)
+        List<BidResponse> rows = weights.usesBidFactors()
+                ? rankWithEngine(jobId, weights, boostSince, after, pageSize + 1)
+                : bidRepository.findRankedPage(jobId, weights.fairness(), weights.newness(), boostSince,
+                                after.score(), after.bidId(), Limit.of(pageSize + 1))
+                        .stream()
+                        .map(bid -> toResponse(bid, bid.getScore()))
+                        .toList();
+        return CursorPage.fromOverfetch(rows, pageSize,
+                row -> new BidCursor(row.fairPlayScore(), row.bidId()).encode());
+    }
+
+    private List<BidResponse> rankWithEngine(Long jobId, ScoringWeights weights, LocalDateTime boostSince,
+            BidCursor after, int limit) {
+        Job job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Job not found with id: " + jobId));
+        List<BidScoringRow> rows = bidRepository.findScoringRows(jobId);
+        Map<Long, Double> ratings = weights.rating() == 0 ? Map.of() : bidRepository.findBidderRatings(jobId).stream()
+                .collect(Collectors.toMap(ProviderAverageRating::getProviderId, ProviderAverageRating::getRating));
+
+        BidFeatures features = new BidFeatures(rows.size());
+        for (BidScoringRow row : rows) {
+            LocalDateTime joined = row.getProviderCreatedAt();
+            Double rating = ratings.get(row.getProviderId());
+            features.add(row.getBidId(),
+                    row.getFairnessScore() == null ? 0 : row.getFairnessScore(),
+                    joined != null && joined.isAfter(boostSince) ? 1 : 0,
+                    priceFactor(job.getBudget(), row.getAmount()),
+                    proximityFactor(job, row.getGeocell()),
+                    rating == null ? 0.5 : rating / 5);
+        }
+        BidScoringEngine.Ranking ranking = scoringEngine.topK(features, weights, limit, after.score(), after.bidId());
 
-        return bids.stream().sorted(Comparator.comparing(this::calculateScore).reversed())
-                .collect(Collectors.toList());
+        List<Long> ids = Arrays.stream(ranking.bidIds()).boxed().toList();
+        Map<Long, BidDetails> details = bidRepository.findDetails(ids).stream()
+                .collect(Collectors.toMap(BidDetails::getBidId, Function.identity()));
+        List<BidResponse> page = new ArrayList<>(ranking.size());
+        for (int i = 0; i < ranking.size(); i++) {
+            BidDetails bid = details.get(ranking.bidIds()[i]);
+            if (bid != null) { // Deleted since scoring
+                page.add(toResponse(bid, ranking.scores()[i]));
+            }
+        }
+        return page;
     }
 
-    private double calculateScore(Bid bid) {
-        User p = bid.getProvider();
-        double score = p.getFairnessScore();
+    private static double priceFactor(BigDecimal budget, BigDecimal amount) {
+        if (budget == null || budget.signum() <= 0 || amount == null) {
+            return 0;
+        }
+        return budget.subtract(amount).doubleValue() / budget.doubleValue();
+    }
 
-        // Boost new users
-        if (p.getCreatedAt().isAfter(java.time.LocalDateTime.now().minusDays(30))) {
-            score += 20;
+    private static double proximityFactor(Job job, Long providerGeocell) {
+        if (providerGeocell == null) {
+            return 0;
         }
+        double meters = GeoMath.haversineMeters(job.getLatitude(), job.getLongitude(),
+                GeoCell.decodeLat(providerGeocell), GeoCell.decodeLon(providerGeocell));
+        return 1 / (1 + meters / 1000);
+    }
+
+    private static CustomerJobResponse toResponse(CustomerJobRow job) {
+        long bidCount = job.getBidCount() == null ? 0 : job.getBidCount();
+        BigDecimal average = bidCount == 0 ? null
+                : job.getTotalAmount().divide(BigDecimal.valueOf(bidCount), 2, RoundingMode.HALF_UP);
+        return new CustomerJobResponse(job.getJobId(), job.getTitle(), job.getCategory(), job.getStatus(),
+                job.getBudget(), job.getCreatedAt(), bidCount, job.getMinAmount(), job.getMaxAmount(), average,
+                job.getLastBidAt(), job.getAcceptedBidId());
+    }
 
-        return score;
+    private static BidResponse toResponse(BidDetails bid, double score) {
+        return new BidResponse(bid.getBidId(), bid.getProviderId(), bid.getProviderName(), bid.getAmount(),
+                bid.getMessage(), bid.isAccepted(), bid.getCreatedAt(), score);
     }
 }
@@ -0,0 +1,35 @@
+package com.kawn.hirfa.match.support;
+
+import com.kawn.hirfa.common.exception.InvalidOperationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in a Fair-Play bid ranking ordered by (score descending, bid id). The score
+ * is encoded bit-exact so the next page resumes precisely after the last row.
+ */
+public record BidCursor(double score, long bidId) {
+
+    public static final BidCursor START = new BidCursor(Double.MAX_VALUE, Long.MIN_VALUE);
+
+    public String encode() {
+        String raw = Long.toHexString(Double.doubleToLongBits(score)) + ":" + bidId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static BidCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = raw.indexOf(':');
+            return new BidCursor(
+                    Double.longBitsToDouble(Long.parseUnsignedLong(raw.substring(0, separator), 16)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidOperationException("Invalid cursor");
+        }
+    }
+}
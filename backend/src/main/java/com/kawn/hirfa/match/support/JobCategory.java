@@ -0,0 +1,29 @@
+package com.kawn.hirfa.match.support;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Job categories are free-form upper-case codes such as "PLUMBING"; jobs and providers are
+ * matched on the normalized code.
+ */
+public final class JobCategory {
+
+    private JobCategory() {
+    }
+
+    public static String normalize(String category) {
+        return category == null || category.isBlank() ? null : category.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public static Set<String> normalize(Set<String> categories) {
+        if (categories == null) {
+            return null;
+        }
+        return categories.stream()
+                .map(JobCategory::normalize)
+                .filter(category -> category != null)
+                .collect(Collectors.toSet());
+    }
+}
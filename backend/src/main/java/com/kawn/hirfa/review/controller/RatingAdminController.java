@@ -0,0 +1,21 @@
+package com.kawn.hirfa.review.controller;
+
+import com.kawn.hirfa.common.api.ApiResponse;
+import com.kawn.hirfa.review.service.ProviderRatingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/ratings")
+@RequiredArgsConstructor
+public class RatingAdminController {
+
+    private final ProviderRatingService ratingService;
+
+    @PostMapping("/rebuild")
+    public ApiResponse<ProviderRatingService.RebuildResult> rebuild() {
+        return ApiResponse.success(ratingService.rebuild(), "Provider ratings rebuilt from reviews");
+    }
+}
@@ -1,8 +1,12 @@
 package com.kawn.hirfa.review.controller;
 
+import com.kawn.hirfa.auth.config.CurrentUser;
+import com.kawn.hirfa.auth.domain.User;
 import com.kawn.hirfa.common.api.ApiResponse;
-import com.kawn.hirfa.review.domain.Review;
-import com.kawn.hirfa.review.repository.ReviewRepository;
+import com.kawn.hirfa.review.dto.ProviderRatingResponse;
+import com.kawn.hirfa.review.dto.ReviewResponse;
+import com.kawn.hirfa.review.service.ProviderRatingService;
+import com.kawn.hirfa.review.service.ReviewService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
@@ -11,18 +15,19 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class ReviewController {
 
-    private final ReviewRepository reviewRepository;
+    private final ReviewService reviewService;
+    private final ProviderRatingService ratingService;
 
     @PostMapping
-    public ApiResponse<Review> createReview(@RequestBody ReviewRequest request) {
-        // Simplified Logic
-        Review review = Review.builder()
-                .rating(request.rating())
-                .comment(request.comment())
-                .photoUrl(request.photoUrl())
-                // Job linking logic would go here ideally
-                .build();
-        return ApiResponse.success(reviewRepository.save(review), "Review created");
+    public ApiResponse<ReviewResponse> createReview(@CurrentUser User user, @RequestBody ReviewRequest request) {
+        ReviewResponse review = reviewService.createReview(user, request.jobId(), request.rating(), request.comment(),
+                request.photoUrl());
+        return ApiResponse.success(review, "Review created");
+    }
+
+    @GetMapping("/providers/{providerId}")
+    public ApiResponse<ProviderRatingResponse> getProviderRating(@PathVariable Long providerId) {
+        return ApiResponse.success(ratingService.getRating(providerId), "Provider rating");
     }
 
     // Record class for DTO
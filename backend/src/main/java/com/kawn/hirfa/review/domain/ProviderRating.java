@@ -0,0 +1,52 @@
+package com.kawn.hirfa.review.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Review aggregates of one provider, updated in place as reviews are written.
+ * <p>
+ * The decayed average is {@code decayedSum / decayedWeight}, where each review counts with
+ * weight {@code 2^(age since a fixed epoch / half-life)}: newer reviews weigh more, and adding
+ * one never requires touching the others. Both sums grow with time, their ratio does not.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "provider_ratings")
+public class ProviderRating {
+    @Id
+    private Long providerId;
+
+    private long reviewCount;
+    private long ratingSum;
+
+    private double decayedSum;
+    private double decayedWeight;
+
+    // Histogram: number of reviews with 1 to 5 stars
+    private long stars1;
+    private long stars2;
+    private long stars3;
+    private long stars4;
+    private long stars5;
+
+    public void add(int rating, double weight) {
+        reviewCount++;
+        ratingSum += rating;
+        decayedSum += rating * weight;
+        decayedWeight += weight;
+        switch (rating) {
+            case 1 -> stars1++;
+            case 2 -> stars2++;
+            case 3 -> stars3++;
+            case 4 -> stars4++;
+            default -> stars5++;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.kawn.hirfa.review.domain;
 
+import com.kawn.hirfa.auth.domain.User;
 import com.kawn.hirfa.match.domain.Job;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -13,16 +14,24 @@ import org.hibernate.annotations.CreationTimestamp;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        @Index(name = "idx_reviews_provider", columnList = "provider_id")
+})
 public class Review {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reviews_seq")
+    @SequenceGenerator(name = "reviews_seq", sequenceName = "reviews_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne
     @JoinColumn(name = "job_id")
     private Job job;
 
+    // The provider whose bid on the job was accepted, resolved when the review is written
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "provider_id")
+    private User provider;
+
     private Integer rating; // 1-5
     private String comment;
 
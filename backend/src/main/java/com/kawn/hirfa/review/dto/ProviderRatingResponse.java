@@ -0,0 +1,14 @@
+package com.kawn.hirfa.review.dto;
+
+import java.util.List;
+
+/**
+ * {@code stars} counts reviews with 1 to 5 stars, in that order. Averages are null without reviews.
+ */
+public record ProviderRatingResponse(
+        Long providerId,
+        long reviewCount,
+        Double average,
+        Double recentAverage,
+        List<Long> stars) {
+}
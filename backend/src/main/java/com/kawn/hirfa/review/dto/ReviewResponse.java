@@ -0,0 +1,13 @@
+package com.kawn.hirfa.review.dto;
+
+import java.time.LocalDateTime;
+
+public record ReviewResponse(
+        Long reviewId,
+        Long jobId,
+        Long providerId,
+        int rating,
+        String comment,
+        String photoUrl,
+        LocalDateTime createdAt) {
+}
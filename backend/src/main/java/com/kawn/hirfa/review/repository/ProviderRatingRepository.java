@@ -0,0 +1,43 @@
+package com.kawn.hirfa.review.repository;
+
+import com.kawn.hirfa.review.domain.ProviderRating;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ProviderRatingRepository extends JpaRepository<ProviderRating, Long> {
+
+    /**
+     * Folds one review into the provider's aggregates, relative to the stored row, so concurrent
+     * reviews each count once. Returns 0 when the provider has no aggregates yet.
+     */
+    @Modifying
+    @Query("""
+            UPDATE ProviderRating r SET r.reviewCount = r.reviewCount + 1,
+                r.ratingSum = r.ratingSum + :rating,
+                r.decayedSum = r.decayedSum + :rating * CAST(:weight AS Double),
+                r.decayedWeight = r.decayedWeight + CAST(:weight AS Double),
+                r.stars1 = r.stars1 + CASE WHEN :rating = 1 THEN 1 ELSE 0 END,
+                r.stars2 = r.stars2 + CASE WHEN :rating = 2 THEN 1 ELSE 0 END,
+                r.stars3 = r.stars3 + CASE WHEN :rating = 3 THEN 1 ELSE 0 END,
+                r.stars4 = r.stars4 + CASE WHEN :rating = 4 THEN 1 ELSE 0 END,
+                r.stars5 = r.stars5 + CASE WHEN :rating = 5 THEN 1 ELSE 0 END
+            WHERE r.providerId = :providerId""")
+    int recordReview(@Param("providerId") Long providerId, @Param("rating") int rating, @Param("weight") double weight);
+
+    /**
+     * Creates the provider's empty aggregates unless they exist. Concurrent first reviews wait
+     * for each other here instead of failing on the primary key.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO provider_ratings (provider_id, review_count, rating_sum, decayed_sum, decayed_weight,
+                stars1, stars2, stars3, stars4, stars5)
+            VALUES (:providerId, 0, 0, 0, 0, 0, 0, 0, 0, 0) ON CONFLICT DO NOTHING""", nativeQuery = true)
+    int createIfAbsent(@Param("providerId") Long providerId);
+
+    @Modifying
+    @Query("DELETE FROM ProviderRating r")
+    int deleteAllInBulk();
+}
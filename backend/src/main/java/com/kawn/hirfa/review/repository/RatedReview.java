@@ -0,0 +1,11 @@
+package com.kawn.hirfa.review.repository;
+
+import java.time.LocalDateTime;
+
+public interface RatedReview {
+    Long getProviderId();
+
+    Integer getRating();
+
+    LocalDateTime getCreatedAt();
+}
@@ -1,7 +1,41 @@
 package com.kawn.hirfa.review.repository;
 
 import com.kawn.hirfa.review.domain.Review;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
+
+    boolean existsByJobId(Long jobId);
+
+    @Query("""
+            SELECT j.id AS jobId, j.customer.id AS customerId, hired.provider.id AS providerId
+            FROM Job j LEFT JOIN Bid hired ON hired.job = j AND hired.accepted = true
+            WHERE j.id = :jobId
+            """)
+    Optional<ReviewTarget> findTarget(@Param("jobId") Long jobId);
+
+    // Every rated review grouped by provider, for rebuilding the aggregates. Reviews written
+    // before they were linked to a provider fall back to the job's accepted bid.
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT COALESCE(r.provider.id, hired.provider.id) AS providerId, r.rating AS rating,
+                   r.createdAt AS createdAt
+            FROM Review r LEFT JOIN Bid hired ON hired.job = r.job AND hired.accepted = true
+            WHERE r.rating BETWEEN 1 AND 5 AND COALESCE(r.provider.id, hired.provider.id) IS NOT NULL
+            ORDER BY 1
+            """)
+    Stream<RatedReview> streamRatedReviews();
 }
@@ -0,0 +1,10 @@
+package com.kawn.hirfa.review.repository;
+
+public interface ReviewTarget {
+    Long getJobId();
+
+    Long getCustomerId();
+
+    // Null until a bid on the job has been accepted
+    Long getProviderId();
+}
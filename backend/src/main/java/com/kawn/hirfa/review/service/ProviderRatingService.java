@@ -0,0 +1,119 @@
+package com.kawn.hirfa.review.service;
+
+import com.kawn.hirfa.review.domain.ProviderRating;
+import com.kawn.hirfa.review.dto.ProviderRatingResponse;
+import com.kawn.hirfa.review.repository.ProviderRatingRepository;
+import com.kawn.hirfa.review.repository.RatedReview;
+import com.kawn.hirfa.review.repository.ReviewRepository;
+import com.kawn.hirfa.review.support.RatingDecay;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Per-provider review aggregates: count, plain and decayed average, and a star histogram.
+ * Writing a review creates its provider's row if needed and folds the review in with one
+ * relative UPDATE, so concurrent reviews neither conflict nor overwrite each other;
+ * {@link #rebuild()} recomputes every row from the reviews to repair drift, e.g. after the
+ * half-life changed.
+ */
+@Slf4j
+@Service
+public class ProviderRatingService {
+
+    public record RebuildResult(long providers, long reviews) {
+    }
+
+    private final ProviderRatingRepository ratingRepository;
+    private final ReviewRepository reviewRepository;
+    private final EntityManager entityManager;
+    private final RatingDecay decay;
+    private final int batchSize;
+
+    public ProviderRatingService(
+            ProviderRatingRepository ratingRepository,
+            ReviewRepository reviewRepository,
+            EntityManager entityManager,
+            @Value("${review.rating.half-life:P180D}") Duration halfLife,
+            @Value("${review.rating.rebuild-batch-size:500}") int batchSize) {
+        this.ratingRepository = ratingRepository;
+        this.reviewRepository = reviewRepository;
+        this.entityManager = entityManager;
+        this.decay = new RatingDecay(halfLife);
+        this.batchSize = batchSize;
+    }
+
+    // Joins the caller's transaction, so the review and its aggregates commit together
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordReview(Long providerId, int rating, LocalDateTime at) {
+        ratingRepository.createIfAbsent(providerId);
+        ratingRepository.recordReview(providerId, rating, decay.weight(at));
+    }
+
+    @Transactional(readOnly = true)
+    public ProviderRatingResponse getRating(Long providerId) {
+        ProviderRating rating = ratingRepository.findById(providerId)
+                .orElseGet(() -> ProviderRating.builder().providerId(providerId).build());
+        boolean rated = rating.getReviewCount() > 0;
+        return new ProviderRatingResponse(providerId, rating.getReviewCount(),
+                rated ? (double) rating.getRatingSum() / rating.getReviewCount() : null,
+                rated ? rating.getDecayedSum() / rating.getDecayedWeight() : null,
+                List.of(rating.getStars1(), rating.getStars2(), rating.getStars3(), rating.getStars4(),
+                        rating.getStars5()));
+    }
+
+    /**
+     * Replaces every aggregate with one recomputed from the reviews, in one transaction. Reviews
+     * stream in provider order, so only the current provider's row is held in memory, and rows
+     * are written in JDBC batches with the persistence context cleared after each. Reviews
+     * written while a rebuild runs may be missed until the next one.
+     */
+    @Scheduled(cron = "${review.rating.rebuild-cron:-}")
+    @Transactional
+    public RebuildResult rebuild() {
+        long started = System.nanoTime();
+        ratingRepository.deleteAllInBulk();
+        long providers = 0;
+        long reviews = 0;
+        try (Stream<RatedReview> stream = reviewRepository.streamRatedReviews()) {
+            ProviderRating current = null;
+            for (Iterator<RatedReview> it = stream.iterator(); it.hasNext(); ) {
+                RatedReview review = it.next();
+                if (current == null || !current.getProviderId().equals(review.getProviderId())) {
+                    if (current != null) {
+                        write(current, ++providers);
+                    }
+                    current = ProviderRating.builder().providerId(review.getProviderId()).build();
+                }
+                current.add(review.getRating(), decay.weight(review.getCreatedAt()));
+                reviews++;
+            }
+            if (current != null) {
+                write(current, ++providers);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        log.info("Rebuilt rating aggregates of {} providers from {} reviews in {} ms", providers, reviews,
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+        return new RebuildResult(providers, reviews);
+    }
+
+    private void write(ProviderRating rating, long written) {
+        entityManager.persist(rating);
+        if (written % batchSize == 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.kawn.hirfa.review.service;
+
+import com.kawn.hirfa.auth.domain.User;
+import com.kawn.hirfa.auth.repository.UserRepository;
+import com.kawn.hirfa.common.exception.InvalidOperationException;
+import com.kawn.hirfa.common.exception.ResourceNotFoundException;
+import com.kawn.hirfa.match.repository.JobRepository;
+import com.kawn.hirfa.review.domain.Review;
+import com.kawn.hirfa.review.dto.ReviewResponse;
+import com.kawn.hirfa.review.repository.ReviewRepository;
+import com.kawn.hirfa.review.repository.ReviewTarget;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class ReviewService {
+
+    private final ReviewRepository reviewRepository;
+    private final JobRepository jobRepository;
+    private final UserRepository userRepository;
+    private final ProviderRatingService ratingService;
+
+    /**
+     * Reviews the provider hired for a job. Only the job's customer can review, once, after a bid
+     * was accepted; the provider's aggregates are updated in the same transaction.
+     */
+    @Transactional
+    public ReviewResponse createReview(User customer, Long jobId, Integer rating, String comment, String photoUrl) {
+        if (rating == null || rating < 1 || rating > 5) {
+            throw new InvalidOperationException("Rating must be between 1 and 5");
+        }
+        ReviewTarget target = reviewRepository.findTarget(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Job not found with id: " + jobId));
+        if (!target.getCustomerId().equals(customer.getId())) {
+            throw new InvalidOperationException("Only the job owner can review it");
+        }
+        if (target.getProviderId() == null) {
+            throw new InvalidOperationException("Job has no accepted bid to review");
+        }
+        if (reviewRepository.existsByJobId(jobId)) {
+            throw new InvalidOperationException("Job has already been reviewed");
+        }
+
+        Review review = reviewRepository.save(Review.builder()
+                .job(jobRepository.getReferenceById(jobId))
+                .provider(userRepository.getReferenceById(target.getProviderId()))
+                .rating(rating)
+                .comment(comment)
+                .photoUrl(photoUrl)
+                .build());
+        // createdAt is only stamped when the insert is flushed; this is close enough for its weight
+        LocalDateTime now = LocalDateTime.now();
+        ratingService.recordReview(target.getProviderId(), rating, now);
+        return new ReviewResponse(review.getId(), jobId, target.getProviderId(), rating, comment, photoUrl, now);
+    }
+}
@@ -0,0 +1,49 @@
+package com.kawn.hirfa.review.support;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Weights for the decayed review average. A review written one half-life after another counts
+ * twice as much. Weights are relative to a fixed epoch, so they never need rescaling, but they
+ * grow by one power of two per half-life. They are kept below {@code 2^MAX_EXPONENT}, which
+ * leaves the sums of a provider's weights ample room below the largest double; a half-life too
+ * short to stay there for {@link #HEADROOM} from now is rejected at startup.
+ */
+public final class RatingDecay {
+
+    static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+    static final int MAX_EXPONENT = 960;
+    static final Duration HEADROOM = Duration.ofDays(10 * 365);
+
+    private final double halfLifeSeconds;
+
+    public RatingDecay(Duration halfLife) {
+        this(halfLife, LocalDateTime.now());
+    }
+
+    RatingDecay(Duration halfLife, LocalDateTime now) {
+        if (halfLife.isZero() || halfLife.isNegative()) {
+            throw new IllegalArgumentException("Half-life must be positive: " + halfLife);
+        }
+        this.halfLifeSeconds = halfLife.toSeconds();
+        if (exponent(now.plus(HEADROOM)) > MAX_EXPONENT) {
+            throw new IllegalArgumentException("Half-life " + halfLife + " is too short: review weights would overflow"
+                    + " within " + HEADROOM.toDays() + " days, use at least "
+                    + Duration.between(EPOCH, now.plus(HEADROOM)).dividedBy(MAX_EXPONENT).plusDays(1).toDays() + " days");
+        }
+    }
+
+    public double weight(LocalDateTime at) {
+        double exponent = exponent(at);
+        if (exponent > MAX_EXPONENT) {
+            throw new IllegalStateException("Review weight 2^" + exponent + " is out of range, lengthen the half-life"
+                    + " and rebuild the ratings");
+        }
+        return Math.pow(2, exponent);
+    }
+
+    private double exponent(LocalDateTime at) {
+        return Duration.between(EPOCH, at).toSeconds() / halfLifeSeconds;
+    }
+}
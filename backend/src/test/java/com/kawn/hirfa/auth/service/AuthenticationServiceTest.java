@@ -6,6 +6,9 @@ import com.kawn.hirfa.auth.dto.AuthenticationRequest;
 import com.kawn.hirfa.auth.dto.AuthenticationResponse;
 import com.kawn.hirfa.auth.dto.RegisterRequest;
 import com.kawn.hirfa.auth.repository.UserRepository;
+import com.kawn.hirfa.common.exception.InvalidOperationException;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,10 +16,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 
@@ -27,6 +33,8 @@ class AuthenticationServiceTest {
     private UserRepository repository;
     @Mock
     private JwtService jwtService;
+    @Mock
+    private TokenRevocationService revocationService;
 
     @InjectMocks
     private AuthenticationService service;
@@ -67,6 +75,14 @@ class AuthenticationServiceTest {
         verify(repository, times(1)).save(any(User.class));
     }
 
+    @Test
+    void shouldRejectSelfRegistrationAsAdmin() {
+        registerRequest.setRole(UserRole.ADMIN);
+
+        assertThrows(InvalidOperationException.class, () -> service.register(registerRequest));
+        verifyNoInteractions(repository, jwtService);
+    }
+
     @Test
     void shouldAuthenticateUserSuccessfully() {
         when(repository.findByPhoneNumber("55123456")).thenReturn(Optional.of(user));
@@ -77,4 +93,18 @@ class AuthenticationServiceTest {
         assertNotNull(response);
         assertEquals("mock-token", response.getToken());
     }
+
+    @Test
+    void shouldRevokeTokenById() {
+        Claims claims = Jwts.claims()
+                .id("jti-1")
+                .subject("55123456")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .build();
+        when(jwtService.verify("token")).thenReturn(claims);
+
+        service.revoke("token");
+
+        verify(revocationService).revoke(eq("jti-1"), any(LocalDateTime.class));
+    }
 }
@@ -0,0 +1,89 @@
+package com.kawn.hirfa.auth.service;
+
+import com.kawn.hirfa.auth.domain.User;
+import com.kawn.hirfa.auth.domain.UserRole;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JWT verification in the authentication filter.
+ * <p>
+ * {@code legacy} reproduces the old path: three full parses per request, each rebuilding the
+ * parser and decoding the secret. {@code singleParse} verifies once with a prebuilt parser and
+ * {@code cached} is what the filter does now for a token it has already seen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private JwtService jwtService;
+    private JwtService uncachedJwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        user = User.builder().id(1L).phoneNumber("55123456").role(UserRole.PROVIDER).build();
+        jwtService = newJwtService(100_000);
+        uncachedJwtService = newJwtService(0);
+        token = jwtService.generateToken(user);
+        jwtService.verify(token);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        String username = legacyParse(token).getSubject();
+        return username.equals(user.getUsername())
+                && legacyParse(token).getSubject().equals(user.getUsername())
+                && !legacyParse(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        Claims claims = uncachedJwtService.verify(token);
+        return uncachedJwtService.isTokenValid(claims, user);
+    }
+
+    @Benchmark
+    public boolean cached() {
+        Claims claims = jwtService.verify(token);
+        return jwtService.isTokenValid(claims, user);
+    }
+
+    private static Claims legacyParse(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+
+    private static JwtService newJwtService(long cacheSize) {
+        JwtService service = new JwtService(new VerifiedTokenCache(new SimpleMeterRegistry(), cacheSize));
+        ReflectionTestUtils.setField(service, "secretKey", SECRET);
+        ReflectionTestUtils.setField(service, "jwtExpiration", 86_400_000L);
+        service.init();
+        return service;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtServiceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
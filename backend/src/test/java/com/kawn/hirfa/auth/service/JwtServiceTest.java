@@ -0,0 +1,85 @@
+package com.kawn.hirfa.auth.service;
+
+import com.kawn.hirfa.auth.domain.AuthenticatedUser;
+import com.kawn.hirfa.auth.domain.User;
+import com.kawn.hirfa.auth.domain.UserRole;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private SimpleMeterRegistry meterRegistry;
+    private VerifiedTokenCache cache;
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new VerifiedTokenCache(meterRegistry, 100);
+        jwtService = new JwtService(cache);
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60_000L);
+        jwtService.init();
+
+        user = User.builder()
+                .id(1L)
+                .phoneNumber("55123456")
+                .role(UserRole.PROVIDER)
+                .build();
+    }
+
+    @Test
+    void shouldVerifyTokenOnceAndServeRepeatsFromCache() {
+        String token = jwtService.generateToken(user);
+
+        Claims first = jwtService.verify(token);
+        Claims second = jwtService.verify(token);
+
+        assertEquals("55123456", first.getSubject());
+        assertSame(first, second);
+        assertTrue(jwtService.isTokenValid(token, user));
+        assertEquals(1, cache.size());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void shouldRejectTamperedTokenWithoutCachingIt() {
+        String token = jwtService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtService.verify(tampered));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void shouldRejectTokenOfAnotherUser() {
+        String token = jwtService.generateToken(user);
+        User other = User.builder().phoneNumber("55000000").role(UserRole.CUSTOMER).build();
+
+        assertFalse(jwtService.isTokenValid(token, other));
+    }
+
+    @Test
+    void shouldBuildStatelessPrincipalFromClaims() {
+        user.setTokenVersion(3);
+        String token = jwtService.generateToken(user);
+
+        AuthenticatedUser principal = jwtService.toPrincipal(jwtService.verify(token));
+
+        assertNotNull(principal);
+        assertEquals(1L, principal.id());
+        assertEquals(UserRole.PROVIDER, principal.role());
+        assertEquals(3, principal.tokenVersion());
+        assertTrue(jwtService.isTokenValid(token, principal));
+    }
+}
@@ -0,0 +1,106 @@
+package com.kawn.hirfa.auth.service;
+
+import com.kawn.hirfa.auth.domain.RevokedToken;
+import com.kawn.hirfa.auth.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository repository;
+
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TokenRevocationService(repository, new SimpleMeterRegistry(), 1000, 0.001);
+    }
+
+    @Test
+    void shouldAnswerNotRevokedWithoutDatabase() {
+        assertFalse(service.isRevoked("unknown-jti"));
+        assertFalse(service.isRevoked(null));
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void shouldRejectTokenRevokedOnThisNode() {
+        when(repository.insertIfAbsent(eq("jti-1"), any(), any())).thenReturn(1);
+
+        service.revoke("jti-1", LocalDateTime.now().plusHours(1));
+
+        assertTrue(service.isRevoked("jti-1"));
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void shouldTreatARevokeThatLostTheRaceAsDone() {
+        RevokedToken earlier = RevokedToken.builder()
+                .jti("jti-5")
+                .revokedAt(LocalDateTime.now().minusSeconds(1))
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build();
+        when(repository.insertIfAbsent(eq("jti-5"), any(), any())).thenReturn(0);
+        when(repository.findById("jti-5")).thenReturn(Optional.of(earlier));
+
+        service.revoke("jti-5", LocalDateTime.now().plusHours(1));
+
+        assertTrue(service.isRevoked("jti-5"));
+    }
+
+    @Test
+    void shouldConfirmBloomHitsAgainstDatabaseAfterRebuild() {
+        RevokedToken revoked = RevokedToken.builder()
+                .jti("jti-2")
+                .revokedAt(LocalDateTime.now().minusDays(1))
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build();
+        when(repository.findActive(any())).thenReturn(List.of(revoked));
+        when(repository.findById("jti-2")).thenReturn(Optional.of(revoked));
+
+        service.rebuild();
+
+        assertTrue(service.isRevoked("jti-2"));
+        assertTrue(service.isRevoked("jti-2"));
+        verify(repository, times(1)).findById("jti-2");
+    }
+
+    @Test
+    void shouldPickUpRevocationsFromOtherNodesOnSync() {
+        RevokedToken revoked = RevokedToken.builder()
+                .jti("jti-3")
+                .revokedAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build();
+        when(repository.findActiveRevokedSince(any(), any())).thenReturn(List.of(revoked));
+
+        service.sync();
+
+        assertTrue(service.isRevoked("jti-3"));
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void shouldIgnoreAlreadyExpiredTokens() {
+        service.revoke("jti-4", LocalDateTime.now().minusMinutes(1));
+
+        assertFalse(service.isRevoked("jti-4"));
+        verifyNoInteractions(repository);
+    }
+}
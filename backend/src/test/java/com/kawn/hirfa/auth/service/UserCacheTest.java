@@ -0,0 +1,70 @@
+package com.kawn.hirfa.auth.service;
+
+import com.kawn.hirfa.auth.domain.User;
+import com.kawn.hirfa.auth.domain.UserRole;
+import com.kawn.hirfa.auth.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+
+    @Mock
+    private UserRepository repository;
+
+    private UserCache userCache;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new UserCache(repository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        user = User.builder()
+                .id(1L)
+                .phoneNumber("55123456")
+                .role(UserRole.PROVIDER)
+                .build();
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        when(repository.findByPhoneNumber("55123456")).thenReturn(Optional.of(user));
+
+        assertSame(user, userCache.findByPhoneNumber("55123456").orElseThrow());
+        assertSame(user, userCache.findByPhoneNumber("55123456").orElseThrow());
+        assertSame(user, userCache.findById(1L).orElseThrow());
+
+        verify(repository, times(1)).findByPhoneNumber("55123456");
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void shouldReloadAfterEviction() {
+        when(repository.findById(1L)).thenReturn(Optional.of(user));
+
+        userCache.findById(1L);
+        userCache.evict(1L);
+        userCache.findById(1L);
+
+        verify(repository, times(2)).findById(1L);
+    }
+
+    @Test
+    void shouldNotCacheMissingUsers() {
+        when(repository.findById(2L)).thenReturn(Optional.empty());
+
+        assertTrue(userCache.findById(2L).isEmpty());
+        assertTrue(userCache.findById(2L).isEmpty());
+
+        verify(repository, times(2)).findById(2L);
+    }
+}
@@ -0,0 +1,234 @@
+package com.kawn.hirfa.chat.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kawn.hirfa.chat.domain.ChatMessage;
+import com.kawn.hirfa.chat.dto.ChatMessageView;
+import com.kawn.hirfa.chat.service.ChatMessagePipeline;
+import com.kawn.hirfa.chat.service.RecentMessageCache;
+import com.kawn.hirfa.geo.service.LocationStreamService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterRelayTest {
+
+    // One backend node: its broker channel, the messages its broker got, and the fanout between them
+    private record Node(SimpMessagingTemplate template, List<Message<?>> published, SimpleMeterRegistry meterRegistry,
+            RecentMessageCache recentMessages, ClusterFanout fanout) {
+
+        static Node on(ClusterRelay relay) {
+            ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+            ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+            SimpMessagingTemplate template = new SimpMessagingTemplate(brokerChannel);
+            MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+            converter.setObjectMapper(objectMapper); // As the broker's template
+            template.setMessageConverter(converter);
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            RecentMessageCache recentMessages = new RecentMessageCache(meterRegistry, true, 100, DataSize.ofMegabytes(1),
+                    Duration.ofMinutes(1));
+            ClusterFanout fanout = new ClusterFanout(relay, template, recentMessages, objectMapper, meterRegistry);
+            brokerChannel.addInterceptor(fanout);
+            List<Message<?>> published = new CopyOnWriteArrayList<>();
+            brokerChannel.subscribe(published::add);
+            return new Node(template, published, meterRegistry, recentMessages, fanout);
+        }
+
+        List<String> payloads() {
+            return published.stream().map(message -> new String((byte[]) message.getPayload(), StandardCharsets.UTF_8))
+                    .toList();
+        }
+    }
+
+    @Test
+    void shouldPublishOnEveryNodeOnce() {
+        LoopbackRelay.Bus bus = new LoopbackRelay.Bus();
+        Node a = Node.on(new LoopbackRelay(bus));
+        Node b = Node.on(new LoopbackRelay(bus));
+
+        a.template().convertAndSend("/topic/job.1", Map.of("content", "On my way"));
+        a.template().convertAndSendToUser("216", "/queue/dispatch", Map.of("jobId", 7));
+        a.template().convertAndSend("/queue/chat.acks-user1", Map.of("messageId", 3)); // Resolved for a session here
+
+        // The bus hands A's messages back to A too; only B republishes them, and does not relay them again
+        assertEquals(3, a.published().size());
+        assertEquals(List.of("{\"content\":\"On my way\"}", "{\"jobId\":7}"), b.payloads());
+        assertEquals(List.of("/topic/job.1", "/user/216/queue/dispatch"), b.published().stream()
+                .map(message -> SimpMessageHeaderAccessor.getDestination(message.getHeaders())).toList());
+        assertEquals(2, a.meterRegistry().get("cluster.fanout.messages").tag("direction", "duplicate").counter().count());
+    }
+
+    @Test
+    void shouldDeliverEventsToOtherNodesWithoutTheBroker() {
+        LoopbackRelay.Bus bus = new LoopbackRelay.Bus();
+        Node a = Node.on(new LoopbackRelay(bus));
+        Node b = Node.on(new LoopbackRelay(bus));
+        List<String> onA = new CopyOnWriteArrayList<>();
+        List<String> onB = new CopyOnWriteArrayList<>();
+        a.fanout().onEvent("ping", payload -> onA.add(new String(payload, StandardCharsets.UTF_8)));
+        b.fanout().onEvent("ping", payload -> onB.add(new String(payload, StandardCharsets.UTF_8)));
+
+        a.fanout().publishEvent("ping", "from A".getBytes(StandardCharsets.UTF_8));
+        a.fanout().publishEvent("unhandled", new byte[0]);
+        // Every node streams location tiles from relayed location events itself
+        a.template().convertAndSend(LocationStreamService.TOPIC_PREFIX + "1_2", Map.of("sequence", 1));
+
+        assertTrue(a.fanout().isClustered());
+        assertEquals(List.of(), onA);
+        assertEquals(List.of("from A"), onB);
+        assertEquals(List.of(), b.published());
+        assertFalse(Node.on(ClusterRelay.NONE).fanout().isClustered());
+    }
+
+    @Test
+    void shouldAddChatMessagesFromOtherNodesToTheRecentRings() {
+        LoopbackRelay.Bus bus = new LoopbackRelay.Bus();
+        Node a = Node.on(new LoopbackRelay(bus));
+        Node b = Node.on(new LoopbackRelay(bus));
+        RecentMessageCache.Loader emptyJob = (jobId, limit) -> List.of();
+        a.recentMessages().latestPage(7L, 20, emptyJob);
+        a.recentMessages().latestPage(8L, 20, emptyJob);
+        b.recentMessages().latestPage(7L, 20, emptyJob);
+
+        a.template().convertAndSend(ChatMessagePipeline.TOPIC_PREFIX + 7, ChatMessage.builder()
+                .id(1L).senderId(10L).receiverId(11L).jobId(7L).content("On my way")
+                .timestamp(LocalDateTime.now()).build());
+        b.template().convertAndSend(ChatMessagePipeline.TOPIC_PREFIX + 8, "not a chat message");
+
+        RecentMessageCache.Loader unexpected = (jobId, limit) -> fail("Ring of job " + jobId + " was reloaded");
+        List<ChatMessageView> onB = b.recentMessages().latestPage(7L, 20, unexpected).items();
+        assertEquals(1, onB.size());
+        assertEquals("On my way", onB.get(0).content());
+        // The sending node adds the message once it is stored
+        assertTrue(a.recentMessages().latestPage(7L, 20, unexpected).items().isEmpty());
+        // A payload that is not a chat message drops the ring
+        AtomicInteger reloads = new AtomicInteger();
+        a.recentMessages().latestPage(8L, 20, (jobId, limit) -> {
+            reloads.incrementAndGet();
+            return List.of();
+        });
+        assertEquals(1, reloads.get());
+    }
+
+    @Test
+    void shouldRelayBatchesOverTcpAndDropEchoes() throws Exception {
+        List<String> peers = List.of("127.0.0.1:" + freePort(), "127.0.0.1:" + freePort());
+        TcpClusterRelay relayA = relay(peers.get(0), peers);
+        TcpClusterRelay relayB = relay(peers.get(1), peers);
+        relayA.start();
+        relayB.start();
+        try {
+            Node a = Node.on(relayA);
+            Node b = Node.on(relayB);
+
+            for (int i = 0; i < 1_000; i++) {
+                a.template().convertAndSend("/topic/job." + i % 10, Map.of("seq", i, "content", "Message " + i));
+            }
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (b.published().size() < 1_000 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            List<String> payloads = b.payloads();
+            assertEquals(1_000, payloads.size());
+            for (int i = 0; i < 1_000; i++) {
+                assertTrue(payloads.get(i).contains("\"seq\":" + i), payloads.get(i));
+            }
+            Thread.sleep(100); // A's connection to itself delivers the echoes about now
+            assertEquals(1_000, a.published().size());
+        } finally {
+            relayA.stop();
+            relayB.stop();
+        }
+    }
+
+    @Test
+    void shouldCompressLargeBatches() throws IOException {
+        List<RelayMessage> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String json = "{\"id\":" + i + ",\"senderId\":10,\"receiverId\":11,\"jobId\":7,\"content\":\"On my way\"}";
+            batch.add(new RelayMessage("node", i, "/topic/job.7", "application/json", json.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        byte[] frame = RelayCodec.encode(batch);
+        List<RelayMessage> decoded = RelayCodec.decode(frame);
+
+        int payloadBytes = batch.stream().mapToInt(message -> message.payload().length).sum();
+        assertTrue(frame.length < payloadBytes / 4, frame.length + " bytes for " + payloadBytes + " of payload");
+        assertEquals(100, decoded.size());
+        assertEquals(99, decoded.get(99).sequence());
+        assertEquals("/topic/job.7", decoded.get(99).destination());
+        assertArrayEquals(batch.get(99).payload(), decoded.get(99).payload());
+        assertNull(RelayCodec.decode(RelayCodec.encode(List.of(
+                new RelayMessage("node", 1, "/topic/job.1", null, new byte[0])))).get(0).contentType());
+    }
+
+    @Test
+    void shouldRejectFramesBeyondTheLimits() throws IOException {
+        // A few kilobytes that would inflate to 17 MB
+        ByteArrayOutputStream bomb = new ByteArrayOutputStream();
+        bomb.write(1); // Deflated
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bomb))) {
+            out.writeInt(17);
+            for (int i = 0; i < 17; i++) {
+                writeHeader(out, i);
+                out.writeInt(RelayCodec.MAX_PAYLOAD_BYTES);
+                out.write(new byte[RelayCodec.MAX_PAYLOAD_BYTES]);
+            }
+        }
+        ByteArrayOutputStream oversizedPayload = new ByteArrayOutputStream();
+        oversizedPayload.write(0); // Plain
+        try (DataOutputStream out = new DataOutputStream(oversizedPayload)) {
+            out.writeInt(1);
+            writeHeader(out, 1);
+            out.writeInt(RelayCodec.MAX_PAYLOAD_BYTES + 1);
+        }
+
+        assertTrue(bomb.size() < 100_000, bomb.size() + " bytes");
+        assertThrows(IOException.class, () -> RelayCodec.decode(bomb.toByteArray()));
+        assertThrows(IOException.class, () -> RelayCodec.decode(oversizedPayload.toByteArray()));
+        assertThrows(IOException.class, () -> RelayCodec.decode(new byte[]{0, 0x7f, -1, -1, -1}));
+        assertThrows(IOException.class, () -> RelayCodec.decode(new byte[]{0, -1, -1, -1, -1}));
+        assertThrows(IllegalArgumentException.class, () -> new TcpClusterRelay(new SimpleMeterRegistry(), "127.0.0.1",
+                0, List.of(), 10, RelayCodec.MAX_BATCH_MESSAGES + 1, Duration.ZERO));
+    }
+
+    private static void writeHeader(DataOutputStream out, long sequence) throws IOException {
+        out.writeUTF("node");
+        out.writeLong(sequence);
+        out.writeUTF("/topic/job.1");
+        out.writeUTF("");
+    }
+
+    private static TcpClusterRelay relay(String address, List<String> peers) {
+        int port = Integer.parseInt(address.substring(address.indexOf(':') + 1));
+        return new TcpClusterRelay(new SimpleMeterRegistry(), "127.0.0.1", port, peers, 10_000, 64, Duration.ofMillis(2));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
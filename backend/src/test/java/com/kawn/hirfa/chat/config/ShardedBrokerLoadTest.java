@@ -0,0 +1,192 @@
+package com.kawn.hirfa.chat.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The broker as configured in {@link WebSocketConfig}, without sockets: 10k simulated sessions on
+ * 500 job topics, plus a few sessions that follow a hundred topics each and read too slowly to
+ * keep up. Every other session must get every message of its topic, in publish order, while the
+ * slow ones overflow their queues.
+ */
+class ShardedBrokerLoadTest {
+
+    private static final int SESSIONS = 10_000;
+    private static final int TOPICS = 500;
+    private static final int MESSAGES_PER_TOPIC = 40;
+    private static final int SLOW_SESSIONS = 4;
+    private static final int PUBLISHERS = 4;
+
+    private record Frame(int seq, long sentAtNanos) {
+    }
+
+    @Test
+    void shouldDeliverInOrderToEveryoneButTheSlowSessions() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BrokerLaneExecutor lanes = new BrokerLaneExecutor(meterRegistry, 4, 100_000);
+        SessionOutboundExecutor outbound = new SessionOutboundExecutor(meterRegistry, 8, 16,
+                SessionOutboundExecutor.Overflow.DROP);
+        ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel(outbound);
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel(lanes);
+        SimpleBrokerMessageHandler broker = new SimpleBrokerMessageHandler(clientInbound, clientOutbound, brokerChannel,
+                List.of("/topic"));
+        broker.start();
+
+        AtomicIntegerArray lastSeq = new AtomicIntegerArray(SESSIONS);
+        AtomicInteger outOfOrder = new AtomicInteger();
+        CountDownLatch fastSessionsDone = new CountDownLatch(SESSIONS - SLOW_SESSIONS);
+        Timer delivery = Timer.builder("delivery").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        for (int i = 0; i < SESSIONS; i++) {
+            lastSeq.set(i, -1);
+        }
+        // The "socket": records each session's sequence; the first sessions are slow readers
+        clientOutbound.subscribe(message -> {
+            if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+                return; // CONNECT_ACK
+            }
+            int session = Integer.parseInt(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+            if (session < SLOW_SESSIONS) {
+                sleep(2);
+                return;
+            }
+            Frame frame = (Frame) message.getPayload();
+            if (frame.seq() <= lastSeq.getAndSet(session, frame.seq())) {
+                outOfOrder.incrementAndGet();
+            }
+            delivery.record(System.nanoTime() - frame.sentAtNanos(), TimeUnit.NANOSECONDS);
+            if (frame.seq() == MESSAGES_PER_TOPIC - 1) {
+                fastSessionsDone.countDown();
+            }
+        });
+        for (int i = 0; i < SESSIONS; i++) {
+            SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+            connect.setSessionId(Integer.toString(i));
+            clientInbound.send(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+            if (i < SLOW_SESSIONS) {
+                for (int topic = i; topic < TOPICS; topic += SLOW_SESSIONS) {
+                    subscribe(clientInbound, i, topic);
+                }
+            } else {
+                subscribe(clientInbound, i, i % TOPICS);
+            }
+        }
+
+        long start = System.nanoTime();
+        List<Thread> publishers = new ArrayList<>();
+        for (int p = 0; p < PUBLISHERS; p++) {
+            int publisher = p;
+            Thread thread = new Thread(() -> {
+                for (int seq = 0; seq < MESSAGES_PER_TOPIC; seq++) {
+                    for (int topic = publisher; topic < TOPICS; topic += PUBLISHERS) {
+                        brokerChannel.send(message("/topic/job." + topic, new Frame(seq, System.nanoTime())));
+                    }
+                }
+            });
+            publishers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : publishers) {
+            thread.join();
+        }
+        assertTrue(fastSessionsDone.await(60, TimeUnit.SECONDS), "sessions still waiting: " + fastSessionsDone.getCount());
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long deliveries = (long) (SESSIONS - SLOW_SESSIONS) * MESSAGES_PER_TOPIC;
+        System.out.printf("%,d deliveries to %,d sessions in %.2f s (%,.0f/s); latency %s; slow-session drops %,.0f%n",
+                deliveries, SESSIONS - SLOW_SESSIONS, seconds, deliveries / seconds,
+                percentiles(delivery), meterRegistry.get("websocket.session.dropped").counter().count());
+        assertEquals(0, outOfOrder.get());
+        for (int i = SLOW_SESSIONS; i < SESSIONS; i++) {
+            assertEquals(MESSAGES_PER_TOPIC - 1, lastSeq.get(i));
+        }
+        assertTrue(meterRegistry.get("websocket.session.dropped").counter().count() > 0);
+
+        broker.stop();
+        lanes.destroy();
+        outbound.destroy();
+    }
+
+    @Test
+    void shouldCloseASessionThatFallsBehindUnderTheDisconnectPolicy() throws Exception {
+        SessionOutboundExecutor outbound = new SessionOutboundExecutor(new SimpleMeterRegistry(), 1, 4,
+                SessionOutboundExecutor.Overflow.DISCONNECT);
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("7");
+        outbound.decorate(mock(WebSocketHandler.class)).afterConnectionEstablished(session);
+        CountDownLatch unblock = new CountDownLatch(1);
+        ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel(outbound);
+        clientOutbound.subscribe(message -> await(unblock)); // The client stops reading
+
+        for (int i = 0; i < 10; i++) {
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setSessionId("7");
+            headers.setDestination("/topic/job.1");
+            clientOutbound.send(MessageBuilder.createMessage(new Frame(i, 0), headers.getMessageHeaders()));
+        }
+
+        verify(session, timeout(1_000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(0, outbound.sessionCount());
+        unblock.countDown();
+        outbound.destroy();
+    }
+
+    private static void subscribe(ExecutorSubscribableChannel clientInbound, int session, int topic) {
+        SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        subscribe.setSessionId(Integer.toString(session));
+        subscribe.setSubscriptionId("sub-" + topic);
+        subscribe.setDestination("/topic/job." + topic);
+        clientInbound.send(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+    }
+
+    private static Message<Frame> message(String destination, Frame frame) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setDestination(destination);
+        return MessageBuilder.createMessage(frame, headers.getMessageHeaders());
+    }
+
+    private static String percentiles(Timer timer) {
+        StringBuilder text = new StringBuilder();
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            text.append(String.format("p%.0f %.1f ms ", value.percentile() * 100, value.value(TimeUnit.MILLISECONDS)));
+        }
+        return text.toString().trim();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
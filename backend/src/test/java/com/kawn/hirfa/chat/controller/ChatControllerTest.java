@@ -0,0 +1,78 @@
+package com.kawn.hirfa.chat.controller;
+
+import com.kawn.hirfa.auth.domain.User;
+import com.kawn.hirfa.auth.domain.UserRole;
+import com.kawn.hirfa.auth.repository.UserRepository;
+import com.kawn.hirfa.auth.service.JwtService;
+import com.kawn.hirfa.chat.service.ChatMessagePipeline;
+import com.kawn.hirfa.common.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ChatControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JwtService jwtService;
+    @SpyBean
+    private ChatMessagePipeline chatMessagePipeline;
+
+    private User sender;
+
+    @BeforeEach
+    void setUp() {
+        sender = userRepository.findByPhoneNumber("78000000").orElseGet(() ->
+                userRepository.save(User.builder().phoneNumber("78000000").role(UserRole.CUSTOMER).build()));
+    }
+
+    @Test
+    void shouldAnswerAnAuthenticatedSendOnceTheMessageIsStored() throws Exception {
+        MvcResult started = mockMvc.perform(send("On my way"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // The async re-dispatch passes through the security filters again
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content").value("On my way"));
+    }
+
+    @Test
+    void shouldAnswerServiceUnavailableWhenThePipelineIsFull() throws Exception {
+        doThrow(new ServiceOverloadedException("Too many messages in flight, please retry"))
+                .when(chatMessagePipeline).submit(any());
+
+        mockMvc.perform(send("On my way"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    private MockHttpServletRequestBuilder send(String content) {
+        return post("/api/v1/chat/send")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateToken(sender))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"senderId\":" + sender.getId() + ",\"receiverId\":2,\"jobId\":3,\"content\":\"" + content
+                        + "\"}");
+    }
+}
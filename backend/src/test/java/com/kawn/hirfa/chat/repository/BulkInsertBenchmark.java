@@ -0,0 +1,159 @@
+package com.kawn.hirfa.chat.repository;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second for a burst of chat messages written in one transaction, issuing the
+ * statements Hibernate issues for each id strategy: with IDENTITY every row is its own INSERT
+ * round trip returning the key; with a pooled sequence (allocation 50) there is one sequence
+ * call per 50 ids and the INSERTs go out as JDBC batches of 50.
+ * <p>
+ * Runs against an in-memory H2 database by default. For PostgreSQL, e.g. the one from
+ * docker-compose: {@code -Dbench.jdbcUrl=jdbc:postgresql://localhost:5432/hirfa?reWriteBatchedInserts=true
+ * -Dbench.user=postgres -Dbench.password=...}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    private static final String IDENTITY_TABLE = "bench_chat_identity";
+    private static final String POOLED_TABLE = "bench_chat_pooled";
+    private static final int ALLOCATION_SIZE = 50;
+    private static final int ROWS = 500;
+    private static final String COLUMNS = "sender_id, receiver_id, job_id, content, sent_at";
+
+    private Connection connection;
+    private PreparedStatement identityInsert;
+    private PreparedStatement pooledInsert;
+    private PreparedStatement nextBlock;
+    private long nextId;
+    private long blockEnd;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbcUrl", "jdbc:h2:mem:bench;MODE=PostgreSQL"),
+                System.getProperty("bench.user", "sa"),
+                System.getProperty("bench.password", ""));
+        String columns = "sender_id BIGINT, receiver_id BIGINT, job_id BIGINT, content VARCHAR(255), sent_at TIMESTAMP";
+        try (Statement ddl = connection.createStatement()) {
+            dropTables(ddl);
+            ddl.execute("CREATE TABLE " + IDENTITY_TABLE + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + columns + ")");
+            ddl.execute("CREATE TABLE " + POOLED_TABLE + " (id BIGINT PRIMARY KEY, " + columns + ")");
+            ddl.execute("CREATE SEQUENCE " + POOLED_TABLE + "_seq START WITH 1 INCREMENT BY " + ALLOCATION_SIZE);
+        }
+        connection.setAutoCommit(false);
+        identityInsert = connection.prepareStatement("INSERT INTO " + IDENTITY_TABLE + " (" + COLUMNS
+                + ") VALUES (?, ?, ?, ?, ?)", new String[]{"id"});
+        pooledInsert = connection.prepareStatement("INSERT INTO " + POOLED_TABLE + " (id, " + COLUMNS
+                + ") VALUES (?, ?, ?, ?, ?, ?)");
+        nextBlock = connection.prepareStatement("SELECT nextval('" + POOLED_TABLE + "_seq')");
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("TRUNCATE TABLE " + IDENTITY_TABLE);
+            ddl.execute("TRUNCATE TABLE " + POOLED_TABLE);
+        }
+        connection.commit();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.setAutoCommit(true);
+        try (Statement ddl = connection.createStatement()) {
+            dropTables(ddl);
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long identity() throws SQLException {
+        long last = 0;
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < ROWS; i++) {
+            bind(identityInsert, 1, i, now);
+            identityInsert.executeUpdate();
+            try (ResultSet keys = identityInsert.getGeneratedKeys()) {
+                keys.next();
+                last = keys.getLong(1);
+            }
+        }
+        connection.commit();
+        return last;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long pooledSequence() throws SQLException {
+        long last = 0;
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < ROWS; i++) {
+            last = nextId();
+            pooledInsert.setLong(1, last);
+            bind(pooledInsert, 2, i, now);
+            pooledInsert.addBatch();
+            if (i % ALLOCATION_SIZE == ALLOCATION_SIZE - 1) {
+                pooledInsert.executeBatch();
+            }
+        }
+        pooledInsert.executeBatch();
+        connection.commit();
+        return last;
+    }
+
+    // Each sequence value starts a block of ALLOCATION_SIZE ids handed out in memory
+    private long nextId() throws SQLException {
+        if (nextId == blockEnd) {
+            try (ResultSet rs = nextBlock.executeQuery()) {
+                rs.next();
+                nextId = rs.getLong(1);
+            }
+            blockEnd = nextId + ALLOCATION_SIZE;
+        }
+        return nextId++;
+    }
+
+    private static void bind(PreparedStatement insert, int first, int i, Timestamp now) throws SQLException {
+        insert.setLong(first, 1 + i % 20);
+        insert.setLong(first + 1, 21 + i % 20);
+        insert.setLong(first + 2, i % 10);
+        insert.setString(first + 3, "On my way, I'll be there in about " + i % 60 + " minutes");
+        insert.setTimestamp(first + 4, now);
+    }
+
+    private static void dropTables(Statement ddl) throws SQLException {
+        ddl.execute("DROP TABLE IF EXISTS " + IDENTITY_TABLE);
+        ddl.execute("DROP TABLE IF EXISTS " + POOLED_TABLE);
+        ddl.execute("DROP SEQUENCE IF EXISTS " + POOLED_TABLE + "_seq");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BulkInsertBenchmark.class.getSimpleName())
+                .jvmArgsAppend(
+                        "-Dbench.jdbcUrl=" + System.getProperty("bench.jdbcUrl", "jdbc:h2:mem:bench;MODE=PostgreSQL"),
+                        "-Dbench.user=" + System.getProperty("bench.user", "sa"),
+                        "-Dbench.password=" + System.getProperty("bench.password", ""))
+                .build()).run();
+    }
+}
@@ -0,0 +1,172 @@
+package com.kawn.hirfa.chat.repository;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a job's chat history with 100k messages: the former full load in timestamp order
+ * versus one keyset page of the latest messages and a page from a random point in the history,
+ * all over the (job_id, timestamp, id) index. {@code main} prints bytes of content read per call.
+ * <p>
+ * Runs against an in-memory H2 database by default; see {@link BulkInsertBenchmark} for PostgreSQL.
+ * H2 does not end an index scan at the LIMIT, so there the pages still read every row on one
+ * side of the position and only save the transfer; PostgreSQL walks the index backwards and
+ * stops after the page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ChatHistoryBenchmark {
+
+    // Result reuse would answer repeated identical queries from a cache
+    private static final String DEFAULT_URL = "jdbc:h2:mem:bench;MODE=PostgreSQL;OPTIMIZE_REUSE_RESULTS=0";
+    private static final String TABLE = "bench_chat_messages";
+    private static final int JOBS = 3;
+    private static final int PAGE_SIZE = 50;
+    private static final long JOB_ID = 1;
+    private static final String COLUMNS = "SELECT id, sender_id, receiver_id, content, timestamp FROM " + TABLE;
+
+    @Param({"100000"})
+    public int messagesPerJob;
+
+    private Connection connection;
+    private PreparedStatement fullHistory;
+    private PreparedStatement latestPage;
+    private PreparedStatement olderPage;
+    private Timestamp[] cursorTimestamps;
+    private long[] cursorIds;
+    private int next;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbcUrl", DEFAULT_URL),
+                System.getProperty("bench.user", "sa"),
+                System.getProperty("bench.password", ""));
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS " + TABLE);
+            ddl.execute("CREATE TABLE " + TABLE + " (id BIGINT PRIMARY KEY, sender_id BIGINT, receiver_id BIGINT, "
+                    + "job_id BIGINT, content VARCHAR(255), timestamp TIMESTAMP)");
+        }
+        Random random = new Random(21);
+        long start = Timestamp.valueOf("2026-01-01 08:00:00").getTime();
+        cursorTimestamps = new Timestamp[1024];
+        cursorIds = new long[1024];
+        int stride = messagesPerJob / cursorIds.length; // Cursors spread over the whole history
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + TABLE + " VALUES (?, ?, ?, ?, ?, ?)")) {
+            long id = 0;
+            for (int i = 0; i < messagesPerJob; i++) {
+                // Jobs interleave like concurrent negotiations; about a message a minute each
+                Timestamp timestamp = new Timestamp(start + i * 60_000L + random.nextInt(30_000));
+                for (int job = 1; job <= JOBS; job++) {
+                    insert.setLong(1, ++id);
+                    insert.setLong(2, 10 + i % 2);
+                    insert.setLong(3, 11 - i % 2);
+                    insert.setLong(4, job);
+                    insert.setString(5, "On my way, I'll be there in about " + i % 60 + " minutes");
+                    insert.setTimestamp(6, timestamp);
+                    insert.addBatch();
+                    if (job == JOB_ID && i % stride == 0 && i / stride < cursorIds.length) {
+                        cursorTimestamps[i / stride] = timestamp;
+                        cursorIds[i / stride] = id;
+                    }
+                }
+                if (i % 5_000 == 4_999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE INDEX ON " + TABLE + " (job_id, timestamp, id)");
+            ddl.execute("ANALYZE");
+        }
+
+        fullHistory = connection.prepareStatement(COLUMNS + " WHERE job_id = ? ORDER BY timestamp");
+        latestPage = connection.prepareStatement(COLUMNS + " WHERE job_id = ? ORDER BY timestamp DESC, id DESC LIMIT ?");
+        olderPage = connection.prepareStatement(COLUMNS + " WHERE job_id = ? AND timestamp <= ? AND (timestamp < ? OR id < ?)"
+                + " ORDER BY timestamp DESC, id DESC LIMIT ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS " + TABLE);
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public long fullHistory() throws SQLException {
+        fullHistory.setLong(1, JOB_ID);
+        return read(fullHistory);
+    }
+
+    @Benchmark
+    public long latestPage() throws SQLException {
+        latestPage.setLong(1, JOB_ID);
+        latestPage.setInt(2, PAGE_SIZE + 1);
+        return read(latestPage);
+    }
+
+    @Benchmark
+    public long olderPage() throws SQLException {
+        int c = next++ & 1023;
+        olderPage.setLong(1, JOB_ID);
+        olderPage.setTimestamp(2, cursorTimestamps[c]);
+        olderPage.setTimestamp(3, cursorTimestamps[c]);
+        olderPage.setLong(4, cursorIds[c]);
+        olderPage.setInt(5, PAGE_SIZE + 1);
+        return read(olderPage);
+    }
+
+    // Bytes of message content read, a rough stand-in for the payload size
+    private static long read(PreparedStatement query) throws SQLException {
+        long bytes = 0;
+        try (ResultSet rs = query.executeQuery()) {
+            while (rs.next()) {
+                rs.getLong(1);
+                rs.getLong(2);
+                rs.getLong(3);
+                bytes += rs.getString(4).length();
+                rs.getTimestamp(5);
+            }
+        }
+        return bytes;
+    }
+
+    public static void main(String[] args) throws RunnerException, SQLException {
+        ChatHistoryBenchmark benchmark = new ChatHistoryBenchmark();
+        benchmark.messagesPerJob = 100_000;
+        benchmark.setUp();
+        benchmark.next = benchmark.cursorIds.length / 2;
+        System.out.printf("content bytes per call: full history %,d, latest page %,d, older page %,d%n",
+                benchmark.fullHistory(), benchmark.latestPage(), benchmark.olderPage());
+        benchmark.tearDown();
+        new Runner(new OptionsBuilder()
+                .include(ChatHistoryBenchmark.class.getSimpleName())
+                .jvmArgsAppend(
+                        "-Dbench.jdbcUrl=" + System.getProperty("bench.jdbcUrl", DEFAULT_URL),
+                        "-Dbench.user=" + System.getProperty("bench.user", "sa"),
+                        "-Dbench.password=" + System.getProperty("bench.password", ""))
+                .build()).run();
+    }
+}
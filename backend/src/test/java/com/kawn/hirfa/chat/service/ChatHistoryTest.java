@@ -0,0 +1,94 @@
+package com.kawn.hirfa.chat.service;
+
+import com.kawn.hirfa.chat.domain.ChatMessage;
+import com.kawn.hirfa.chat.dto.ChatMessageView;
+import com.kawn.hirfa.common.api.CursorPage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({ChatService.class, RecentMessageCache.class, SimpleMeterRegistry.class})
+class ChatHistoryTest {
+
+    private static final long JOB_ID = 1L;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private ChatService chatService;
+    @Autowired
+    private RecentMessageCache recentMessages;
+
+    private List<ChatMessage> messages;
+
+    @BeforeEach
+    void setUp() {
+        recentMessages.invalidateAll(); // Rings of the previous test's rolled-back messages
+        Random random = new Random(21);
+        messages = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            ChatMessage message = ChatMessage.builder().senderId(10L + i % 2).receiverId(11L - i % 2)
+                    .jobId(i % 5 == 0 ? 2L : JOB_ID).content("Message " + i).build();
+            entityManager.persist(message);
+            messages.add(message);
+        }
+        entityManager.flush();
+        // Timestamps with plenty of ties, so the id breaks them
+        LocalDateTime base = LocalDateTime.of(2026, 10, 1, 8, 0);
+        for (ChatMessage message : messages) {
+            LocalDateTime timestamp = base.plusSeconds(random.nextInt(60));
+            entityManager.createQuery("UPDATE ChatMessage m SET m.timestamp = :timestamp WHERE m.id = :id")
+                    .setParameter("timestamp", timestamp)
+                    .setParameter("id", message.getId())
+                    .executeUpdate();
+            message.setTimestamp(timestamp);
+        }
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldPageHistoryNewestFirstWithoutGapsOrRepeats() {
+        List<Long> expected = messages.stream()
+                .filter(message -> message.getJobId() == JOB_ID)
+                .sorted(Comparator.comparing(ChatMessage::getTimestamp).thenComparing(ChatMessage::getId).reversed())
+                .map(ChatMessage::getId)
+                .toList();
+
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<ChatMessageView> page = chatService.getHistory(JOB_ID, 37, cursor);
+            assertTrue(page.items().size() <= 37);
+            page.items().forEach(message -> walked.add(message.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    void shouldReturnTheLatestMessagesFirst() {
+        CursorPage<ChatMessageView> page = chatService.getHistory(JOB_ID, 1, null);
+
+        ChatMessage latest = messages.stream()
+                .filter(message -> message.getJobId() == JOB_ID)
+                .max(Comparator.comparing(ChatMessage::getTimestamp).thenComparing(ChatMessage::getId))
+                .orElseThrow();
+        assertEquals(latest.getId(), page.items().get(0).id());
+        assertEquals(latest.getContent(), page.items().get(0).content());
+        assertNotNull(page.nextCursor());
+    }
+}
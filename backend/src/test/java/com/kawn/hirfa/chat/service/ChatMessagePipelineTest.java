@@ -0,0 +1,151 @@
+package com.kawn.hirfa.chat.service;
+
+import com.kawn.hirfa.chat.domain.ChatMessage;
+import com.kawn.hirfa.chat.dto.SendMessageRequest;
+import com.kawn.hirfa.chat.repository.ChatMessageIds;
+import com.kawn.hirfa.chat.repository.ChatMessageRepository;
+import com.kawn.hirfa.common.exception.InvalidOperationException;
+import com.kawn.hirfa.common.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// The writer commits on its own thread, so the test runs outside a rolled-back transaction
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChatMessagePipelineTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final RecentMessageCache recentMessages = new RecentMessageCache(new SimpleMeterRegistry(), true, 10,
+            DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+
+    @AfterEach
+    void tearDown() {
+        chatMessageRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void shouldBroadcastOnArrivalAndStoreInOrder() throws Exception {
+        ChatMessagePipeline pipeline = pipeline(100);
+        List<CompletableFuture<ChatMessage>> stored = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            stored.add(pipeline.submit(request(1L, "Message " + i)));
+        }
+
+        // Broadcast before anything is written, with ids increasing in arrival order
+        ArgumentCaptor<ChatMessage> broadcast = ArgumentCaptor.forClass(ChatMessage.class);
+        verify(messagingTemplate, times(5)).convertAndSend(eq("/topic/job.1"), broadcast.capture());
+        assertEquals(0, chatMessageRepository.count());
+        for (int i = 1; i < 5; i++) {
+            assertTrue(broadcast.getAllValues().get(i).getId() > broadcast.getAllValues().get(i - 1).getId());
+        }
+
+        pipeline.drain();
+
+        assertEquals(5, chatMessageRepository.count());
+        for (int i = 0; i < 5; i++) {
+            ChatMessage message = stored.get(i).get(1, TimeUnit.SECONDS);
+            ChatMessage row = chatMessageRepository.findById(message.getId()).orElseThrow();
+            assertEquals("Message " + i, row.getContent());
+            assertEquals(message.getTimestamp(), row.getTimestamp());
+        }
+    }
+
+    @Test
+    void shouldRejectWithoutBroadcastWhenTheQueueIsFull() {
+        ChatMessagePipeline pipeline = pipeline(2);
+        pipeline.submit(request(1L, "First"));
+        pipeline.submit(request(1L, "Second"));
+
+        assertThrows(ServiceOverloadedException.class, () -> pipeline.submit(request(1L, "Third")));
+        verify(messagingTemplate, times(2)).convertAndSend(eq("/topic/job.1"), any(ChatMessage.class));
+    }
+
+    @Test
+    void shouldRejectInvalidMessagesBeforeNumberingOrBroadcasting() {
+        ChatMessagePipeline pipeline = pipeline(100);
+
+        assertThrows(InvalidOperationException.class, () -> pipeline.submit(request(1L, " ")));
+        assertThrows(InvalidOperationException.class, () -> pipeline.submit(request(1L, "x".repeat(1001))));
+        assertThrows(InvalidOperationException.class, () -> pipeline.submit(request(null, "No job")));
+        verifyNoInteractions(messagingTemplate);
+        assertEquals(0, pipeline.queuedCount());
+    }
+
+    @Test
+    void shouldDropOnlyTheRowsThatCannotBeStored() {
+        // Lets an over-long message through, as if it had slipped past validation
+        ChatMessagePipeline pipeline = pipeline(100, mock(Validator.class));
+        CompletableFuture<ChatMessage> ok = pipeline.submit(request(1L, "Fine"));
+        CompletableFuture<ChatMessage> tooLong = pipeline.submit(request(1L, "x".repeat(1001)));
+
+        pipeline.drain();
+
+        assertTrue(ok.isDone() && !ok.isCompletedExceptionally());
+        assertThrows(ExecutionException.class, tooLong::get);
+        assertEquals(1, chatMessageRepository.count());
+    }
+
+    @Test
+    void shouldDrainOnStopAndRefuseNewMessages() {
+        ChatMessagePipeline pipeline = pipeline(1_000);
+        pipeline.start();
+        List<CompletableFuture<ChatMessage>> stored = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            stored.add(pipeline.submit(request(1L + i % 3, "Message " + i)));
+        }
+        pipeline.stop();
+
+        assertFalse(pipeline.isRunning());
+        assertEquals(0, pipeline.queuedCount());
+        assertTrue(stored.stream().allMatch(f -> f.isDone() && !f.isCompletedExceptionally()));
+        assertEquals(300, chatMessageRepository.count());
+        assertThrows(ServiceOverloadedException.class, () -> pipeline.submit(request(1L, "Late")));
+    }
+
+    private ChatMessagePipeline pipeline(int queueCapacity) {
+        return pipeline(queueCapacity, Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    private ChatMessagePipeline pipeline(int queueCapacity, Validator validator) {
+        return new ChatMessagePipeline(new ChatMessageIds(entityManagerFactory), validator, jdbcTemplate,
+                transactionManager, messagingTemplate, recentMessages, new SimpleMeterRegistry(), queueCapacity, 50,
+                Duration.ofSeconds(10));
+    }
+
+    private static SendMessageRequest request(Long jobId, String content) {
+        return new SendMessageRequest(10L, 11L, jobId, content, null);
+    }
+}
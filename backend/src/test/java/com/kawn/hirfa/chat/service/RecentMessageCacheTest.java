@@ -0,0 +1,104 @@
+package com.kawn.hirfa.chat.service;
+
+import com.kawn.hirfa.chat.domain.ChatMessage;
+import com.kawn.hirfa.chat.dto.ChatMessageView;
+import com.kawn.hirfa.common.api.CursorPage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentMessageCacheTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 10, 1, 8, 0);
+
+    private RecentMessageCache cache;
+    private AtomicInteger loads;
+    private int messagesInDatabase;
+    private RecentMessageCache.Loader loader;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RecentMessageCache(new SimpleMeterRegistry(), true, 10, DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+        loads = new AtomicInteger();
+        messagesInDatabase = 6;
+        // Messages 1..n of the job, one a second; the loader returns the newest first
+        loader = (jobId, limit) -> {
+            loads.incrementAndGet();
+            List<ChatMessageView> latest = new ArrayList<>();
+            for (long id = messagesInDatabase; id >= 1 && latest.size() < limit; id--) {
+                latest.add(view(id));
+            }
+            return latest;
+        };
+    }
+
+    @Test
+    void shouldLoadOnceAndServeShortHistoriesWhole() {
+        CursorPage<ChatMessageView> first = cache.latestPage(1L, 4, loader);
+        CursorPage<ChatMessageView> all = cache.latestPage(1L, 50, loader);
+
+        assertEquals(1, loads.get());
+        assertEquals(List.of(6L, 5L, 4L, 3L), first.items().stream().map(ChatMessageView::id).toList());
+        assertNotNull(first.nextCursor());
+        assertEquals(6, all.items().size());
+        assertNull(all.nextCursor());
+    }
+
+    @Test
+    void shouldDeferToTheDatabaseWhenTheRingCannotTell() {
+        messagesInDatabase = 25;
+
+        assertNotNull(cache.latestPage(1L, 9, loader));
+        // The ring holds the newest 10 of 25: a page of 10 cannot tell whether more exist
+        assertNull(cache.latestPage(1L, 10, loader));
+    }
+
+    @Test
+    void shouldAppendStoredMessagesAndDropRingsOnGaps() {
+        cache.latestPage(1L, 5, loader);
+
+        cache.messageStored(message(7L));
+        cache.messageStored(message(7L)); // Committed while the ring was loading
+        assertEquals(List.of(7L, 6L, 5L), cache.latestPage(1L, 3, loader).items().stream()
+                .map(ChatMessageView::id).toList());
+        assertEquals(1, loads.get());
+
+        cache.messageStored(message(100L, 2)); // Older than the newest, not in the ring
+        cache.latestPage(1L, 3, loader);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldStayWithinTheByteBudget() {
+        cache = new RecentMessageCache(new SimpleMeterRegistry(), true, 10, DataSize.ofKilobytes(16), Duration.ofMinutes(1));
+        messagesInDatabase = 10;
+        for (long jobId = 1; jobId <= 100; jobId++) {
+            cache.latestPage(jobId, 5, loader);
+        }
+
+        // A ring of ten short messages weighs about 2 KB
+        assertTrue(cache.size() <= 8, "rings kept: " + cache.size());
+    }
+
+    private static ChatMessageView view(long id) {
+        return new ChatMessageView(id, 10L, 11L, "Message " + id, BASE.plusSeconds(id));
+    }
+
+    private static ChatMessage message(long id) {
+        return message(id, id);
+    }
+
+    private static ChatMessage message(long id, long second) {
+        return ChatMessage.builder().id(id).senderId(10L).receiverId(11L).jobId(1L).content("Message " + id)
+                .timestamp(BASE.plusSeconds(second)).build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.kawn.hirfa.common.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission decision cost under concurrency: one hot bucket shared by all threads (worst-case
+ * CAS contention) and the filter's path of looking a client's bucket up among many clients.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class TokenBucketBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int clients;
+
+    private TokenBucket hotBucket;
+    private Cache<String, TokenBucket> buckets;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        hotBucket = new TokenBucket(1_000, 1_000_000);
+        buckets = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+        keys = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            keys[i] = "WRITE|ip:10.0." + (i >> 8) + "." + (i & 0xff);
+        }
+    }
+
+    @Benchmark
+    public boolean hotBucket() {
+        return hotBucket.tryAcquire();
+    }
+
+    @Benchmark
+    public boolean perClientLookup() {
+        String key = keys[ThreadLocalRandom.current().nextInt(clients)];
+        return buckets.get(key, k -> new TokenBucket(30, 5)).tryAcquire();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenBucketBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,70 @@
+package com.kawn.hirfa.common.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void shouldAllowBurstUpToCapacityThenRefillAtRate() {
+        TokenBucket bucket = new TokenBucket(3, 1.0);
+        long now = 0;
+
+        assertTrue(bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now));
+        assertFalse(bucket.tryAcquire(now));
+        assertEquals(SECOND, bucket.nanosUntilNextPermit(now));
+
+        assertTrue(bucket.tryAcquire(now + SECOND));
+        assertFalse(bucket.tryAcquire(now + SECOND));
+    }
+
+    @Test
+    void shouldNotAccumulateMoreThanCapacityWhileIdle() {
+        TokenBucket bucket = new TokenBucket(2, 10.0);
+        long later = 3600 * SECOND;
+
+        assertTrue(bucket.tryAcquire(later));
+        assertTrue(bucket.tryAcquire(later));
+        assertFalse(bucket.tryAcquire(later));
+    }
+
+    @Test
+    void shouldGrantExactlyCapacityUnderContention() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100, 0.001);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        long now = System.nanoTime();
+
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < 1000; i++) {
+                    if (bucket.tryAcquire(now)) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(100, granted.get());
+    }
+}
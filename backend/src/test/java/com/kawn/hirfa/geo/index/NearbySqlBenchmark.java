@@ -0,0 +1,120 @@
+package com.kawn.hirfa.geo.index;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The PostGIS side of {@link ProviderSpatialIndexBenchmark}: the same data set and queries run
+ * through an {@code ST_DWithin} query over a GiST index, as the fallback repository path does.
+ * Needs a PostGIS database, e.g. the one from docker-compose:
+ * {@code -Dbench.jdbcUrl=jdbc:postgresql://localhost:5432/hirfa -Dbench.user=postgres -Dbench.password=...}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearbySqlBenchmark {
+
+    private static final String TABLE = "bench_provider_locations";
+
+    @Param({"10000", "100000", "1000000"})
+    public int providers;
+
+    @Param({"2000"})
+    public double radiusMeters;
+
+    private Connection connection;
+    private PreparedStatement query;
+    private double[] queryLats;
+    private double[] queryLons;
+    private int next;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbcUrl", "jdbc:postgresql://localhost:5432/hirfa"),
+                System.getProperty("bench.user", "postgres"),
+                System.getProperty("bench.password", "postgres"));
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS " + TABLE);
+            ddl.execute("CREATE TABLE " + TABLE + " (user_id BIGINT PRIMARY KEY, location geometry(Point, 4326))");
+        }
+        Random random = new Random(7);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + TABLE + " VALUES (?, ST_SetSRID(ST_MakePoint(?, ?), 4326))")) {
+            for (int i = 0; i < providers; i++) {
+                double[] position = ProviderSpatialIndexBenchmark.samplePosition(random);
+                insert.setLong(1, i);
+                insert.setDouble(2, position[1]);
+                insert.setDouble(3, position[0]);
+                insert.addBatch();
+                if (i % 5_000 == 4_999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE INDEX ON " + TABLE + " USING GIST ((location::geography))");
+            ddl.execute("ANALYZE " + TABLE);
+        }
+
+        query = connection.prepareStatement("SELECT user_id FROM " + TABLE
+                + " WHERE ST_DWithin(location::geography, ST_SetSRID(ST_MakePoint(?, ?), 4326)::geography, ?)");
+        queryLats = new double[1024];
+        queryLons = new double[1024];
+        for (int i = 0; i < queryLats.length; i++) {
+            queryLats[i] = ProviderSpatialIndexBenchmark.TUNIS_LAT + random.nextGaussian() * 0.02;
+            queryLons[i] = ProviderSpatialIndexBenchmark.TUNIS_LON + random.nextGaussian() * 0.02;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS " + TABLE);
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int sqlRadius() throws SQLException {
+        int q = next++ & 1023;
+        query.setDouble(1, queryLons[q]);
+        query.setDouble(2, queryLats[q]);
+        query.setDouble(3, radiusMeters);
+        int count = 0;
+        try (ResultSet rs = query.executeQuery()) {
+            while (rs.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NearbySqlBenchmark.class.getSimpleName())
+                .jvmArgsAppend(
+                        "-Dbench.jdbcUrl=" + System.getProperty("bench.jdbcUrl", "jdbc:postgresql://localhost:5432/hirfa"),
+                        "-Dbench.user=" + System.getProperty("bench.user", "postgres"),
+                        "-Dbench.password=" + System.getProperty("bench.password", "postgres"))
+                .build()).run();
+    }
+}
@@ -0,0 +1,98 @@
+package com.kawn.hirfa.geo.index;
+
+import com.kawn.hirfa.geo.support.GeoMath;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearby-provider query cost on the in-memory grid versus a linear scan of the same points.
+ * Half of the providers are packed around central Tunis, the rest spread over the country,
+ * and queries are issued from the dense center. See {@link NearbySqlBenchmark} for the
+ * PostGIS side of the comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ProviderSpatialIndexBenchmark {
+
+    static final double TUNIS_LAT = 36.8065;
+    static final double TUNIS_LON = 10.1815;
+
+    @Param({"10000", "100000", "1000000"})
+    public int providers;
+
+    @Param({"2000"})
+    public double radiusMeters;
+
+    private ProviderSpatialIndex index;
+    private double[] lats;
+    private double[] lons;
+    private double[] queryLats;
+    private double[] queryLons;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        index = new ProviderSpatialIndex(0.01);
+        lats = new double[providers];
+        lons = new double[providers];
+        for (int i = 0; i < providers; i++) {
+            double[] position = samplePosition(random);
+            lats[i] = position[0];
+            lons[i] = position[1];
+            index.update(i, lats[i], lons[i]);
+        }
+        queryLats = new double[1024];
+        queryLons = new double[1024];
+        for (int i = 0; i < queryLats.length; i++) {
+            queryLats[i] = TUNIS_LAT + random.nextGaussian() * 0.02;
+            queryLons[i] = TUNIS_LON + random.nextGaussian() * 0.02;
+        }
+    }
+
+    static double[] samplePosition(Random random) {
+        if (random.nextBoolean()) {
+            return new double[]{TUNIS_LAT + random.nextGaussian() * 0.05, TUNIS_LON + random.nextGaussian() * 0.05};
+        }
+        return new double[]{30.5 + random.nextDouble() * 7, 7.8 + random.nextDouble() * 3.5};
+    }
+
+    @Benchmark
+    public int indexRadius() {
+        int q = next++ & 1023;
+        return index.withinRadius(queryLats[q], queryLons[q], radiusMeters).size();
+    }
+
+    @Benchmark
+    public int indexNearest20() {
+        int q = next++ & 1023;
+        return index.nearest(queryLats[q], queryLons[q], 20, 50_000).size();
+    }
+
+    @Benchmark
+    public int linearScanRadius() {
+        int q = next++ & 1023;
+        int count = 0;
+        for (int i = 0; i < providers; i++) {
+            if (GeoMath.haversineMeters(queryLats[q], queryLons[q], lats[i], lons[i]) <= radiusMeters) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProviderSpatialIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,110 @@
+package com.kawn.hirfa.geo.index;
+
+import com.kawn.hirfa.geo.support.GeoMath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderSpatialIndexTest {
+
+    private static final double TUNIS_LAT = 36.8065;
+    private static final double TUNIS_LON = 10.1815;
+
+    private ProviderSpatialIndex index;
+    private double[] lats;
+    private double[] lons;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProviderSpatialIndex(0.01);
+        Random random = new Random(42);
+        lats = new double[5_000];
+        lons = new double[5_000];
+        for (int i = 0; i < lats.length; i++) {
+            lats[i] = TUNIS_LAT + (random.nextDouble() - 0.5) * 0.5;
+            lons[i] = TUNIS_LON + (random.nextDouble() - 0.5) * 0.5;
+            index.update(i, lats[i], lons[i]);
+        }
+    }
+
+    @Test
+    void shouldMatchBruteForceRadiusSearch() {
+        List<ProviderSpatialIndex.Hit> hits = index.withinRadius(TUNIS_LAT, TUNIS_LON, 3_000);
+
+        List<Integer> expected = IntStream.range(0, lats.length)
+                .filter(i -> GeoMath.haversineMeters(TUNIS_LAT, TUNIS_LON, lats[i], lons[i]) <= 3_000)
+                .boxed()
+                .sorted(Comparator.comparingDouble(i -> GeoMath.haversineMeters(TUNIS_LAT, TUNIS_LON, lats[i], lons[i])))
+                .toList();
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, hits.stream().map(hit -> (int) hit.providerId()).toList());
+    }
+
+    @Test
+    void shouldMatchBruteForceNearestSearch() {
+        List<ProviderSpatialIndex.Hit> hits = index.nearest(TUNIS_LAT + 0.1, TUNIS_LON - 0.07, 25, 50_000);
+
+        List<Integer> expected = IntStream.range(0, lats.length)
+                .boxed()
+                .sorted(Comparator.comparingDouble(i -> GeoMath.haversineMeters(TUNIS_LAT + 0.1, TUNIS_LON - 0.07, lats[i], lons[i])))
+                .limit(25)
+                .toList();
+
+        assertEquals(expected, hits.stream().map(hit -> (int) hit.providerId()).toList());
+    }
+
+    @Test
+    void shouldPageThroughRadiusResultsWithoutGapsOrDuplicates() {
+        index.update(lats.length, lats[0], lons[0]); // Same distance as provider 0, larger id
+        List<ProviderSpatialIndex.Hit> all = index.withinRadius(TUNIS_LAT, TUNIS_LON, 3_000);
+
+        List<ProviderSpatialIndex.Hit> paged = new ArrayList<>();
+        double afterDistance = -1;
+        long afterId = Long.MIN_VALUE;
+        List<ProviderSpatialIndex.Hit> page;
+        do {
+            page = index.nearestAfter(TUNIS_LAT, TUNIS_LON, 7, 3_000, afterDistance, afterId);
+            paged.addAll(page);
+            if (!page.isEmpty()) {
+                afterDistance = page.get(page.size() - 1).distanceMeters();
+                afterId = page.get(page.size() - 1).providerId();
+            }
+        } while (page.size() == 7);
+
+        assertEquals(all, paged);
+    }
+
+    @Test
+    void shouldMoveAndRemoveProviders() {
+        index.update(1, TUNIS_LAT + 1, TUNIS_LON + 1);
+
+        assertEquals(TUNIS_LAT + 1, index.position(1).lat());
+        assertTrue(index.withinRadius(TUNIS_LAT + 1, TUNIS_LON + 1, 10).stream().anyMatch(hit -> hit.providerId() == 1));
+        assertEquals(lats.length, index.size());
+
+        assertTrue(index.remove(1));
+        assertNull(index.position(1));
+        assertTrue(index.withinRadius(TUNIS_LAT + 1, TUNIS_LON + 1, 10).isEmpty());
+        assertEquals(lats.length - 1, index.size());
+    }
+
+    @Test
+    void shouldReturnFewerThanKWhenRadiusIsTight() {
+        ProviderSpatialIndex sparse = new ProviderSpatialIndex(0.01);
+        sparse.update(1, TUNIS_LAT, TUNIS_LON);
+        sparse.update(2, TUNIS_LAT + 0.5, TUNIS_LON);
+
+        List<ProviderSpatialIndex.Hit> hits = sparse.nearest(TUNIS_LAT, TUNIS_LON, 5, 1_000);
+
+        assertEquals(1, hits.size());
+        assertEquals(1, hits.get(0).providerId());
+    }
+}
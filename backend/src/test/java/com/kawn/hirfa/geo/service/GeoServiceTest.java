@@ -0,0 +1,66 @@
+package com.kawn.hirfa.geo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kawn.hirfa.chat.cluster.ClusterFanout;
+import com.kawn.hirfa.chat.cluster.LoopbackRelay;
+import com.kawn.hirfa.chat.service.RecentMessageCache;
+import com.kawn.hirfa.geo.index.ProviderSpatialIndex;
+import com.kawn.hirfa.geo.repository.ProviderLocationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class GeoServiceTest {
+
+    // One backend node's view of provider positions
+    private record Node(GeoService geoService, ProviderSpatialIndex index, LocationWriteBuffer writeBuffer,
+            NearbyResultCache resultCache, LocationStreamService locationStream) {
+
+        static Node on(LoopbackRelay.Bus bus) {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            ClusterFanout fanout = new ClusterFanout(new LoopbackRelay(bus), mock(SimpMessagingTemplate.class),
+                    new RecentMessageCache(meterRegistry, false, 10, DataSize.ofMegabytes(1), Duration.ofMinutes(1)),
+                    new ObjectMapper(), meterRegistry);
+            ProviderSpatialIndex index = new ProviderSpatialIndex(0.01);
+            LocationWriteBuffer writeBuffer = mock(LocationWriteBuffer.class);
+            NearbyResultCache resultCache = mock(NearbyResultCache.class);
+            LocationStreamService locationStream = mock(LocationStreamService.class);
+            GeoService geoService = new GeoService(mock(ProviderLocationRepository.class), index, writeBuffer,
+                    resultCache, mock(NearbyProviderQueries.class), locationStream, fanout);
+            ReflectionTestUtils.setField(geoService, "indexEnabled", true);
+            geoService.listenToOtherNodes();
+            return new Node(geoService, index, writeBuffer, resultCache, locationStream);
+        }
+    }
+
+    @Test
+    void shouldApplyPingsTakenByOtherNodes() {
+        LoopbackRelay.Bus bus = new LoopbackRelay.Bus();
+        Node a = Node.on(bus);
+        Node b = Node.on(bus);
+
+        a.geoService().updateLocation(7L, 36.8065, 10.1815);
+        a.geoService().updateLocation(7L, 36.8165, 10.1815);
+
+        ProviderSpatialIndex.Hit onB = b.index().position(7L);
+        assertEquals(36.8165, onB.lat(), 1e-9);
+        assertEquals(1, b.index().withinRadius(36.8165, 10.1815, 100).size());
+        verify(b.locationStream()).providerMoved(eq(7L), isNull(), eq(36.8065), eq(10.1815));
+        verify(b.locationStream()).providerMoved(eq(7L), notNull(), eq(36.8165), eq(10.1815));
+        verify(b.resultCache(), times(2)).providerMoved(any(), anyDouble(), anyDouble());
+        // Only the node that took the ping writes it, and it does not apply its own event twice
+        verify(a.writeBuffer(), times(2)).submit(eq(7L), anyDouble(), anyDouble());
+        verifyNoInteractions(b.writeBuffer());
+        verify(a.locationStream(), times(2)).providerMoved(anyLong(), any(), anyDouble(), anyDouble());
+    }
+}
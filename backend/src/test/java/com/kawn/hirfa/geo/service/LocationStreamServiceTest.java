@@ -0,0 +1,108 @@
+package com.kawn.hirfa.geo.service;
+
+import com.kawn.hirfa.geo.dto.LocationDelta;
+import com.kawn.hirfa.geo.dto.TileUpdate;
+import com.kawn.hirfa.geo.index.ProviderSpatialIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LocationStreamServiceTest {
+
+    private static final double TUNIS_LAT = 36.8065;
+    private static final double TUNIS_LON = 10.1815;
+
+    private SimpMessagingTemplate messagingTemplate;
+    private LocationStreamService stream;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        stream = new LocationStreamService(messagingTemplate, new SimpleMeterRegistry(), 0.01, 64);
+    }
+
+    @Test
+    void shouldCoalescePingsIntoOneFramePerTick() {
+        String topic = topicOf(TUNIS_LAT, TUNIS_LON);
+        subscribe("s1", "sub-1", topic);
+
+        stream.providerMoved(7L, null, TUNIS_LAT, TUNIS_LON);
+        stream.providerMoved(7L, hit(7L, TUNIS_LAT, TUNIS_LON), TUNIS_LAT + 0.0001, TUNIS_LON);
+        stream.providerMoved(7L, hit(7L, TUNIS_LAT + 0.0001, TUNIS_LON), TUNIS_LAT + 0.0002, TUNIS_LON);
+        stream.publish();
+        stream.publish();
+
+        ArgumentCaptor<Object> frame = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(1)).convertAndSend(eq(topic), frame.capture());
+        TileUpdate update = (TileUpdate) frame.getValue();
+        assertEquals(1, update.sequence());
+        assertEquals(List.of(new LocationDelta(7L, LocationDelta.Type.ENTER, TUNIS_LAT + 0.0002, TUNIS_LON)),
+                update.deltas());
+    }
+
+    @Test
+    void shouldSendLeaveAndEnterWhenCrossingTiles() {
+        double northLat = TUNIS_LAT + 0.02;
+        subscribe("s1", "sub-1", topicOf(TUNIS_LAT, TUNIS_LON));
+        subscribe("s1", "sub-2", topicOf(northLat, TUNIS_LON));
+
+        stream.providerMoved(7L, hit(7L, TUNIS_LAT, TUNIS_LON), northLat, TUNIS_LON);
+        stream.publish();
+
+        ArgumentCaptor<Object> left = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSend(eq(topicOf(TUNIS_LAT, TUNIS_LON)), left.capture());
+        assertEquals(List.of(LocationDelta.leave(7L)), ((TileUpdate) left.getValue()).deltas());
+        ArgumentCaptor<Object> entered = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSend(eq(topicOf(northLat, TUNIS_LON)), entered.capture());
+        assertEquals(LocationDelta.Type.ENTER, ((TileUpdate) entered.getValue()).deltas().get(0).type());
+    }
+
+    @Test
+    void shouldStopPublishingOnceTheLastSubscriberDisconnects() {
+        subscribe("s1", "sub-1", topicOf(TUNIS_LAT, TUNIS_LON));
+        stream.onDisconnect(new SessionDisconnectEvent(this, message(SimpMessageType.DISCONNECT, "s1", null, null),
+                "s1", null));
+
+        stream.providerMoved(7L, null, TUNIS_LAT, TUNIS_LON);
+        stream.publish();
+
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    private String topicOf(double lat, double lon) {
+        return stream.viewportTopics(lat, lon, lat, lon).topics().get(0);
+    }
+
+    private void subscribe(String session, String subscription, String destination) {
+        stream.onSubscribe(new SessionSubscribeEvent(this,
+                message(SimpMessageType.SUBSCRIBE, session, subscription, destination)));
+    }
+
+    private static Message<byte[]> message(SimpMessageType type, String session, String subscription, String destination) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(type);
+        headers.setSessionId(session);
+        headers.setSubscriptionId(subscription);
+        headers.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+    }
+
+    private static ProviderSpatialIndex.Hit hit(long id, double lat, double lon) {
+        return new ProviderSpatialIndex.Hit(id, lat, lon, 0);
+    }
+}
@@ -0,0 +1,76 @@
+package com.kawn.hirfa.geo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationWriteBufferTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private LocationWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:location-buffer;DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE provider_locations ("
+                + "user_id BIGINT PRIMARY KEY, location GEOMETRY(POINT, 4326), geocell BIGINT, last_updated TIMESTAMP)");
+        buffer = new LocationWriteBuffer(jdbcTemplate, new SimpleMeterRegistry(), Duration.ofHours(1), 100, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE provider_locations");
+    }
+
+    @Test
+    void shouldKeepOnlyTheLatestPingPerProvider() {
+        buffer.submit(1L, 36.80, 10.18);
+        buffer.submit(1L, 36.81, 10.19);
+        buffer.submit(2L, 36.70, 10.10);
+
+        assertEquals(2, buffer.pendingCount());
+        assertEquals(36.81, buffer.latest(1L).lat());
+        assertEquals(0, count());
+    }
+
+    @Test
+    void shouldInsertNewRowsAndUpdateExistingOnes() {
+        jdbcTemplate.update("INSERT INTO provider_locations (user_id, location) VALUES (1, CAST('SRID=4326;POINT(0 0)' AS geometry))");
+
+        buffer.submit(1L, 36.81, 10.19);
+        buffer.submit(2L, 36.70, 10.10);
+        buffer.submit(3L, 36.60, 10.00);
+        buffer.flush();
+
+        assertEquals(0, buffer.pendingCount());
+        assertNull(buffer.latest(1L));
+        assertEquals(3, count());
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT CAST(location AS VARCHAR) AS ewkt, last_updated FROM provider_locations WHERE user_id = 1");
+        assertEquals("SRID=4326;POINT (10.19 36.81)", row.get("EWKT"));
+        assertNotNull(row.get("LAST_UPDATED"));
+    }
+
+    @Test
+    void shouldFlushOnStop() {
+        buffer.start();
+        buffer.submit(4L, 36.80, 10.18);
+        buffer.stop();
+
+        assertFalse(buffer.isRunning());
+        assertEquals(1, count());
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM provider_locations", Integer.class);
+    }
+}
@@ -0,0 +1,162 @@
+package com.kawn.hirfa.geo.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kawn.hirfa.auth.domain.User;
+import com.kawn.hirfa.auth.domain.UserRole;
+import com.kawn.hirfa.common.api.CursorPage;
+import com.kawn.hirfa.geo.domain.ProviderLocation;
+import com.kawn.hirfa.geo.dto.NearbyProviderResponse;
+import com.kawn.hirfa.geo.index.ProviderSpatialIndex;
+import com.kawn.hirfa.geo.support.NearbyCursor;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response size and latency distribution of /geo/nearby in a dense city center: the former
+ * entity listing (every provider in the radius with its User) versus one page of
+ * {@link NearbyProviderResponse}. Database lookups are replaced by in-memory maps on both sides,
+ * so this isolates query, mapping and serialization cost. {@code main} prints payload sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class NearbyPayloadBenchmark {
+
+    static final double TUNIS_LAT = 36.8065;
+    static final double TUNIS_LON = 10.1815;
+    static final double RADIUS_METERS = 5_000;
+    static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000"})
+    public int providers;
+
+    private ProviderSpatialIndex index;
+    private ProviderLocation[] entities;
+    private String[] names;
+    private Double[] ratings;
+    private ObjectMapper objectMapper;
+    private double[] queryLats;
+    private double[] queryLons;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(11);
+        GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
+        index = new ProviderSpatialIndex(0.01);
+        entities = new ProviderLocation[providers];
+        names = new String[providers];
+        ratings = new Double[providers];
+        for (int i = 0; i < providers; i++) {
+            double lat = TUNIS_LAT + random.nextGaussian() * 0.05;
+            double lon = TUNIS_LON + random.nextGaussian() * 0.05;
+            index.update(i, lat, lon);
+            names[i] = "Provider " + i;
+            ratings[i] = random.nextInt(4) == 0 ? null : 1 + random.nextInt(400) / 100.0;
+            User user = User.builder()
+                    .id((long) i)
+                    .phoneNumber("55" + (100000 + i))
+                    .fullName(names[i])
+                    .role(UserRole.PROVIDER)
+                    .badges(Set.of("TOP_RATED", "FAST_RESPONDER"))
+                    .verified(true)
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .build();
+            entities[i] = ProviderLocation.builder()
+                    .userId((long) i)
+                    .user(user)
+                    .location(geometryFactory.createPoint(new Coordinate(lon, lat)))
+                    .lastUpdated(LocalDateTime.now())
+                    .build();
+        }
+        // The real endpoint could not serialize JTS points at all; emit minimal GeoJSON for them
+        SimpleModule points = new SimpleModule().addSerializer(Point.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(Point point, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+                gen.writeStartObject();
+                gen.writeStringField("type", "Point");
+                gen.writeArrayFieldStart("coordinates");
+                gen.writeNumber(point.getX());
+                gen.writeNumber(point.getY());
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+        });
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule()).registerModule(points);
+        queryLats = new double[1024];
+        queryLons = new double[1024];
+        for (int i = 0; i < queryLats.length; i++) {
+            queryLats[i] = TUNIS_LAT + random.nextGaussian() * 0.02;
+            queryLons[i] = TUNIS_LON + random.nextGaussian() * 0.02;
+        }
+    }
+
+    @Benchmark
+    public byte[] entityListing() throws IOException {
+        int q = next++ & 1023;
+        return objectMapper.writeValueAsBytes(entityListing(queryLats[q], queryLons[q]));
+    }
+
+    @Benchmark
+    public byte[] projectionPage() throws IOException {
+        int q = next++ & 1023;
+        return objectMapper.writeValueAsBytes(projectionPage(queryLats[q], queryLons[q]));
+    }
+
+    private List<ProviderLocation> entityListing(double lat, double lon) {
+        List<ProviderSpatialIndex.Hit> hits = index.withinRadius(lat, lon, RADIUS_METERS);
+        List<ProviderLocation> result = new ArrayList<>(hits.size());
+        hits.forEach(hit -> result.add(entities[(int) hit.providerId()]));
+        result.sort(Comparator.comparingLong(ProviderLocation::getUserId)); // findAllById order
+        return result;
+    }
+
+    private CursorPage<NearbyProviderResponse> projectionPage(double lat, double lon) {
+        List<NearbyProviderResponse> rows = new ArrayList<>(PAGE_SIZE + 1);
+        for (ProviderSpatialIndex.Hit hit : index.nearestAfter(lat, lon, PAGE_SIZE + 1, RADIUS_METERS, -1, Long.MIN_VALUE)) {
+            int id = (int) hit.providerId();
+            rows.add(new NearbyProviderResponse(hit.providerId(), names[id], hit.distanceMeters(), ratings[id],
+                    hit.lat(), hit.lon()));
+        }
+        return CursorPage.fromOverfetch(rows, PAGE_SIZE,
+                row -> new NearbyCursor(row.distanceMeters(), row.providerId()).encode());
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        for (int count : new int[]{10_000, 100_000}) {
+            NearbyPayloadBenchmark benchmark = new NearbyPayloadBenchmark();
+            benchmark.providers = count;
+            benchmark.setUp();
+            System.out.printf("providers=%d entity listing: %,d bytes, projection page: %,d bytes%n", count,
+                    benchmark.objectMapper.writeValueAsBytes(benchmark.entityListing(TUNIS_LAT, TUNIS_LON)).length,
+                    benchmark.objectMapper.writeValueAsBytes(benchmark.projectionPage(TUNIS_LAT, TUNIS_LON)).length);
+        }
+        new Runner(new OptionsBuilder()
+                .include(NearbyPayloadBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,119 @@
+package com.kawn.hirfa.geo.service;
+
+import com.kawn.hirfa.common.api.CursorPage;
+import com.kawn.hirfa.geo.dto.NearbyProviderResponse;
+import com.kawn.hirfa.geo.index.ProviderSpatialIndex;
+import com.kawn.hirfa.geo.support.GeoMath;
+import com.kawn.hirfa.geo.support.TileGrid;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NearbyResultCacheTest {
+
+    private static final double TUNIS_LAT = 36.8065;
+    private static final double TUNIS_LON = 10.1815;
+    private static final double SFAX_LAT = 34.7406;
+    private static final double SFAX_LON = 10.7603;
+
+    private NearbyResultCache cache;
+    private AtomicInteger loads;
+    private NearbyResultCache.Loader loader;
+
+    @BeforeEach
+    void setUp() {
+        cache = new NearbyResultCache(new SimpleMeterRegistry(), true, 0.001, 500, Duration.ofMinutes(1), 1_000);
+        loads = new AtomicInteger();
+        // One provider 100 m north of the query center
+        loader = (lat, lon, radius) -> {
+            loads.incrementAndGet();
+            return new CursorPage<>(List.of(new NearbyProviderResponse(1L, "Provider", 0, null, lat + 0.0009, lon)), null);
+        };
+    }
+
+    @Test
+    void shouldShareOneEntryAcrossCallersInTheSameTile() {
+        CursorPage<NearbyProviderResponse> first = cache.get(TUNIS_LAT, TUNIS_LON, 5_000, 20, null, loader);
+        CursorPage<NearbyProviderResponse> second = cache.get(TUNIS_LAT + 0.0001, TUNIS_LON, 4_800, 20, null, loader);
+
+        assertEquals(1, loads.get());
+        // Distances are recomputed for each caller
+        assertNotEquals(first.items().get(0).distanceMeters(), second.items().get(0).distanceMeters(), 1.0);
+    }
+
+    @Test
+    void shouldCollapseConcurrentMisses() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        NearbyResultCache.Loader slowLoader = (lat, lon, radius) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return loader.load(lat, lon, radius);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> cache.get(TUNIS_LAT, TUNIS_LON, 5_000, 20, null, slowLoader));
+        }
+        Thread.sleep(100);
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void shouldOnlyInvalidateEntriesNearATileCrossing() {
+        cache.get(TUNIS_LAT, TUNIS_LON, 2_000, 20, null, loader);
+        cache.get(SFAX_LAT, SFAX_LON, 2_000, 20, null, loader);
+
+        ProviderSpatialIndex.Hit previous = new ProviderSpatialIndex.Hit(7L, TUNIS_LAT, TUNIS_LON, 0);
+        cache.providerMoved(previous, TUNIS_LAT + 0.005, TUNIS_LON);
+        cache.get(TUNIS_LAT, TUNIS_LON, 2_000, 20, null, loader);
+        cache.get(SFAX_LAT, SFAX_LON, 2_000, 20, null, loader);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void shouldKeepEntriesWhenProviderMovesWithinItsTile() {
+        cache.get(TUNIS_LAT, TUNIS_LON, 2_000, 20, null, loader);
+
+        ProviderSpatialIndex.Hit previous = new ProviderSpatialIndex.Hit(7L, TUNIS_LAT, TUNIS_LON, 0);
+        cache.providerMoved(previous, TUNIS_LAT + 0.00001, TUNIS_LON);
+        cache.get(TUNIS_LAT, TUNIS_LON, 2_000, 20, null, loader);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void shouldFindProvidersNearTheTileEdgeWithinTheCallersRadius() {
+        TileGrid tiles = new TileGrid(0.001);
+        long tile = tiles.tileOf(TUNIS_LAT, TUNIS_LON);
+        double callerLat = tiles.centerLat(tile) + 0.0004; // About 44 m north of the tile center
+        double callerLon = tiles.centerLon(tile);
+        double providerLat = callerLat + GeoMath.metersToLatDegrees(480);
+        // Returns the provider when it lies within the loaded disk
+        NearbyResultCache.Loader diskLoader = (lat, lon, radius) -> new CursorPage<>(
+                GeoMath.haversineMeters(lat, lon, providerLat, callerLon) <= radius
+                        ? List.of(new NearbyProviderResponse(1L, "Provider", 0, null, providerLat, callerLon))
+                        : List.of(), null);
+
+        CursorPage<NearbyProviderResponse> page = cache.get(callerLat, callerLon, 500, 20, null, diskLoader);
+
+        assertEquals(1, page.items().size());
+        assertEquals(480, page.items().get(0).distanceMeters(), 1.0);
+    }
+}
@@ -0,0 +1,67 @@
+package com.kawn.hirfa.geo.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoCellTest {
+
+    private static final double TUNIS_LAT = 36.8065;
+    private static final double TUNIS_LON = 10.1815;
+
+    @Test
+    void shouldDecodeToWithinTwoCentimeters() {
+        Random random = new Random(3);
+        for (int i = 0; i < 10_000; i++) {
+            double lat = random.nextDouble() * 180 - 90;
+            double lon = random.nextDouble() * 360 - 180;
+            long cell = GeoCell.encode(lat, lon);
+
+            assertTrue(cell >= 0);
+            assertTrue(GeoMath.haversineMeters(lat, lon, GeoCell.decodeLat(cell), GeoCell.decodeLon(cell)) < 0.02);
+        }
+    }
+
+    @Test
+    void shouldKeepNearbyPointsCloseInKeyOrder() {
+        long a = GeoCell.encode(TUNIS_LAT, TUNIS_LON);
+        long b = GeoCell.encode(TUNIS_LAT + 0.0001, TUNIS_LON + 0.0001);
+        long far = GeoCell.encode(-TUNIS_LAT, -TUNIS_LON);
+
+        assertTrue(Long.numberOfLeadingZeros(a ^ b) > Long.numberOfLeadingZeros(a ^ far));
+    }
+
+    @Test
+    void shouldCoverEveryPointWithinTheRadius() {
+        Random random = new Random(5);
+        double radius = 3_000;
+        List<long[]> ranges = GeoCell.coveringRanges(TUNIS_LAT, TUNIS_LON, radius);
+
+        assertTrue(ranges.size() <= 16);
+        int inside = 0;
+        for (int i = 0; i < 20_000; i++) {
+            double lat = TUNIS_LAT + (random.nextDouble() - 0.5) * 0.1;
+            double lon = TUNIS_LON + (random.nextDouble() - 0.5) * 0.1;
+            if (GeoMath.haversineMeters(TUNIS_LAT, TUNIS_LON, lat, lon) > radius) {
+                continue;
+            }
+            inside++;
+            long cell = GeoCell.encode(lat, lon);
+            assertTrue(ranges.stream().anyMatch(range -> cell >= range[0] && cell <= range[1]),
+                    "Point " + lat + "," + lon + " is not covered");
+        }
+        assertTrue(inside > 1_000);
+    }
+
+    @Test
+    void shouldMergeAdjacentRanges() {
+        List<long[]> ranges = GeoCell.coveringRanges(TUNIS_LAT, TUNIS_LON, 500, 64);
+
+        for (int i = 1; i < ranges.size(); i++) {
+            assertTrue(ranges.get(i)[0] > ranges.get(i - 1)[1] + 1);
+        }
+    }
+}
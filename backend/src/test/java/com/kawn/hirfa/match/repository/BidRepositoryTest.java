@@ -0,0 +1,146 @@
+package com.kawn.hirfa.match.repository;
+
+import com.kawn.hirfa.auth.domain.User;
+import com.kawn.hirfa.auth.domain.UserRole;
+import com.kawn.hirfa.match.domain.Bid;
+import com.kawn.hirfa.match.domain.Job;
+import com.kawn.hirfa.match.domain.JobStatus;
+import com.kawn.hirfa.match.scoring.BidFeatures;
+import com.kawn.hirfa.match.scoring.BidScoringEngine;
+import com.kawn.hirfa.match.scoring.ScoringWeights;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class BidRepositoryTest {
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private BidRepository bidRepository;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private Job job;
+    private List<Bid> bids;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(5);
+        User customer = persistUser("20000000", 100, now.minusYears(1));
+        job = Job.builder().customer(customer).title("Fix Sink").status(JobStatus.OPEN)
+                .latitude(36.8065).longitude(10.1815).build();
+        entityManager.persist(job);
+
+        // Few distinct scores, so most bids tie and fall back to bid order
+        List<User> providers = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            LocalDateTime joined = random.nextBoolean() ? now.minusDays(random.nextInt(25)) : now.minusDays(40 + random.nextInt(300));
+            providers.add(persistUser("5000000" + i, 80 + 20 * random.nextInt(3), joined));
+        }
+        bids = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            Bid bid = Bid.builder().job(job).provider(providers.get(random.nextInt(providers.size())))
+                    .amount(BigDecimal.valueOf(20 + random.nextInt(80))).message("Bid " + i).build();
+            entityManager.persist(bid);
+            bids.add(bid);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldRankBidsLikeTheFairPlayComparator() {
+        // The former in-memory ranking: stable sort by score, descending, over bids in insertion order
+        List<Long> expected = bids.stream()
+                .sorted(Comparator.comparingDouble(this::legacyScore).reversed())
+                .map(Bid::getId)
+                .toList();
+
+        List<Long> ranked = bidRepository.findRankedPage(job.getId(), 1, 20, now.minusDays(30),
+                        Double.MAX_VALUE, Long.MIN_VALUE, Limit.of(bids.size())).stream()
+                .map(RankedBid::getBidId)
+                .toList();
+
+        assertEquals(expected, ranked);
+    }
+
+    @Test
+    void shouldWalkTheRankingPageByPage() {
+        List<Long> all = bidRepository.findRankedPage(job.getId(), 1, 20, now.minusDays(30),
+                        Double.MAX_VALUE, Long.MIN_VALUE, Limit.of(bids.size())).stream()
+                .map(RankedBid::getBidId)
+                .toList();
+
+        List<Long> paged = new ArrayList<>();
+        double afterScore = Double.MAX_VALUE;
+        long afterId = Long.MIN_VALUE;
+        while (true) {
+            List<RankedBid> page = bidRepository.findRankedPage(job.getId(), 1, 20, now.minusDays(30), afterScore,
+                    afterId, Limit.of(7));
+            if (page.isEmpty()) {
+                break;
+            }
+            page.forEach(bid -> paged.add(bid.getBidId()));
+            RankedBid last = page.get(page.size() - 1);
+            afterScore = last.getScore();
+            afterId = last.getBidId();
+        }
+
+        assertEquals(all, paged);
+    }
+
+    @Test
+    void shouldRankLikeTheScoringEngineForProviderOnlyWeights() {
+        List<Long> ranked = bidRepository.findRankedPage(job.getId(), 1.5, 7, now.minusDays(30),
+                        Double.MAX_VALUE, Long.MIN_VALUE, Limit.of(bids.size())).stream()
+                .map(RankedBid::getBidId)
+                .toList();
+
+        List<BidScoringRow> rows = bidRepository.findScoringRows(job.getId());
+        BidFeatures features = new BidFeatures(rows.size());
+        rows.forEach(row -> features.add(row.getBidId(), row.getFairnessScore(),
+                row.getProviderCreatedAt().isAfter(now.minusDays(30)) ? 1 : 0, 0, 0, 0.5));
+        long[] scored = new BidScoringEngine(30, 1, 20, 0, 0, 0)
+                .topK(features, new ScoringWeights(1.5, 7, 0, 0, 0), bids.size(), Double.MAX_VALUE, Long.MIN_VALUE)
+                .bidIds();
+
+        assertEquals(ranked, Arrays.stream(scored).boxed().toList());
+    }
+
+    private double legacyScore(Bid bid) {
+        User p = bid.getProvider();
+        double score = p.getFairnessScore();
+        if (p.getCreatedAt().isAfter(now.minusDays(30))) {
+            score += 20;
+        }
+        return score;
+    }
+
+    private User persistUser(String phoneNumber, int fairnessScore, LocalDateTime createdAt) {
+        User user = User.builder().phoneNumber(phoneNumber).fullName("User " + phoneNumber)
+                .role(UserRole.PROVIDER).fairnessScore(fairnessScore).build();
+        entityManager.persist(user);
+        entityManager.flush();
+        // createdAt is a creation timestamp; backdate it directly
+        entityManager.createQuery("UPDATE User u SET u.createdAt = :createdAt WHERE u.id = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", user.getId())
+                .executeUpdate();
+        user.setCreatedAt(createdAt);
+        return user;
+    }
+}
@@ -0,0 +1,77 @@
+package com.kawn.hirfa.match.scoring;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First page of a job's Fair-Play ranking with all five factors weighted: the scoring engine's
+ * single pass with a bounded heap, versus scoring bid objects and fully sorting them as the
+ * original in-memory ranking did.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BidScoringBenchmark {
+
+    private static final ScoringWeights WEIGHTS = new ScoringWeights(1, 20, 30, 10, 15);
+    private static final int PAGE_SIZE = 20;
+
+    private record ScoredBid(long id, double fairness, double newness, double price, double proximity, double rating) {
+        double score(ScoringWeights w) {
+            return w.fairness() * fairness + w.newness() * newness + w.price() * price
+                    + w.distance() * proximity + w.rating() * rating;
+        }
+    }
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int bids;
+
+    private BidScoringEngine engine;
+    private BidFeatures features;
+    private List<ScoredBid> objects;
+
+    @Setup
+    public void setUp() {
+        engine = new BidScoringEngine(30, 1, 20, 0, 0, 0);
+        features = new BidFeatures(bids);
+        objects = new ArrayList<>(bids);
+        Random random = new Random(13);
+        for (int i = 0; i < bids; i++) {
+            ScoredBid bid = new ScoredBid(i, 80 + 10 * random.nextInt(5), random.nextInt(4) == 0 ? 1 : 0,
+                    (random.nextInt(100) - 30) / 100.0, 1 / (1 + random.nextDouble() * 20), (1 + random.nextInt(5)) / 5.0);
+            objects.add(bid);
+            features.add(bid.id(), bid.fairness(), bid.newness(), bid.price(), bid.proximity(), bid.rating());
+        }
+    }
+
+    @Benchmark
+    public BidScoringEngine.Ranking engineTopK() {
+        return engine.topK(features, WEIGHTS, PAGE_SIZE + 1, Double.MAX_VALUE, Long.MIN_VALUE);
+    }
+
+    @Benchmark
+    public List<ScoredBid> fullSort() {
+        return objects.stream()
+                .sorted(Comparator.comparingDouble((ScoredBid bid) -> bid.score(WEIGHTS)).reversed()
+                        .thenComparingLong(ScoredBid::id))
+                .limit(PAGE_SIZE + 1)
+                .toList();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BidScoringBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,89 @@
+package com.kawn.hirfa.match.scoring;
+
+import com.kawn.hirfa.common.exception.InvalidOperationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BidScoringEngineTest {
+
+    private static final ScoringWeights ALL_FACTORS = new ScoringWeights(1, 20, 30, 10, 15);
+
+    private final BidScoringEngine engine = new BidScoringEngine(30, 1, 20, 0, 0, 0);
+
+    @Test
+    void shouldKeepTheSameTopKAsAFullSort() {
+        BidFeatures features = randomFeatures(2_000, new Random(3));
+
+        BidScoringEngine.Ranking ranking = engine.topK(features, ALL_FACTORS, 25, Double.MAX_VALUE, Long.MIN_VALUE);
+
+        List<Long> expected = IntStream.range(0, features.size()).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> -features.score(i, ALL_FACTORS))
+                        .thenComparingLong(features::bidId))
+                .limit(25)
+                .map(features::bidId)
+                .toList();
+        assertEquals(expected, toList(ranking.bidIds()));
+    }
+
+    @Test
+    void shouldResumeAfterTheCursorWithoutGapsOrRepeats() {
+        // Provider-only factors on a small range of fairness scores: lots of ties
+        BidFeatures features = randomFeatures(500, new Random(4));
+        ScoringWeights weights = engine.weights();
+        List<Long> all = toList(engine.topK(features, weights, features.size(), Double.MAX_VALUE, Long.MIN_VALUE).bidIds());
+
+        List<Long> paged = new ArrayList<>();
+        double afterScore = Double.MAX_VALUE;
+        long afterId = Long.MIN_VALUE;
+        BidScoringEngine.Ranking page;
+        do {
+            page = engine.topK(features, weights, 17, afterScore, afterId);
+            paged.addAll(toList(page.bidIds()));
+            if (page.size() > 0) {
+                afterScore = page.scores()[page.size() - 1];
+                afterId = page.bidIds()[page.size() - 1];
+            }
+        } while (page.size() == 17);
+
+        assertEquals(all.size(), features.size());
+        assertEquals(all, paged);
+    }
+
+    @Test
+    void shouldSwapWeightsAtRuntime() {
+        ScoringWeights priceOnly = new ScoringWeights(0, 0, 1, 0, 0);
+        engine.updateWeights(priceOnly);
+
+        assertSame(priceOnly, engine.weights());
+        assertTrue(priceOnly.usesBidFactors());
+        assertThrows(InvalidOperationException.class, () -> new ScoringWeights(Double.NaN, 0, 0, 0, 0));
+    }
+
+    static BidFeatures randomFeatures(int bids, Random random) {
+        BidFeatures features = new BidFeatures(16);
+        for (int i = 0; i < bids; i++) {
+            features.add(random.nextInt(1_000_000),
+                    80 + 10 * random.nextInt(5),
+                    random.nextInt(4) == 0 ? 1 : 0,
+                    (random.nextInt(100) - 30) / 100.0,
+                    random.nextInt(5) == 0 ? 0 : 1 / (1 + random.nextDouble() * 20),
+                    random.nextInt(3) == 0 ? 0.5 : (1 + random.nextInt(5)) / 5.0);
+        }
+        return features;
+    }
+
+    private static List<Long> toList(long[] ids) {
+        List<Long> list = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+}
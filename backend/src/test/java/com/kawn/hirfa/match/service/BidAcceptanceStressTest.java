@@ -0,0 +1,137 @@
+package com.kawn.hirfa.match.service;
+
+import com.kawn.hirfa.auth.domain.User;
+import com.kawn.hirfa.auth.domain.UserRole;
+import com.kawn.hirfa.auth.repository.UserRepository;
+import com.kawn.hirfa.common.exception.InvalidOperationException;
+import com.kawn.hirfa.match.domain.Bid;
+import com.kawn.hirfa.match.domain.Job;
+import com.kawn.hirfa.match.domain.JobBidStats;
+import com.kawn.hirfa.match.domain.JobStatus;
+import com.kawn.hirfa.match.repository.BidRepository;
+import com.kawn.hirfa.match.repository.JobBidStatsRepository;
+import com.kawn.hirfa.match.repository.JobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hundreds of concurrent accepts and bids against a handful of jobs, through real transactions.
+ * Exactly one accept per job may win, and the job's status and bid aggregates must agree with
+ * its bids.
+ */
+@SpringBootTest
+class BidAcceptanceStressTest {
+
+    private static final int JOBS = 10;
+    private static final int BIDS_PER_JOB = 10;
+    private static final int PROVIDERS = 20;
+    private static final int OPERATIONS = 800;
+    private static final int THREADS = 64;
+
+    @Autowired
+    private MatchService matchService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JobRepository jobRepository;
+    @Autowired
+    private BidRepository bidRepository;
+    @Autowired
+    private JobBidStatsRepository jobBidStatsRepository;
+
+    @Test
+    void shouldLetExactlyOneAcceptWinPerJob() throws InterruptedException {
+        User customer = userRepository.save(User.builder().phoneNumber("77000000").role(UserRole.CUSTOMER).build());
+        List<User> providers = new ArrayList<>();
+        for (int i = 0; i < PROVIDERS; i++) {
+            providers.add(userRepository.save(User.builder().phoneNumber("7710" + String.format("%04d", i))
+                    .role(UserRole.PROVIDER).build()));
+        }
+        List<Job> jobs = new ArrayList<>();
+        Map<Long, List<Long>> bidsByJob = new HashMap<>();
+        for (int j = 0; j < JOBS; j++) {
+            Job job = matchService.createJob(customer, "Stress " + j, "Concurrent accepts", BigDecimal.TEN,
+                    36.8, 10.18, null);
+            jobs.add(job);
+            List<Long> bids = new ArrayList<>();
+            for (int b = 0; b < BIDS_PER_JOB; b++) {
+                bids.add(matchService.placeBid(providers.get(b % PROVIDERS), job.getId(), BigDecimal.ONE, null).bidId());
+            }
+            bidsByJob.put(job.getId(), bids);
+        }
+
+        Map<Long, AtomicInteger> winsByJob = new ConcurrentHashMap<>();
+        AtomicInteger rejectedAccepts = new AtomicInteger();
+        AtomicInteger bidsPlaced = new AtomicInteger();
+        AtomicInteger rejectedBids = new AtomicInteger();
+        List<Throwable> unexpected = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Random random = new Random(16);
+        for (int op = 0; op < OPERATIONS; op++) {
+            Job job = jobs.get(random.nextInt(JOBS));
+            boolean accept = random.nextBoolean();
+            Long bidId = bidsByJob.get(job.getId()).get(random.nextInt(BIDS_PER_JOB));
+            User provider = providers.get(random.nextInt(PROVIDERS));
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    if (accept) {
+                        matchService.acceptBid(bidId, customer);
+                        winsByJob.computeIfAbsent(job.getId(), id -> new AtomicInteger()).incrementAndGet();
+                    } else {
+                        matchService.placeBid(provider, job.getId(), BigDecimal.TWO, null);
+                        bidsPlaced.incrementAndGet();
+                    }
+                } catch (InvalidOperationException e) {
+                    (accept ? rejectedAccepts : rejectedBids).incrementAndGet();
+                } catch (Throwable e) {
+                    synchronized (unexpected) {
+                        unexpected.add(e);
+                    }
+                }
+            });
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("%d operations on %d threads in %.2f s (%.0f ops/s): %d accepts won, %d rejected; "
+                        + "%d bids placed, %d rejected%n", OPERATIONS, THREADS, seconds, OPERATIONS / seconds,
+                winsByJob.values().stream().mapToInt(AtomicInteger::get).sum(), rejectedAccepts.get(),
+                bidsPlaced.get(), rejectedBids.get());
+
+        assertEquals(List.of(), unexpected);
+        List<Bid> allBids = bidRepository.findAll();
+        for (Job job : jobs) {
+            int wins = winsByJob.getOrDefault(job.getId(), new AtomicInteger()).get();
+            List<Bid> bids = allBids.stream().filter(bid -> bid.getJob().getId().equals(job.getId())).toList();
+            List<Long> accepted = bids.stream().filter(Bid::isAccepted).map(Bid::getId).toList();
+            Job stored = jobRepository.findById(job.getId()).orElseThrow();
+            JobBidStats stats = jobBidStatsRepository.findById(job.getId()).orElseThrow();
+            assertTrue(wins <= 1, "job " + job.getId() + " accepted " + wins + " times");
+            assertEquals(wins, accepted.size());
+            assertEquals(wins == 1 ? JobStatus.IN_PROGRESS : JobStatus.OPEN, stored.getStatus());
+            // The aggregates saw every committed bid and accept exactly once
+            assertEquals(bids.size(), stats.getBidCount());
+            assertEquals(accepted.isEmpty() ? null : accepted.get(0), stats.getAcceptedBidId());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.kawn.hirfa.match.service;
+
+import com.kawn.hirfa.auth.domain.User;
+import com.kawn.hirfa.auth.domain.UserRole;
+import com.kawn.hirfa.common.api.CursorPage;
+import com.kawn.hirfa.match.domain.Job;
+import com.kawn.hirfa.match.domain.JobStatus;
+import com.kawn.hirfa.match.dto.CustomerJobResponse;
+import com.kawn.hirfa.match.repository.BidInserts;
+import com.kawn.hirfa.match.repository.JobFeedQueries;
+import com.kawn.hirfa.match.scoring.BidScoringEngine;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE) // PostgreSQL mode, for ON CONFLICT
+@Import({MatchService.class, BidScoringEngine.class, JobFeedQueries.class, BidInserts.class})
+class CustomerJobsTest {
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private MatchService matchService;
+
+    @MockBean
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void shouldListJobsNewestFirstWithTheirBidAggregates() {
+        User customer = persist("21000000", UserRole.CUSTOMER);
+        User otherCustomer = persist("21000001", UserRole.CUSTOMER);
+        User provider = persist("21000002", UserRole.PROVIDER);
+        List<Job> jobs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            jobs.add(matchService.createJob(customer, "Job " + i, "", BigDecimal.valueOf(100), 36.8, 10.18, null));
+        }
+        matchService.createJob(otherCustomer, "Not mine", "", BigDecimal.TEN, 36.8, 10.18, null);
+
+        Long jobId = jobs.get(1).getId();
+        matchService.placeBid(provider, jobId, new BigDecimal("40.00"), null);
+        Long acceptedBid = matchService.placeBid(provider, jobId, new BigDecimal("90.00"), null).bidId();
+        matchService.placeBid(provider, jobId, new BigDecimal("65.00"), null);
+        matchService.acceptBid(acceptedBid, customer);
+
+        List<CustomerJobResponse> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<CustomerJobResponse> page = matchService.getCustomerJobs(customer, 2, cursor);
+            listed.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(jobs.reversed().stream().map(Job::getId).toList(),
+                listed.stream().map(CustomerJobResponse::jobId).toList());
+        CustomerJobResponse withBids = listed.stream().filter(job -> job.jobId().equals(jobId)).findFirst().orElseThrow();
+        assertEquals(JobStatus.IN_PROGRESS, withBids.status());
+        assertEquals(3, withBids.bidCount());
+        assertEquals(new BigDecimal("40.00"), withBids.minBid());
+        assertEquals(new BigDecimal("90.00"), withBids.maxBid());
+        assertEquals(new BigDecimal("65.00"), withBids.averageBid());
+        assertNotNull(withBids.lastBidAt());
+        assertEquals(acceptedBid, withBids.acceptedBidId());
+        CustomerJobResponse withoutBids = listed.get(0);
+        assertEquals(0, withoutBids.bidCount());
+        assertNull(withoutBids.averageBid());
+    }
+
+    @Test
+    void shouldStartAggregatesForJobsCreatedWithoutThem() {
+        User customer = persist("21000003", UserRole.CUSTOMER);
+        User provider = persist("21000004", UserRole.PROVIDER);
+        // A job from before aggregates were kept
+        Job job = Job.builder().customer(customer).title("Old job").status(JobStatus.OPEN).budget(BigDecimal.TEN).build();
+        entityManager.persist(job);
+
+        Long bidId = matchService.placeBid(provider, job.getId(), new BigDecimal("30.00"), null).bidId();
+        matchService.acceptBid(bidId, customer);
+
+        CustomerJobResponse listed = matchService.getCustomerJobs(customer, 10, null).items().get(0);
+        assertEquals(1, listed.bidCount());
+        assertEquals(new BigDecimal("30.00"), listed.averageBid());
+        assertEquals(bidId, listed.acceptedBidId());
+    }
+
+    private User persist(String phoneNumber, UserRole role) {
+        User user = User.builder().phoneNumber(phoneNumber).role(role).build();
+        entityManager.persist(user);
+        return user;
+    }
+}
@@ -0,0 +1,111 @@
+package com.kawn.hirfa.match.service;
+
+import com.kawn.hirfa.auth.repository.ProviderContact;
+import com.kawn.hirfa.auth.repository.UserRepository;
+import com.kawn.hirfa.chat.cluster.ClusterFanout;
+import com.kawn.hirfa.geo.service.GeoService;
+import com.kawn.hirfa.match.dto.JobNotification;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class JobDispatcherTest {
+
+    private GeoService geoService;
+    private UserRepository userRepository;
+    private SimpMessagingTemplate messagingTemplate;
+    private SimpUserRegistry userRegistry;
+    private ClusterFanout clusterFanout;
+    private JobDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        geoService = mock(GeoService.class);
+        userRepository = mock(UserRepository.class);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        userRegistry = mock(SimpUserRegistry.class);
+        clusterFanout = mock(ClusterFanout.class);
+        // Batches of 2 ids, and a budget of 2 notifications per provider
+        dispatcher = new JobDispatcher(geoService, userRepository, messagingTemplate, userRegistry,
+                clusterFanout, new SimpleMeterRegistry(), true, 10_000, 1, 10, 2, 2, 0.001, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void shouldNotifyOnlineProvidersOfTheCategoryInBatches() {
+        when(geoService.findProviderIdsWithin(anyDouble(), anyDouble(), anyDouble())).thenReturn(List.of(1L, 2L, 3L, 4L));
+        when(userRepository.findProviderContacts(List.of(2L, 3L), "PLUMBING")).thenReturn(List.of(contact(2L), contact(3L)));
+        when(userRepository.findProviderContacts(List.of(4L), "PLUMBING")).thenReturn(List.of(contact(4L)));
+        online("55000002", "55000004");
+
+        dispatcher.dispatch(event(1L));
+
+        // The customer (1) is never a candidate; 3 is offline
+        verify(messagingTemplate).convertAndSendToUser(eq("55000002"), eq(JobDispatcher.DESTINATION), any(JobNotification.class));
+        verify(messagingTemplate).convertAndSendToUser(eq("55000004"), eq(JobDispatcher.DESTINATION), any(JobNotification.class));
+        verify(messagingTemplate, never()).convertAndSendToUser(eq("55000003"), anyString(), any());
+    }
+
+    @Test
+    void shouldNotifyProvidersThatMayBeConnectedToOtherNodes() {
+        when(clusterFanout.isClustered()).thenReturn(true);
+        when(geoService.findProviderIdsWithin(anyDouble(), anyDouble(), anyDouble())).thenReturn(List.of(2L, 3L));
+        when(userRepository.findProviderContacts(List.of(2L, 3L), "PLUMBING")).thenReturn(List.of(contact(2L), contact(3L)));
+        online("55000002");
+
+        dispatcher.dispatch(event(1L));
+
+        // 3 has no session here, but may have one on another node
+        verify(messagingTemplate).convertAndSendToUser(eq("55000002"), eq(JobDispatcher.DESTINATION), any(JobNotification.class));
+        verify(messagingTemplate).convertAndSendToUser(eq("55000003"), eq(JobDispatcher.DESTINATION), any(JobNotification.class));
+    }
+
+    @Test
+    void shouldThrottleAProviderFloodedWithJobs() {
+        when(geoService.findProviderIdsWithin(anyDouble(), anyDouble(), anyDouble())).thenReturn(List.of(2L));
+        when(userRepository.findProviderContacts(List.of(2L), "PLUMBING")).thenReturn(List.of(contact(2L)));
+        online("55000002");
+
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatch(event(1L));
+        }
+
+        verify(messagingTemplate, times(2)).convertAndSendToUser(eq("55000002"), eq(JobDispatcher.DESTINATION), any(JobNotification.class));
+    }
+
+    private void online(String... phoneNumbers) {
+        for (String phoneNumber : phoneNumbers) {
+            when(userRegistry.getUser(phoneNumber)).thenReturn(mock(SimpUser.class));
+        }
+    }
+
+    private static JobCreatedEvent event(Long customerId) {
+        return new JobCreatedEvent(10L, customerId, "Fix Sink", "PLUMBING", BigDecimal.TEN, 36.8065, 10.1815);
+    }
+
+    private static ProviderContact contact(long id) {
+        return new ProviderContact() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getPhoneNumber() {
+                return "5500000" + id;
+            }
+        };
+    }
+}
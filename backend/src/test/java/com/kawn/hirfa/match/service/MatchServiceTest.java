@@ -1,24 +1,39 @@
 package com.kawn.hirfa.match.service;
 
 import com.kawn.hirfa.auth.domain.User;
-import com.kawn.hirfa.match.domain.Bid;
+import com.kawn.hirfa.common.api.CursorPage;
+import com.kawn.hirfa.common.exception.InvalidOperationException;
+import com.kawn.hirfa.common.exception.ResourceNotFoundException;
 import com.kawn.hirfa.match.domain.Job;
 import com.kawn.hirfa.match.domain.JobStatus;
+import com.kawn.hirfa.match.repository.BidInserts;
 import com.kawn.hirfa.match.repository.BidRepository;
+import com.kawn.hirfa.match.dto.BidResponse;
+import com.kawn.hirfa.match.dto.PlacedBidResponse;
+import com.kawn.hirfa.match.repository.JobBidStatsRepository;
 import com.kawn.hirfa.match.repository.JobRepository;
+import com.kawn.hirfa.match.repository.RankedBid;
+import com.kawn.hirfa.match.scoring.BidScoringEngine;
+import com.kawn.hirfa.match.support.BidCursor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +43,15 @@ class MatchServiceTest {
     private JobRepository jobRepository;
     @Mock
     private BidRepository bidRepository;
+    @Mock
+    private BidInserts bidInserts;
+    @Mock
+    private JobBidStatsRepository jobBidStatsRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private BidScoringEngine scoringEngine = new BidScoringEngine(30, 1, 20, 0, 0, 0);
 
     @InjectMocks
     private MatchService matchService;
@@ -37,36 +61,67 @@ class MatchServiceTest {
         User customer = User.builder().id(1L).build();
         when(jobRepository.save(any(Job.class))).thenAnswer(i -> i.getArguments()[0]);
 
-        Job job = matchService.createJob(customer, "Fix Sink", "Leaking", BigDecimal.TEN, 10.0, 10.0);
+        Job job = matchService.createJob(customer, "Fix Sink", "Leaking", BigDecimal.TEN, 10.0, 10.0, " plumbing");
 
         assertNotNull(job);
         assertEquals(JobStatus.OPEN, job.getStatus());
         assertEquals("Fix Sink", job.getTitle());
+        assertEquals("PLUMBING", job.getCategory());
+        verify(eventPublisher).publishEvent(any(JobCreatedEvent.class));
+    }
+
+    @Test
+    void shouldPlaceBidWithoutLoadingTheJob() {
+        User provider = User.builder().id(5L).build();
+        when(bidInserts.insertIfJobOpen(eq(1L), eq(5L), eq(BigDecimal.TEN), eq("Tomorrow"), any(LocalDateTime.class)))
+                .thenReturn(42L);
+
+        PlacedBidResponse bid = matchService.placeBid(provider, 1L, BigDecimal.TEN, "Tomorrow");
+
+        assertEquals(42L, bid.bidId());
+        assertEquals(1L, bid.jobId());
+        verify(jobRepository, never()).findById(any());
+        verify(jobRepository, never()).existsById(any());
     }
 
     @Test
-    void shouldSortBidsByFairPlay_NewUserGetsBoost() {
-        // Setup Users
-        User veteranUser = User.builder().id(2L).fairnessScore(100)
-                .createdAt(LocalDateTime.now().minusMonths(6)).build();
+    void shouldTellMissingJobFromClosedJob() {
+        User provider = User.builder().id(5L).build();
+        when(bidInserts.insertIfJobOpen(any(), any(), any(), any(), any())).thenReturn(null);
+        when(jobRepository.existsById(1L)).thenReturn(true);
+        when(jobRepository.existsById(2L)).thenReturn(false);
+
+        assertThrows(InvalidOperationException.class, () -> matchService.placeBid(provider, 1L, BigDecimal.TEN, null));
+        assertThrows(ResourceNotFoundException.class, () -> matchService.placeBid(provider, 2L, BigDecimal.TEN, null));
+    }
 
-        User newUser = User.builder().id(3L).fairnessScore(100)
-                .createdAt(LocalDateTime.now().minusDays(2)).build(); // Very new!
+    @Test
+    void shouldPageBidsByFairPlayScore() {
+        RankedBid newUserBid = rankedBid(2L, 3L, 120);
+        RankedBid veteranBid = rankedBid(1L, 2L, 100);
+        RankedBid extraRow = rankedBid(3L, 4L, 100);
 
-        // Setup Bids
-        Bid veteranBid = Bid.builder().id(1L).provider(veteranUser).amount(BigDecimal.valueOf(50)).build();
-        Bid newBid = Bid.builder().id(2L).provider(newUser).amount(BigDecimal.valueOf(50)).build();
+        when(bidRepository.findRankedPage(eq(1L), eq(1.0), eq(20.0), any(LocalDateTime.class), eq(Double.MAX_VALUE),
+                eq(Long.MIN_VALUE), eq(Limit.of(3)))).thenReturn(List.of(newUserBid, veteranBid, extraRow));
 
-        // New User should logically have a higher calculated score due to the boost
-        // We need to verify the list order returned by
-        // matchService.getJobBidsSortedByFairness
+        CursorPage<BidResponse> page = matchService.getJobBidsSortedByFairness(1L, 2, null);
 
-        when(bidRepository.findByJobId(1L)).thenReturn(Arrays.asList(veteranBid, newBid));
+        // Expected: New User (Boosted) comes first, and the next page resumes after the veteran's bid
+        assertEquals(List.of(3L, 2L), page.items().stream().map(BidResponse::providerId).toList());
+        assertEquals(new BidCursor(100.0, 1L), BidCursor.decode(page.nextCursor()));
+    }
 
-        List<Bid> sortedBids = matchService.getJobBidsSortedByFairness(1L);
+    @Test
+    void shouldRejectInvalidCursor() {
+        assertThrows(InvalidOperationException.class, () -> matchService.getJobBidsSortedByFairness(1L, 20, "not-a-cursor"));
+    }
 
-        // Expected: New User (Boosted) comes first
-        assertEquals(newUser.getId(), sortedBids.get(0).getProvider().getId());
-        assertEquals(veteranUser.getId(), sortedBids.get(1).getProvider().getId());
+    private static RankedBid rankedBid(long bidId, long providerId, double score) {
+        RankedBid bid = mock(RankedBid.class);
+        when(bid.getBidId()).thenReturn(bidId);
+        when(bid.getProviderId()).thenReturn(providerId);
+        when(bid.getAmount()).thenReturn(BigDecimal.valueOf(50));
+        when(bid.getScore()).thenReturn(score);
+        return bid;
     }
 }
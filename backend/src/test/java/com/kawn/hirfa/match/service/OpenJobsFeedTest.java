@@ -0,0 +1,114 @@
+package com.kawn.hirfa.match.service;
+
+import com.kawn.hirfa.auth.domain.User;
+import com.kawn.hirfa.auth.domain.UserRole;
+import com.kawn.hirfa.common.api.CursorPage;
+import com.kawn.hirfa.geo.support.GeoMath;
+import com.kawn.hirfa.match.domain.Job;
+import com.kawn.hirfa.match.domain.JobStatus;
+import com.kawn.hirfa.match.dto.JobFeedItem;
+import com.kawn.hirfa.match.repository.BidInserts;
+import com.kawn.hirfa.match.repository.JobFeedQueries;
+import com.kawn.hirfa.match.scoring.BidScoringEngine;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({MatchService.class, BidScoringEngine.class, JobFeedQueries.class, BidInserts.class})
+class OpenJobsFeedTest {
+
+    private static final double TUNIS_LAT = 36.8065;
+    private static final double TUNIS_LON = 10.1815;
+    private static final double RADIUS_METERS = 3_000;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private MatchService matchService;
+
+    private List<Job> jobs;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(9);
+        User customer = User.builder().phoneNumber("20000000").role(UserRole.CUSTOMER).build();
+        entityManager.persist(customer);
+        String[] categories = {"PLUMBING", "CLEANING", null};
+        LocalDateTime base = LocalDateTime.of(2026, 10, 1, 8, 0);
+        jobs = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Job job = Job.builder().customer(customer).title("Job " + i)
+                    .category(categories[random.nextInt(categories.length)])
+                    .status(random.nextInt(4) == 0 ? JobStatus.IN_PROGRESS : JobStatus.OPEN)
+                    .budget(BigDecimal.TEN)
+                    .latitude(TUNIS_LAT + random.nextGaussian() * 0.03)
+                    .longitude(TUNIS_LON + random.nextGaussian() * 0.03)
+                    .build();
+            entityManager.persist(job);
+            jobs.add(job);
+        }
+        entityManager.flush();
+        // Creation times with plenty of ties, so the id breaks them
+        for (Job job : jobs) {
+            LocalDateTime createdAt = base.plusMinutes(random.nextInt(60));
+            entityManager.createQuery("UPDATE Job j SET j.createdAt = :createdAt WHERE j.id = :id")
+                    .setParameter("createdAt", createdAt)
+                    .setParameter("id", job.getId())
+                    .executeUpdate();
+            job.setCreatedAt(createdAt);
+        }
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldPageOpenJobsOfACategoryNewestFirst() {
+        assertEquals(expected("PLUMBING"), walk(" plumbing"));
+    }
+
+    @Test
+    void shouldPageOpenJobsOfAnyCategory() {
+        List<Long> expected = expected(null);
+
+        assertTrue(expected.size() > 40);
+        assertEquals(expected, walk(null));
+    }
+
+    private List<Long> walk(String category) {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<JobFeedItem> page = matchService.findOpenJobsNear(TUNIS_LAT, TUNIS_LON, RADIUS_METERS,
+                    category, 7, cursor);
+            page.items().forEach(item -> {
+                assertTrue(item.distanceMeters() <= RADIUS_METERS);
+                seen.add(item.jobId());
+            });
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return seen;
+    }
+
+    private List<Long> expected(String category) {
+        return jobs.stream()
+                .filter(job -> job.getStatus() == JobStatus.OPEN)
+                .filter(job -> category == null || category.equals(job.getCategory()))
+                .filter(job -> GeoMath.haversineMeters(TUNIS_LAT, TUNIS_LON, job.getLatitude(), job.getLongitude())
+                        <= RADIUS_METERS)
+                .sorted(Comparator.comparing(Job::getCreatedAt).thenComparing(Job::getId).reversed())
+                .map(Job::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,122 @@
+package com.kawn.hirfa.review.service;
+
+import com.kawn.hirfa.auth.domain.User;
+import com.kawn.hirfa.auth.domain.UserRole;
+import com.kawn.hirfa.common.exception.InvalidOperationException;
+import com.kawn.hirfa.match.domain.Bid;
+import com.kawn.hirfa.match.domain.Job;
+import com.kawn.hirfa.match.domain.JobStatus;
+import com.kawn.hirfa.review.domain.Review;
+import com.kawn.hirfa.review.dto.ProviderRatingResponse;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE) // PostgreSQL mode, for ON CONFLICT
+@Import({ReviewService.class, ProviderRatingService.class})
+class ProviderRatingServiceTest {
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private ReviewService reviewService;
+    @Autowired
+    private ProviderRatingService ratingService;
+
+    private User customer;
+    private User provider;
+    private User otherProvider;
+
+    @BeforeEach
+    void setUp() {
+        customer = persistUser("22000000", UserRole.CUSTOMER);
+        provider = persistUser("22000001", UserRole.PROVIDER);
+        otherProvider = persistUser("22000002", UserRole.PROVIDER);
+    }
+
+    @Test
+    void shouldFoldEachReviewIntoItsProvidersAggregates() {
+        for (int rating : new int[]{5, 3, 4}) {
+            reviewService.createReview(customer, hiredJob(provider), rating, "Thanks", null);
+        }
+        reviewService.createReview(customer, hiredJob(otherProvider), 2, null, null);
+        Long reviewed = hiredJob(provider);
+        reviewService.createReview(customer, reviewed, 5, null, null);
+        entityManager.flush();
+        entityManager.clear(); // Read back as a later request would, not through the managed first row
+
+        ProviderRatingResponse rating = ratingService.getRating(provider.getId());
+        assertEquals(4, rating.reviewCount());
+        assertEquals(4.25, rating.average(), 1e-9);
+        assertEquals(4.25, rating.recentAverage(), 1e-6); // Written moments apart, so weighted alike
+        assertEquals(List.of(0L, 0L, 1L, 1L, 2L), rating.stars());
+        assertEquals(1, ratingService.getRating(otherProvider.getId()).reviewCount());
+        assertNull(ratingService.getRating(customer.getId()).average());
+
+        assertThrows(InvalidOperationException.class, () -> reviewService.createReview(customer, reviewed, 1, null, null));
+        assertThrows(InvalidOperationException.class, () -> reviewService.createReview(provider, hiredJob(provider), 1, null, null));
+        assertThrows(InvalidOperationException.class, () -> reviewService.createReview(customer, openJob(), 1, null, null));
+        assertThrows(InvalidOperationException.class, () -> reviewService.createReview(customer, hiredJob(provider), 6, null, null));
+    }
+
+    @Test
+    void shouldRebuildDriftedAggregatesFromReviews() {
+        reviewService.createReview(customer, hiredJob(provider), 1, null, null);
+        reviewService.createReview(customer, hiredJob(provider), 5, null, null);
+        reviewService.createReview(customer, hiredJob(otherProvider), 4, null, null);
+        entityManager.flush();
+        entityManager.clear();
+        ProviderRatingResponse otherBefore = ratingService.getRating(otherProvider.getId());
+        // A review written before reviews were linked to providers
+        Job legacyJob = entityManager.find(Job.class, hiredJob(provider));
+        entityManager.persist(Review.builder().job(legacyJob).rating(5).build());
+        entityManager.flush();
+        // The 1-star review is a year older than the others
+        entityManager.createQuery("UPDATE Review r SET r.createdAt = :at WHERE r.rating = 1")
+                .setParameter("at", LocalDateTime.now().minusYears(1))
+                .executeUpdate();
+        entityManager.createQuery("UPDATE ProviderRating r SET r.reviewCount = 99, r.stars1 = 7").executeUpdate();
+        entityManager.clear();
+
+        ProviderRatingService.RebuildResult result = ratingService.rebuild();
+
+        assertEquals(new ProviderRatingService.RebuildResult(2, 4), result);
+        ProviderRatingResponse rating = ratingService.getRating(provider.getId());
+        assertEquals(3, rating.reviewCount());
+        assertEquals(11 / 3.0, rating.average(), 1e-9);
+        // With a 180 day half-life the year-old review weighs about a quarter of the new ones
+        assertEquals((1 + 10 * 4.07) / (1 + 2 * 4.07), rating.recentAverage(), 0.02);
+        assertEquals(List.of(1L, 0L, 0L, 0L, 2L), rating.stars());
+        assertEquals(otherBefore, ratingService.getRating(otherProvider.getId()));
+    }
+
+    private Long hiredJob(User hired) {
+        Job job = Job.builder().customer(customer).title("Job").status(JobStatus.IN_PROGRESS).budget(BigDecimal.TEN).build();
+        entityManager.persist(job);
+        entityManager.persist(Bid.builder().job(job).provider(hired).amount(BigDecimal.ONE).accepted(true).build());
+        return job.getId();
+    }
+
+    private Long openJob() {
+        Job job = Job.builder().customer(customer).title("Open").status(JobStatus.OPEN).budget(BigDecimal.TEN).build();
+        entityManager.persist(job);
+        return job.getId();
+    }
+
+    private User persistUser(String phoneNumber, UserRole role) {
+        User user = User.builder().phoneNumber(phoneNumber).role(role).build();
+        entityManager.persist(user);
+        return user;
+    }
+}
@@ -0,0 +1,32 @@
+package com.kawn.hirfa.review.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatingDecayTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 1, 0, 0);
+
+    @Test
+    void shouldDoubleTheWeightEveryHalfLife() {
+        RatingDecay decay = new RatingDecay(Duration.ofDays(180), NOW);
+
+        assertEquals(2.0, decay.weight(NOW.plusDays(180)) / decay.weight(NOW), 1e-9);
+        assertEquals(1.0, decay.weight(RatingDecay.EPOCH));
+    }
+
+    @Test
+    void shouldRejectHalfLivesThatWouldOverflowTheSums() {
+        // Already about 2^1000 by now, so a provider's sums would soon be infinite
+        assertThrows(IllegalArgumentException.class, () -> new RatingDecay(Duration.ofDays(1), NOW));
+        assertThrows(IllegalArgumentException.class, () -> new RatingDecay(Duration.ZERO, NOW));
+
+        RatingDecay decay = new RatingDecay(Duration.ofDays(7), NOW);
+        assertTrue(Double.isFinite(decay.weight(NOW.plus(RatingDecay.HEADROOM))));
+        assertThrows(IllegalStateException.class, () -> decay.weight(NOW.plusDays(30 * 365)));
+    }
+}